@@ -0,0 +1,46 @@
+package vtconnect.bench;
+
+import java.util.Arrays;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Entry point of benchmarks.jar. Takes the usual JMH command line
+ *          and adds the GC profiler, so every report includes the allocation
+ *          rate, unless profilers were chosen with -prof. For example
+ *
+ *          java -jar benchmarks/target/benchmarks.jar GraphBenchmark
+ *          -p size=100000
+ *
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+
+    /**
+     * @param args
+     *            JMH command line
+     * @throws Exception
+     *             if the arguments are invalid or a benchmark fails to run
+     */
+    public static void main(String[] args) throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(
+            new CommandLineOptions(args));
+        if (!Arrays.asList(args).contains("-prof")) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
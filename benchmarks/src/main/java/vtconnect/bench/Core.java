@@ -0,0 +1,284 @@
+package vtconnect.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Stack;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Calls into the core classes, which live in the default package
+ *          and so cannot be imported from a named one (JMH refuses benchmarks
+ *          in the default package). Every call goes through a static final
+ *          MethodHandle invoked exactly, which the JIT inlines like a direct
+ *          call, so the bridge adds no measurable cost.
+ *
+ */
+final class Core {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles
+        .publicLookup();
+    private static final Class<?> GRAPH = type("Graph");
+    private static final Class<?> PROFILE = type("Profile");
+    private static final Class<?> VTCONNECT = type("VTConnect");
+
+    private static final MethodHandle NEW_GRAPH = constructor(GRAPH);
+    private static final MethodHandle ADD_VERTEX = method(GRAPH, "addVertex",
+        boolean.class, Object.class);
+    private static final MethodHandle ADD_EDGE = method(GRAPH, "addEdge",
+        boolean.class, Object.class, Object.class);
+    private static final MethodHandle REMOVE_EDGE = method(GRAPH,
+        "removeEdge", boolean.class, Object.class, Object.class);
+    private static final MethodHandle HAS_EDGE = method(GRAPH, "hasEdge",
+        boolean.class, Object.class, Object.class);
+    private static final MethodHandle BREADTH_FIRST = method(GRAPH,
+        "getBreadthFirstTraversal", Queue.class, Object.class);
+    private static final MethodHandle SHORTEST_PATH = method(GRAPH,
+        "getShortestPath", int.class, Object.class, Object.class,
+        Stack.class);
+
+    private static final MethodHandle NEW_PROFILE = constructor(PROFILE,
+        String.class, String.class);
+    private static final MethodHandle NEW_VTCONNECT = constructor(VTCONNECT,
+        boolean.class);
+    private static final MethodHandle ADD_USERS = method(VTCONNECT,
+        "addUsers", int.class, Collection.class);
+    private static final MethodHandle CREATE_FRIENDSHIPS = method(VTCONNECT,
+        "createFriendships", int.class, Collection.class);
+    private static final MethodHandle FRIEND_SUGGESTION = method(VTCONNECT,
+        "friendSuggestion", List.class, PROFILE);
+    private static final MethodHandle FRIENDSHIP_DISTANCE = method(VTCONNECT,
+        "friendshipDistance", int.class, PROFILE, PROFILE);
+    private static final MethodHandle REMOVE_USER = method(VTCONNECT,
+        "removeUser", PROFILE, PROFILE);
+
+    private Core() {
+    }
+
+
+    static Object newGraph() {
+        try {
+            return (Object)NEW_GRAPH.invokeExact();
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static boolean addVertex(Object graph, Object label) {
+        try {
+            return (boolean)ADD_VERTEX.invokeExact(graph, label);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static boolean addEdge(Object graph, Object begin, Object end) {
+        try {
+            return (boolean)ADD_EDGE.invokeExact(graph, begin, end);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static boolean removeEdge(Object graph, Object begin, Object end) {
+        try {
+            return (boolean)REMOVE_EDGE.invokeExact(graph, begin, end);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static boolean hasEdge(Object graph, Object begin, Object end) {
+        try {
+            return (boolean)HAS_EDGE.invokeExact(graph, begin, end);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static Queue<?> breadthFirstTraversal(Object graph, Object origin) {
+        try {
+            return (Queue<?>)BREADTH_FIRST.invokeExact(graph, origin);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static int shortestPath(
+        Object graph,
+        Object origin,
+        Object destination,
+        Stack<?> path) {
+        try {
+            return (int)SHORTEST_PATH.invokeExact(graph, origin, destination,
+                path);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static Object newProfile(String name, String status) {
+        try {
+            return (Object)NEW_PROFILE.invokeExact(name, status);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static Object newVTConnect(boolean concurrent) {
+        try {
+            return (Object)NEW_VTCONNECT.invokeExact(concurrent);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static int addUsers(Object network, Collection<?> users) {
+        try {
+            return (int)ADD_USERS.invokeExact(network, users);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static int createFriendships(Object network, Collection<?> pairs) {
+        try {
+            return (int)CREATE_FRIENDSHIPS.invokeExact(network, pairs);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static List<?> friendSuggestion(Object network, Object user) {
+        try {
+            return (List<?>)FRIEND_SUGGESTION.invokeExact(network, user);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static int friendshipDistance(Object network, Object a, Object b) {
+        try {
+            return (int)FRIENDSHIP_DISTANCE.invokeExact(network, a, b);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    static Object removeUser(Object network, Object user) {
+        try {
+            return (Object)REMOVE_USER.invokeExact(network, user);
+        }
+        catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        }
+        catch (ClassNotFoundException e) {
+            throw new IllegalStateException("core class " + name
+                + " is not on the class path", e);
+        }
+    }
+
+
+    /**
+     * - handle for a constructor, typed to return Object.
+     */
+    private static MethodHandle constructor(
+        Class<?> owner,
+        Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(owner, MethodType
+                .methodType(void.class, parameters));
+            return handle.asType(handle.type().changeReturnType(
+                Object.class));
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /**
+     * - handle for an instance method, with the receiver and every core type
+     * erased to Object so callers can invoke it exactly.
+     */
+    private static MethodHandle method(
+        Class<?> owner,
+        String name,
+        Class<?> result,
+        Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(owner, name, MethodType
+                .methodType(result, parameters));
+            MethodType erased = MethodType.methodType(erase(result),
+                Object.class);
+            for (Class<?> parameter : parameters) {
+                erased = erased.appendParameterTypes(erase(parameter));
+            }
+            return handle.asType(erased);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static Class<?> erase(Class<?> type) {
+        return (type == PROFILE || type == GRAPH || type == VTCONNECT
+            || type == Object.class)
+            ? Object.class
+            : type;
+    }
+
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException)t;
+        }
+        if (t instanceof Error) {
+            throw (Error)t;
+        }
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,130 @@
+package vtconnect.bench;
+
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Graph operations on an undirected graph of Integer labels, over
+ *          graph size and degree distribution. Queries cycle through a fixed
+ *          seeded sample of vertices so every run does the same work.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GraphBenchmark {
+
+    private static final int SAMPLE = 1 << 12;
+
+    @Param({ "10000", "100000" })
+    private int size;
+
+    @Param({ "uniform", "powerlaw" })
+    private String distribution;
+
+    private Object graph;
+    private Integer[] labels;
+    private int[] origins;
+    private int[] destinations;
+    private int next;
+
+    /**
+     * - builds the graph once per trial.
+     */
+    @Setup(Level.Trial)
+    public void build() {
+        Workload workload = new Workload(size, distribution);
+        graph = Core.newGraph();
+        labels = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            labels[id] = id;
+            Core.addVertex(graph, labels[id]);
+        }
+        for (int e = 0; e < workload.begins.length; e++) {
+            Integer begin = labels[workload.begins[e]];
+            Integer end = labels[workload.ends[e]];
+            Core.addEdge(graph, begin, end);
+            Core.addEdge(graph, end, begin);
+        }
+        origins = workload.sample(SAMPLE, 1);
+        destinations = workload.sample(SAMPLE, 2);
+    }
+
+
+    /**
+     * - Adds an edge and removes it again, so the graph stays the same from
+     * one invocation to the next.
+     *
+     * @return whether the edge was new
+     */
+    @Benchmark
+    public boolean addEdge() {
+        int i = advance();
+        Integer begin = labels[origins[i]];
+        Integer end = labels[destinations[i]];
+        boolean added = Core.addEdge(graph, begin, end);
+        if (added) {
+            Core.removeEdge(graph, begin, end);
+        }
+        return added;
+    }
+
+
+    /**
+     * @return whether the edge exists
+     */
+    @Benchmark
+    public boolean hasEdge() {
+        int i = advance();
+        return Core.hasEdge(graph, labels[origins[i]], labels[destinations[
+            i]]);
+    }
+
+
+    /**
+     * @return the traversal order
+     */
+    @Benchmark
+    public Object getBreadthFirstTraversal() {
+        return Core.breadthFirstTraversal(graph, labels[origins[advance()]]);
+    }
+
+
+    /**
+     * @return the path length
+     */
+    @Benchmark
+    public int getShortestPath() {
+        int i = advance();
+        return Core.shortestPath(graph, labels[origins[i]], labels[
+            destinations[i]], new Stack<Object>());
+    }
+
+
+    private int advance() {
+        next = (next + 1) & (SAMPLE - 1);
+        return next;
+    }
+}
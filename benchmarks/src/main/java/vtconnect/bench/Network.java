@@ -0,0 +1,52 @@
+package vtconnect.bench;
+
+import java.util.Arrays;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Builds benchmark VTConnect networks.
+ *
+ */
+final class Network {
+
+    private Network() {
+    }
+
+
+    /**
+     * - Returns count new profiles.
+     *
+     * @param count
+     *            number of profiles
+     * @return the profiles
+     */
+    static Object[] users(int count) {
+        Object[] users = new Object[count];
+        for (int id = 0; id < count; id++) {
+            users[id] = Core.newProfile("user" + id, "status " + id);
+        }
+        return users;
+    }
+
+
+    /**
+     * - Adds users and the friendships of workload to network.
+     *
+     * @param network
+     *            empty VTConnect
+     * @param users
+     *            one profile per workload vertex
+     * @param workload
+     *            friendships to create
+     */
+    static void fill(Object network, Object[] users, Workload workload) {
+        Core.addUsers(network, Arrays.asList(users));
+        Core.createFriendships(network, workload.pairs(users));
+    }
+}
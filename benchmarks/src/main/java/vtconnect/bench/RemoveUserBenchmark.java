@@ -0,0 +1,91 @@
+package vtconnect.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          VTConnect.removeUser. Removing a user changes the network, so each
+ *          iteration rebuilds it and then times a batch of BATCH removals of
+ *          distinct users, in a seeded order; the reported time is per batch.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, batchSize = RemoveUserBenchmark.BATCH)
+@Measurement(iterations = 5, batchSize = RemoveUserBenchmark.BATCH)
+public class RemoveUserBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({ "10000", "100000" })
+    private int size;
+
+    @Param({ "uniform", "powerlaw" })
+    private String distribution;
+
+    private Workload workload;
+    private Object network;
+    private Object[] users;
+    private int[] order;
+    private int next;
+
+    /**
+     * - generates the graph once per trial.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        workload = new Workload(size, distribution);
+        order = new int[size];
+        for (int id = 0; id < size; id++) {
+            order[id] = id;
+        }
+        int[] swaps = workload.sample(size, 3);
+        for (int id = size - 1; id > 0; id--) {
+            int other = swaps[id] % (id + 1);
+            int swap = order[id];
+            order[id] = order[other];
+            order[other] = swap;
+        }
+    }
+
+
+    /**
+     * - rebuilds the network before each batch.
+     */
+    @Setup(Level.Iteration)
+    public void build() {
+        network = Core.newVTConnect(false);
+        users = Network.users(size);
+        Network.fill(network, users, workload);
+        next = 0;
+    }
+
+
+    /**
+     * @return the removed user
+     */
+    @Benchmark
+    public Object removeUser() {
+        return Core.removeUser(network, users[order[next++]]);
+    }
+}
@@ -0,0 +1,89 @@
+package vtconnect.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          VTConnect queries on a network built through the bulk ingestion
+ *          path, over network size and degree distribution.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VTConnectBenchmark {
+
+    private static final int SAMPLE = 1 << 12;
+
+    @Param({ "10000", "100000" })
+    private int size;
+
+    @Param({ "uniform", "powerlaw" })
+    private String distribution;
+
+    private Object network;
+    private Object[] users;
+    private int[] origins;
+    private int[] destinations;
+    private int next;
+
+    /**
+     * - builds the network once per trial.
+     */
+    @Setup(Level.Trial)
+    public void build() {
+        Workload workload = new Workload(size, distribution);
+        network = Core.newVTConnect(false);
+        users = Network.users(size);
+        Network.fill(network, users, workload);
+        origins = workload.sample(SAMPLE, 1);
+        destinations = workload.sample(SAMPLE, 2);
+    }
+
+
+    /**
+     * @return the suggested friends
+     */
+    @Benchmark
+    public Object friendSuggestion() {
+        return Core.friendSuggestion(network, users[origins[advance()]]);
+    }
+
+
+    /**
+     * @return the number of hops
+     */
+    @Benchmark
+    public int friendshipDistance() {
+        int i = advance();
+        return Core.friendshipDistance(network, users[origins[i]], users[
+            destinations[i]]);
+    }
+
+
+    private int advance() {
+        next = (next + 1) & (SAMPLE - 1);
+        return next;
+    }
+}
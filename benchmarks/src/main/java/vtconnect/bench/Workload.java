@@ -0,0 +1,124 @@
+package vtconnect.bench;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Seeded random undirected graphs for the benchmarks, so every run
+ *          and every fork measures the same graph. "uniform" joins random
+ *          pairs, which gives every vertex about the same degree; "powerlaw"
+ *          attaches each new vertex to existing ones in proportion to their
+ *          degree (Barabasi-Albert), which gives the few very popular users a
+ *          real social network has.
+ *
+ */
+final class Workload {
+
+    static final int AVERAGE_DEGREE = 16;
+    private static final long SEED = 0x5EED_2026L;
+
+    final int size;
+    final int[] begins;
+    final int[] ends;
+
+    /**
+     * - generates a graph with size vertices and about AVERAGE_DEGREE
+     * friends per vertex.
+     *
+     * @param size
+     *            number of vertices
+     * @param distribution
+     *            "uniform" or "powerlaw"
+     */
+    Workload(int size, String distribution) {
+        this.size = size;
+        int edges = size * AVERAGE_DEGREE / 2;
+        begins = new int[edges];
+        ends = new int[edges];
+        SplittableRandom random = new SplittableRandom(SEED);
+        if ("uniform".equals(distribution)) {
+            for (int e = 0; e < edges; e++) {
+                begins[e] = random.nextInt(size);
+                ends[e] = random.nextInt(size);
+            }
+        }
+        else if ("powerlaw".equals(distribution)) {
+            preferentialAttachment(random, AVERAGE_DEGREE / 2);
+        }
+        else {
+            throw new IllegalArgumentException("unknown distribution "
+                + distribution);
+        }
+    }
+
+
+    /**
+     * - Returns the edges as pairs of the given labels.
+     *
+     * @param labels
+     *            label of each vertex
+     * @return the edges as label pairs
+     */
+    List<Map.Entry<Object, Object>> pairs(Object[] labels) {
+        List<Map.Entry<Object, Object>> pairs =
+            new ArrayList<Map.Entry<Object, Object>>(begins.length);
+        for (int e = 0; e < begins.length; e++) {
+            pairs.add(new AbstractMap.SimpleImmutableEntry<Object, Object>(
+                labels[begins[e]], labels[ends[e]]));
+        }
+        return pairs;
+    }
+
+
+    /**
+     * - Returns count vertex ids drawn from the same seeded generator, for
+     * queries.
+     *
+     * @param count
+     *            number of ids
+     * @param salt
+     *            distinguishes independent draws
+     * @return vertex ids
+     */
+    int[] sample(int count, long salt) {
+        SplittableRandom random = new SplittableRandom(SEED ^ salt);
+        int[] sample = new int[count];
+        for (int i = 0; i < count; i++) {
+            sample[i] = random.nextInt(size);
+        }
+        return sample;
+    }
+
+
+    /**
+     * - each new vertex picks perVertex endpoints of earlier edges, which
+     * picks vertices in proportion to their degree.
+     */
+    private void preferentialAttachment(SplittableRandom random, int perVertex) {
+        int seedVertices = perVertex + 1;
+        int e = 0;
+        for (int v = 1; v < seedVertices && e < begins.length; v++) {
+            begins[e] = v;
+            ends[e++] = v - 1;
+        }
+        for (int v = seedVertices; v < size && e < begins.length; v++) {
+            int filled = e;
+            for (int k = 0; k < perVertex && e < begins.length; k++) {
+                int pick = random.nextInt(2 * filled);
+                begins[e] = v;
+                ends[e++] = (pick < filled) ? begins[pick] : ends[pick
+                    - filled];
+            }
+        }
+    }
+}
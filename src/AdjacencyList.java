@@ -0,0 +1,301 @@
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Growable list of outgoing edges for one vertex, stored as the
+ *          dense integer ids of the end vertices plus their weights. Graph
+ *          keeps one of these per vertex id so traversals never touch a hash
+ *          map or a linked node.
+ * 
+ *          Short lists are scanned linearly and keep insertion order. Once a
+ *          list grows past INDEX_THRESHOLD edges it also keeps an
+ *          IntIntHashMap from end vertex id to position, so contains, add and
+ *          remove are O(1) expected; removal then moves the last edge into
+ *          the hole instead of shifting.
+ * 
+ *          One writer at a time may change a list while any number of threads
+ *          read it. The arrays only grow and the size is published last, so
+ *          iterating with size() and target(i) never fails but may miss or
+ *          repeat an edge that is being changed. indexOf and contains are
+ *          exact: writers bump a version number around every change and
+ *          readers retry if it moved, with an acquire fence before the
+ *          second version read as in StampedLock.validate.
+ *
+ */
+public class AdjacencyList {
+
+    private static final int DEFAULT_CAPACITY = 4;
+    static final int INDEX_THRESHOLD = 16;
+
+    private int[] targets;
+    private double[] weights;
+    private volatile int size;
+    private volatile IntIntHashMap index;
+    private volatile int version;
+
+    /**
+     * - initializes an empty adjacency list.
+     */
+    public AdjacencyList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * - initializes an empty adjacency list that can hold capacity edges
+     * before growing.
+     *
+     * @param capacity
+     *            initial number of edge slots
+     */
+    public AdjacencyList(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.targets = new int[initial];
+        this.weights = new double[initial];
+        this.size = 0;
+    }
+
+
+    /**
+     * - Returns the number of edges in this list.
+     * O(1)
+     *
+     * @return number of edges
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * - Returns the id of the end vertex of the edge at index.
+     * O(1)
+     *
+     * @param index
+     *            edge index, 0 <= index < size()
+     * @return end vertex id
+     */
+    public int target(int index) {
+        return targets[index];
+    }
+
+
+    /**
+     * - Returns the weight of the edge at index.
+     * O(1)
+     *
+     * @param index
+     *            edge index, 0 <= index < size()
+     * @return edge weight
+     */
+    public double weight(int index) {
+        return weights[index];
+    }
+
+
+    /**
+     * - Appends an edge to the given end vertex id. Does not check for
+     * duplicates.
+     * O(1) amortized
+     *
+     * @param target
+     *            end vertex id
+     * @param weight
+     *            edge weight
+     */
+    public void add(int target, double weight) {
+        beginWrite();
+        int position = size;
+        if (position == targets.length) {
+            int grown = targets.length * 2;
+            targets = Arrays.copyOf(targets, grown);
+            weights = Arrays.copyOf(weights, grown);
+        }
+        targets[position] = target;
+        weights[position] = weight;
+        if (index != null) {
+            index.put(target, position);
+        }
+        size = position + 1;
+        if (index == null && position + 1 > INDEX_THRESHOLD) {
+            buildIndex();
+        }
+        version++;
+    }
+
+
+    /**
+     * - Grows the list so it can hold capacity edges without growing again.
+     * O(n) if it grows, O(1) otherwise
+     *
+     * @param capacity
+     *            number of edges to make room for
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > targets.length) {
+            beginWrite();
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            version++;
+        }
+    }
+
+
+    /**
+     * - Returns the index of the edge to the given end vertex id, or -1 if
+     * there is none.
+     * O(1) expected once indexed, O(n) below INDEX_THRESHOLD
+     *
+     * @param target
+     *            end vertex id
+     * @return edge index or -1
+     */
+    public int indexOf(int target) {
+        while (true) {
+            int before = version;
+            int position = find(target);
+            // keep the plain reads in find from moving past the re-check
+            VarHandle.acquireFence();
+            if ((before & 1) == 0 && version == before) {
+                return position;
+            }
+            // a writer is changing this list, try again
+            Thread.onSpinWait();
+        }
+    }
+
+
+    /**
+     * - Returns the end vertex ids of every edge as of one moment, unlike a
+     * loop over target(i) while a writer is active. Retries if a writer
+     * changes the list during the copy.
+     * O(n)
+     *
+     * @return end vertex ids in list order
+     */
+    public int[] targetsSnapshot() {
+        while (true) {
+            int before = version;
+            int n = size;
+            int[] t = targets;
+            int[] copy = Arrays.copyOf(t, Math.min(n, t.length));
+            VarHandle.acquireFence();
+            if ((before & 1) == 0 && version == before && copy.length == n) {
+                return copy;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+
+    /**
+     * - Returns true if there is an edge to the given end vertex id.
+     * O(1) expected once indexed, O(n) below INDEX_THRESHOLD
+     *
+     * @param target
+     *            end vertex id
+     * @return boolean true if the edge exists
+     */
+    public boolean contains(int target) {
+        return indexOf(target) >= 0;
+    }
+
+
+    /**
+     * - Removes the edge to the given end vertex id. Returns true if an edge
+     * was removed. Unindexed lists keep the remaining edges in insertion
+     * order; indexed lists move the last edge into the freed position.
+     * O(1) expected once indexed, O(n) below INDEX_THRESHOLD
+     *
+     * @param target
+     *            end vertex id
+     * @return boolean true if the edge was removed
+     */
+    public boolean remove(int target) {
+        int position = find(target);
+        if (position < 0) {
+            return false;
+        }
+        beginWrite();
+        int last = size - 1;
+        IntIntHashMap map = index;
+        if (map != null) {
+            map.remove(target, -1);
+            if (position != last) {
+                targets[position] = targets[last];
+                weights[position] = weights[last];
+                map.put(targets[position], position);
+            }
+            if (last < INDEX_THRESHOLD / 2) {
+                // small again, a scan is cheaper than keeping the map
+                index = null;
+            }
+        }
+        else {
+            int tail = last - position;
+            System.arraycopy(targets, position + 1, targets, position, tail);
+            System.arraycopy(weights, position + 1, weights, position, tail);
+        }
+        size = last;
+        version++;
+        return true;
+    }
+
+
+    /**
+     * - Removes every edge from this list.
+     * O(1)
+     */
+    public void clear() {
+        beginWrite();
+        size = 0;
+        index = null;
+        version++;
+    }
+
+
+    /**
+     * - position of target without the version check; safe to call while a
+     * writer is active, but the answer may then be stale.
+     */
+    private int find(int target) {
+        IntIntHashMap map = index;
+        if (map != null) {
+            return map.get(target, -1);
+        }
+        int n = size;
+        int[] t = targets;
+        for (int i = 0; i < n; i++) {
+            if (t[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * - marks the list as changing; the fence keeps the plain array stores
+     * that follow from becoming visible before the odd version.
+     */
+    private void beginWrite() {
+        version++;
+        VarHandle.storeStoreFence();
+    }
+
+
+    private void buildIndex() {
+        IntIntHashMap map = new IntIntHashMap(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(targets[i], i);
+        }
+        index = map;
+    }
+}
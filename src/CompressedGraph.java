@@ -0,0 +1,541 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Queue;
+import java.util.Stack;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            Immutable, read-optimized snapshot of a Graph with compressed
+ *            adjacency, made with Graph.compress(). Each vertex's neighbors
+ *            are sorted by id and stored as variable-length gaps in one byte
+ *            array. Friend lists are dense in id space, so most gaps fit in
+ *            one or two bytes, against 4 bytes per edge in a CsrGraph and
+ *            several dozen in a Vertex edge list.
+ *
+ *            A list starts with its degree. The first neighbor is stored as
+ *            its zig-zag encoded difference from the vertex's own id and
+ *            every later one as the gap to the one before, minus one. Lists
+ *            longer than BLOCK are cut into blocks of BLOCK neighbors with a
+ *            skip table in front: for every block after the first, the
+ *            difference between its first neighbor and the previous block's
+ *            first neighbor, and the byte length of the previous block. The
+ *            first neighbor of those blocks lives only in the skip table, so
+ *            hasEdge can jump to the one block that may hold the end vertex
+ *            and decode just that.
+ *
+ *            All numbers are unsigned LEB128 varints: 7 bits per byte, high
+ *            bit set on all but the last byte. Ids are the same as the ids
+ *            of the Graph it was compressed from. The byte array is limited
+ *            to 2 GB.
+ *
+ */
+public class CompressedGraph<T> {
+
+    /**
+     * Number of neighbors per skip block.
+     */
+    static final int BLOCK = 64;
+
+    private final HashMap<T, Integer> ids;
+    private final Object[] labels;
+    private final int[] offsets;
+    private final byte[] data;
+    private final int edgeCount;
+    private final TraversalContext.Pool traversalPool =
+        new TraversalContext.Pool();
+
+    private CompressedGraph(
+        HashMap<T, Integer> ids,
+        Object[] labels,
+        int[] offsets,
+        byte[] data,
+        int edgeCount) {
+        this.ids = ids;
+        this.labels = labels;
+        this.offsets = offsets;
+        this.data = data;
+        this.edgeCount = edgeCount;
+    }
+
+
+    /**
+     * - Compresses the given adjacency. Used by Graph.compress().
+     * O(|V| + |E| log d) for maximum degree d
+     *
+     * @param <T>
+     *            label type
+     * @param ids
+     *            label to id map, owned by the snapshot
+     * @param labels
+     *            label of each id, null for free ids
+     * @param adjacency
+     *            out-edges of each id, null for free ids
+     * @return the compressed snapshot
+     */
+    static <T> CompressedGraph<T> compress(
+        HashMap<T, Integer> ids,
+        Object[] labels,
+        AdjacencyList[] adjacency) {
+        Writer out = new Writer();
+        int[] offsets = new int[labels.length + 1];
+        int[] sorted = new int[16];
+        int edges = 0;
+        for (int id = 0; id < labels.length; id++) {
+            offsets[id] = out.size;
+            AdjacencyList list = adjacency[id];
+            int degree = (list == null) ? 0 : list.size();
+            if (sorted.length < degree) {
+                sorted = new int[Math.max(degree, sorted.length * 2)];
+            }
+            for (int i = 0; i < degree; i++) {
+                sorted[i] = list.target(i);
+            }
+            Arrays.sort(sorted, 0, degree);
+            encode(out, id, sorted, degree);
+            edges += degree;
+        }
+        offsets[labels.length] = out.size;
+        return new CompressedGraph<T>(ids, labels, offsets, Arrays.copyOf(
+            out.bytes, out.size), edges);
+    }
+
+
+    /**
+     * - This method returns the number of Vertices in this snapshot.
+     * O(1)
+     *
+     * @return an int with the number of vertices
+     */
+    public int getNumberOfVertices() {
+        return ids.size();
+    }
+
+
+    /**
+     * - This method returns the number of edges in this snapshot.
+     * O(1)
+     *
+     * @return an int of the number of edges
+     */
+    public int getNumberOfEdges() {
+        return edgeCount;
+    }
+
+
+    /**
+     * - Returns the number of bytes of the compressed adjacency and its
+     * offsets, not counting the labels.
+     * O(1)
+     *
+     * @return long size in bytes
+     */
+    public long getAdjacencyBytes() {
+        return (long)data.length + 4L * offsets.length;
+    }
+
+
+    /**
+     * - Sees whether an edge exists between two given vertices. The skip
+     * table leads to the single block that can hold end.
+     * O(deg / BLOCK + BLOCK)
+     *
+     * @param begin
+     *            the beggining point
+     * @param end
+     *            the end point
+     * @return a boolean if the point has the edge
+     */
+    public boolean hasEdge(T begin, T end) {
+        int beginId = idOf(begin);
+        int endId = idOf(end);
+        if ((beginId < 0) || (endId < 0)) {
+            return false;
+        }
+        int[] position = { offsets[beginId] };
+        int degree = readVarint(data, position);
+        if (degree == 0) {
+            return false;
+        }
+        int blocks = (degree + BLOCK - 1) / BLOCK;
+        int skipStart = position[0];
+        int skipBytes = 0;
+        if (blocks > 1) {
+            skipBytes = readVarint(data, position);
+            skipStart = position[0];
+        }
+        int dataStart = skipStart + skipBytes;
+
+        // first neighbor and data offset of block 0
+        position[0] = dataStart;
+        int first = beginId + unzigzag(readVarint(data, position));
+        int blockData = position[0];
+        int block = 0;
+        int[] skip = { skipStart };
+        int blockStart = dataStart;
+        while (block + 1 < blocks) {
+            int nextFirst = first + readVarint(data, skip);
+            int length = readVarint(data, skip);
+            if (nextFirst > endId) {
+                break;
+            }
+            first = nextFirst;
+            blockStart += length;
+            blockData = blockStart;
+            block++;
+        }
+        if (first == endId) {
+            return true;
+        }
+        position[0] = blockData;
+        int count = Math.min(BLOCK, degree - block * BLOCK);
+        int value = first;
+        for (int i = 1; i < count && value < endId; i++) {
+            value += readVarint(data, position) + 1;
+        }
+        return value == endId;
+    }
+
+
+    /**
+     * - Performs a breadth- first traversal of the snapshot and returns the
+     * queue that contains the result, visiting neighbors in id order. Empty
+     * queue can be returned.
+     * O(|V|+|E|)
+     *
+     * @param origin
+     *            the origin of the BFT
+     * @return queue queue
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) {
+        int originId = idOf(origin);
+        Queue<T> traversalOrder = new ArrayDeque<T>();
+        if (originId < 0) {
+            return traversalOrder;
+        }
+        TraversalContext context = traversalPool.acquire(labels.length);
+        NeighborCursor cursor = cursor();
+        context.visit(originId);
+        context.enqueue(originId);
+        while (context.hasQueued()) {
+            int frontId = context.dequeue();
+            traversalOrder.add(labelOf(frontId));
+            cursor.reset(frontId);
+            while (cursor.hasNext()) {
+                int nextNeighbor = cursor.next();
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor);
+                    context.enqueue(nextNeighbor);
+                }
+            }
+        }
+        traversalPool.release(context);
+        return traversalOrder;
+    }
+
+
+    /**
+     * - returns the shortest distance, in edges, between the origin and
+     * destination and pushes the path onto path with the origin on top. If a
+     * path does not exist, it returns the maximum integer (to simulate
+     * infinity).
+     * O(|V|+|E|)
+     *
+     * @param origin
+     *            origin of shortest path
+     * @param destination
+     *            destination of shortest path
+     * @param path
+     *            the path
+     * @return an integer of the number of edges along the shortest path
+     */
+    public int getShortestPath(T origin, T destination, Stack<T> path) {
+        int originId = idOf(origin);
+        int endId = idOf(destination);
+        if ((originId < 0) || (endId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        TraversalContext context = traversalPool.acquire(labels.length);
+        NeighborCursor cursor = cursor();
+        boolean done = originId == endId;
+        context.visit(originId);
+        context.enqueue(originId);
+        while (!done && context.hasQueued()) {
+            int frontId = context.dequeue();
+            int frontCost = context.getCost(frontId);
+            cursor.reset(frontId);
+            while (!done && cursor.hasNext()) {
+                int nextNeighbor = cursor.next();
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor, frontId, frontCost + 1);
+                    context.enqueue(nextNeighbor);
+                    done = nextNeighbor == endId;
+                }
+            }
+        }
+        int pathLength = Integer.MAX_VALUE;
+        if (context.isVisited(endId)) {
+            pathLength = context.getCost(endId);
+            for (int id = endId; id >= 0; id = context.getPredecessor(id)) {
+                path.push(labelOf(id));
+            }
+        }
+        traversalPool.release(context);
+        return pathLength;
+    }
+
+
+    /**
+     * - Returns a new cursor over this snapshot. A cursor is not thread-safe
+     * but can be reset to any vertex any number of times.
+     * O(1)
+     */
+    NeighborCursor cursor() {
+        return new NeighborCursor();
+    }
+
+
+    /**
+     * - Returns the dense id of the given vertex label, or -1 if the label is
+     * not in this snapshot.
+     * O(1)
+     */
+    int idOf(T vertexLabel) {
+        if (vertexLabel == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertexLabel);
+        return (id == null) ? -1 : id;
+    }
+
+
+    /**
+     * - Returns the label of the vertex with the given id.
+     * O(1)
+     */
+    @SuppressWarnings("unchecked")
+    T labelOf(int id) {
+        return (T)labels[id];
+    }
+
+
+    /**
+     * - appends the list of id with sorted neighbors[0 .. degree).
+     */
+    private static void encode(
+        Writer out,
+        int id,
+        int[] neighbors,
+        int degree) {
+        out.writeVarint(degree);
+        if (degree == 0) {
+            return;
+        }
+        int blocks = (degree + BLOCK - 1) / BLOCK;
+        // encode the blocks first to learn their lengths
+        Writer blockData = new Writer();
+        int[] lengths = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            int from = block * BLOCK;
+            int to = Math.min(degree, from + BLOCK);
+            int before = blockData.size;
+            if (block == 0) {
+                blockData.writeVarint(zigzag(neighbors[0] - id));
+            }
+            for (int i = from + 1; i < to; i++) {
+                blockData.writeVarint(neighbors[i] - neighbors[i - 1] - 1);
+            }
+            lengths[block] = blockData.size - before;
+        }
+        if (blocks > 1) {
+            Writer skip = new Writer();
+            for (int block = 1; block < blocks; block++) {
+                skip.writeVarint(neighbors[block * BLOCK] - neighbors[(block
+                    - 1) * BLOCK]);
+                skip.writeVarint(lengths[block - 1]);
+            }
+            out.writeVarint(skip.size);
+            out.write(skip.bytes, skip.size);
+        }
+        out.write(blockData.bytes, blockData.size);
+    }
+
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+
+    /**
+     * - reads the varint at position[0] and moves position[0] past it.
+     */
+    private static int readVarint(byte[] data, int[] position) {
+        int at = position[0];
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[at++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        position[0] = at;
+        return value;
+    }
+
+
+    /**
+     * @author Adam Schneider
+     * @version 2026-10-17
+     *
+     *          Sequential decoder of one vertex's neighbors, in id order.
+     *          It follows the block data and the skip table side by side,
+     *          taking the first neighbor of each later block from the skip
+     *          table, and never allocates.
+     */
+    class NeighborCursor {
+        private int remaining;
+        private int index;
+        private int value;
+        private int dataAt;
+        private int skipAt;
+        private int blockFirst;
+        private int self;
+
+        /**
+         * - positions the cursor before the first neighbor of id and returns
+         * the degree of id.
+         */
+        int reset(int id) {
+            int at = offsets[id];
+            int degree = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[at++];
+                degree |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            skipAt = at;
+            if (degree > BLOCK) {
+                int skipBytes = 0;
+                shift = 0;
+                do {
+                    b = data[at++];
+                    skipBytes |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                skipAt = at;
+                at += skipBytes;
+            }
+            dataAt = at;
+            remaining = degree;
+            index = 0;
+            self = id;
+            return degree;
+        }
+
+
+        /**
+         * - true if there is another neighbor.
+         */
+        boolean hasNext() {
+            return remaining > 0;
+        }
+
+
+        /**
+         * - decodes and returns the next neighbor.
+         */
+        int next() {
+            remaining--;
+            if (index == 0) {
+                value = self + unzigzag(readData());
+                blockFirst = value;
+            }
+            else if (index % BLOCK == 0) {
+                // the first neighbor of a block is only in the skip table
+                value = blockFirst + readSkip();
+                readSkip();
+                blockFirst = value;
+            }
+            else {
+                value += readData() + 1;
+            }
+            index++;
+            return value;
+        }
+
+
+        private int readSkip() {
+            int at = skipAt;
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[at++];
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            skipAt = at;
+            return result;
+        }
+
+
+        private int readData() {
+            int at = dataAt;
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[at++];
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            dataAt = at;
+            return result;
+        }
+    }
+
+
+    /**
+     * Growable byte array for encoding.
+     */
+    private static class Writer {
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        private void writeVarint(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte)value;
+        }
+
+
+        private void write(byte[] source, int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + length,
+                    bytes.length * 2));
+            }
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+    }
+}
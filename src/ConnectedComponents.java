@@ -0,0 +1,368 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Union-find over the vertices of a Graph, treating every edge as
+ *          undirected. The node of a vertex is its id. Adding an edge links
+ *          the root of one end under the root of the other with a single
+ *          compare-and-set on the parent slot, and finds halve the path with
+ *          compare-and-set too, so threads adding edges under VTConnect's
+ *          stripes never wait for each other here. Roots are linked by a
+ *          fixed random priority of their ids instead of by size, which
+ *          keeps the trees O(log n) deep in expectation without a second
+ *          array to update atomically.
+ *
+ *          Removals cannot be undone in a union-find, so removing an edge or
+ *          a vertex only marks the forest stale. A stale forest may think
+ *          two vertices are connected after the edges between them are gone,
+ *          but never the other way around. mayBeConnected therefore trusts a
+ *          stale "no" and turns a stale "yes" into "maybe", leaving the
+ *          caller's search to decide; queries never rebuild. Removals are
+ *          counted instead, and rebuildIfDue rebuilds once they reach a
+ *          share of the edges, so the O(|V| + |E|) scan is paid once per
+ *          batch of removals by whoever makes them.
+ *
+ *          A rebuild publishes a fresh forest before it scans the adjacency
+ *          lists, each copied as of one moment, so edges added during the
+ *          scan are united into the new forest by their writers or seen by
+ *          the scan, and edges removed during it mark the new forest stale.
+ *          The forest is only trusted once the scan is done.
+ *
+ */
+public class ConnectedComponents {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int REBUILD_BATCH = 1024;
+    private static final int REBUILD_SHARE = 8;
+
+    private final Graph<?> graph;
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private volatile Forest forest;
+
+    /**
+     * - initializes an empty forest over the vertices of graph.
+     *
+     * @param graph
+     *            graph whose adjacency lists are scanned on rebuild
+     */
+    public ConnectedComponents(Graph<?> graph) {
+        this.graph = graph;
+        Forest empty = new Forest(DEFAULT_CAPACITY, 0);
+        empty.complete = true;
+        this.forest = empty;
+    }
+
+
+    /**
+     * - Returns the number of components, rebuilding the forest first if it
+     * is stale. The graph must not change during the call.
+     * O(1), O(|V| + |E|) after a removal
+     *
+     * @return number of components
+     */
+    public int getCount() {
+        return current().count.get();
+    }
+
+
+    /**
+     * - Returns true if an edge or vertex was removed since the last rebuild,
+     * or a rebuild is under way.
+     * O(1)
+     *
+     * @return boolean true if stale
+     */
+    public boolean isStale() {
+        Forest f = forest;
+        return f.stale || !f.complete;
+    }
+
+
+    /**
+     * - Gives the new vertex id a node of its own. Needs exclusive access to
+     * the graph, like adding the vertex itself.
+     * O(1) amortized
+     *
+     * @param id
+     *            vertex id
+     */
+    public void vertexAdded(int id) {
+        Forest f = forest;
+        if (id >= f.parent.length()) {
+            f = f.grow(Math.max(id + 1, f.parent.length() * 2));
+            forest = f;
+        }
+        f.count.incrementAndGet();
+    }
+
+
+    /**
+     * - Records that the vertex id was removed.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     */
+    public void vertexRemoved(int id) {
+        forest.removed();
+    }
+
+
+    /**
+     * - Unites the components of a and b. Call after the edge is in the
+     * adjacency list.
+     * O(log n) expected
+     *
+     * @param a
+     *            vertex id
+     * @param b
+     *            vertex id
+     */
+    public void edgeAdded(int a, int b) {
+        forest.union(a, b);
+    }
+
+
+    /**
+     * - Records that an edge was removed. Call after the edge is gone from
+     * the adjacency list.
+     * O(1)
+     */
+    public void edgeRemoved() {
+        forest.removed();
+    }
+
+
+    /**
+     * - Returns false only if there is certainly no path between a and b in
+     * either direction. Returns true if a and b may be connected: they share
+     * a component, or the forest is stale or being rebuilt and cannot tell.
+     * Never rebuilds or waits.
+     * O(log n) expected
+     *
+     * @param a
+     *            vertex id
+     * @param b
+     *            vertex id
+     * @return boolean false if a and b are in different components
+     */
+    public boolean mayBeConnected(int a, int b) {
+        Forest f = forest;
+        if (!f.complete) {
+            return true;
+        }
+        // a stale forest only ever joins too much, so "no" still holds and
+        // "yes" means maybe
+        return f.find(a) == f.find(b);
+    }
+
+
+    /**
+     * - Rebuilds the forest if removals since the last rebuild reach
+     * REBUILD_BATCH or an eighth of the edges, whichever is more, unless
+     * another thread is already rebuilding. Edges may be added or removed
+     * meanwhile; vertices may not.
+     * O(1), O(|V| + |E|) once per batch of removals
+     *
+     * @return boolean true if the forest was rebuilt
+     */
+    public boolean rebuildIfDue() {
+        Forest f = forest;
+        if (!f.complete || !f.stale || f.removals.get() < Math.max(
+            REBUILD_BATCH, graph.getNumberOfEdges() / REBUILD_SHARE)) {
+            return false;
+        }
+        if (!rebuilding.tryLock()) {
+            return false;
+        }
+        try {
+            f = forest;
+            if (f.stale && f.complete) {
+                rebuild0();
+            }
+            return true;
+        }
+        finally {
+            rebuilding.unlock();
+        }
+    }
+
+
+    /**
+     * - Returns the id of the representative vertex of id's component, the
+     * same for every vertex of the component until the next change.
+     * Rebuilds like getCount.
+     * O(log n) expected, O(|V| + |E|) after a removal
+     *
+     * @param id
+     *            vertex id
+     * @return representative vertex id
+     */
+    public int representativeOf(int id) {
+        return current().find(id);
+    }
+
+
+    /**
+     * - Rebuilds the forest from scratch from the out-edges of every live
+     * vertex. Edges may be added or removed meanwhile; vertices may not.
+     * O(|V| + |E| log |V|) expected
+     */
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            rebuild0();
+        }
+        finally {
+            rebuilding.unlock();
+        }
+    }
+
+
+    /**
+     * - the forest, rebuilt first if it cannot be trusted.
+     */
+    private Forest current() {
+        Forest f = forest;
+        if (f.complete && !f.stale) {
+            return f;
+        }
+        rebuilding.lock();
+        try {
+            f = forest;
+            if (f.stale || !f.complete) {
+                f = rebuild0();
+            }
+            return f;
+        }
+        finally {
+            rebuilding.unlock();
+        }
+    }
+
+
+    /**
+     * - rebuild with the rebuilding lock held.
+     */
+    private Forest rebuild0() {
+        int bound = graph.idBound();
+        int live = 0;
+        for (int id = 0; id < bound; id++) {
+            if (graph.adjacencyOf(id) != null) {
+                live++;
+            }
+        }
+        Forest f = new Forest(Math.max(bound, DEFAULT_CAPACITY), live);
+        // publish before scanning so writers from now on unite into f
+        forest = f;
+        for (int id = 0; id < bound; id++) {
+            AdjacencyList out = graph.adjacencyOf(id);
+            if (out == null) {
+                continue;
+            }
+            // a plain loop could skip an edge moved by a concurrent removal
+            for (int end : out.targetsSnapshot()) {
+                f.union(id, end);
+            }
+        }
+        f.complete = true;
+        return f;
+    }
+
+
+    /**
+     * - one generation of the union-find: parent links by vertex id, the
+     * number of roots among live vertices, and the removals it missed.
+     */
+    private static final class Forest {
+        final AtomicIntegerArray parent;
+        final AtomicInteger count;
+        final AtomicInteger removals = new AtomicInteger();
+        volatile boolean complete;
+        volatile boolean stale;
+
+        Forest(int capacity, int roots) {
+            parent = new AtomicIntegerArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                parent.set(i, i);
+            }
+            count = new AtomicInteger(roots);
+        }
+
+
+        /**
+         * - a copy with room for capacity nodes; only used with exclusive
+         * access, so nothing changes the parents while they are copied.
+         */
+        Forest grow(int capacity) {
+            Forest grown = new Forest(capacity, count.get());
+            for (int i = 0; i < parent.length(); i++) {
+                grown.parent.set(i, parent.get(i));
+            }
+            grown.complete = complete;
+            grown.stale = stale;
+            grown.removals.set(removals.get());
+            return grown;
+        }
+
+
+        void removed() {
+            stale = true;
+            removals.incrementAndGet();
+        }
+
+
+        int find(int node) {
+            while (true) {
+                int up = parent.get(node);
+                if (up == node) {
+                    return node;
+                }
+                int upper = parent.get(up);
+                if (upper != up) {
+                    // halve the path; losing the race only skips a shortcut
+                    parent.compareAndSet(node, up, upper);
+                }
+                node = upper;
+            }
+        }
+
+
+        void union(int a, int b) {
+            while (true) {
+                a = find(a);
+                b = find(b);
+                if (a == b) {
+                    return;
+                }
+                if (priority(a) > priority(b)) {
+                    int swap = a;
+                    a = b;
+                    b = swap;
+                }
+                // a may have been linked since find, then try again
+                if (parent.compareAndSet(a, a, b)) {
+                    count.decrementAndGet();
+                    return;
+                }
+            }
+        }
+
+
+        /**
+         * - a fixed pseudo-random order of the ids; multiplying by an odd
+         * constant is a bijection, so no two ids tie.
+         */
+        private static int priority(int id) {
+            return id * 0x9E3779B9;
+        }
+    }
+}
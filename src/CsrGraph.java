@@ -0,0 +1,419 @@
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Queue;
+import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            Immutable compressed sparse row snapshot of a Graph, made with
+ *            Graph.freeze(). The out-edges of vertex id are
+ *            targets[offsets[id]] .. targets[offsets[id + 1] - 1], so a
+ *            traversal walks two flat int arrays instead of per-vertex lists.
+ *            Ids are the same as the ids of the Graph it was frozen from; ids
+ *            that were free at freeze time have no label and no edges.
+ *
+ */
+public class CsrGraph<T> {
+
+    private final HashMap<T, Integer> ids;
+    private final Object[] labels;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final int vertexCount;
+    private final TraversalContext.Pool traversalPool =
+        new TraversalContext.Pool();
+    private volatile CsrGraph<T> transpose;
+
+    /**
+     * - initializes the snapshot from already packed arrays. Used by
+     * Graph.freeze().
+     *
+     * @param ids
+     *            label to id map, owned by the snapshot
+     * @param labels
+     *            label of each id, null for free ids
+     * @param offsets
+     *            row offsets, length labels.length + 1
+     * @param targets
+     *            end vertex id of every edge
+     * @param weights
+     *            weight of every edge, or null if weights were not kept
+     */
+    CsrGraph(
+        HashMap<T, Integer> ids,
+        Object[] labels,
+        int[] offsets,
+        int[] targets,
+        double[] weights) {
+        this.ids = ids;
+        this.labels = labels;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.vertexCount = ids.size();
+    }
+
+
+    /**
+     * - This method returns the number of Vertices in this snapshot.
+     * O(1)
+     *
+     * @return an int with the number of vertices
+     */
+    public int getNumberOfVertices() {
+        return vertexCount;
+    }
+
+
+    /**
+     * - This method returns the number of edges in this snapshot.
+     * O(1)
+     *
+     * @return an int of the number of edges
+     */
+    public int getNumberOfEdges() {
+        return targets.length;
+    }
+
+
+    /**
+     * - This method returns true if the snapshot kept the edge weights.
+     * O(1)
+     *
+     * @return boolean true if weights are available
+     */
+    public boolean hasWeights() {
+        return weights != null;
+    }
+
+
+    /**
+     * - Sees whether an edge exists between two given vertices.
+     * O(deg)
+     *
+     * @param begin
+     *            the beggining point
+     * @param end
+     *            the end point
+     * @return a boolean if the point has the edge
+     */
+    public boolean hasEdge(T begin, T end) {
+        int beginId = idOf(begin);
+        int endId = idOf(end);
+        if ((beginId < 0) || (endId < 0)) {
+            return false;
+        }
+        for (int e = offsets[beginId]; e < offsets[beginId + 1]; e++) {
+            if (targets[e] == endId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * - Performs a breadth- first traversal of the snapshot and returns the
+     * queue that contains the result. Empty queue can be returned.
+     * O(|V|+|E|)
+     *
+     * @param origin
+     *            the origin of the BFT
+     * @return queue queue
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) {
+        int originId = idOf(origin);
+        Queue<T> traversalOrder = new ArrayDeque<T>();
+        if (originId < 0) {
+            return traversalOrder;
+        }
+        TraversalContext context = traversalPool.acquire(labels.length);
+        context.visit(originId);
+        context.enqueue(originId);
+
+        while (context.hasQueued()) {
+            int frontId = context.dequeue();
+            traversalOrder.add(labelOf(frontId));
+            for (int e = offsets[frontId]; e < offsets[frontId + 1]; e++) {
+                int nextNeighbor = targets[e];
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor);
+                    context.enqueue(nextNeighbor);
+                }
+            }
+        }
+        traversalPool.release(context);
+        return traversalOrder;
+    }
+
+
+    /**
+     * - returns the shortest distance, in edges, between the origin and
+     * destination and pushes the path onto path with the origin on top. If a
+     * path does not exist, it returns the maximum integer (to simulate
+     * infinity).
+     * O(|V|+|E|)
+     *
+     * @param origin
+     *            origin of shortest path
+     * @param destination
+     *            destination of shortest path
+     * @param path
+     *            the path
+     * @return an integer of the number of edges along the shortest path
+     */
+    public int getShortestPath(T origin, T destination, Stack<T> path) {
+        int originId = idOf(origin);
+        int endId = idOf(destination);
+        if ((originId < 0) || (endId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        TraversalContext context = traversalPool.acquire(labels.length);
+        boolean done = originId == endId;
+        context.visit(originId);
+        context.enqueue(originId);
+
+        while (!done && context.hasQueued()) {
+            int frontId = context.dequeue();
+            int frontCost = context.getCost(frontId);
+            int end = offsets[frontId + 1];
+            for (int e = offsets[frontId]; !done && e < end; e++) {
+                int nextNeighbor = targets[e];
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor, frontId, frontCost + 1);
+                    context.enqueue(nextNeighbor);
+                    done = nextNeighbor == endId;
+                }
+            }
+        }
+
+        int pathLength = Integer.MAX_VALUE;
+        if (context.isVisited(endId)) {
+            pathLength = context.getCost(endId);
+            for (int id = endId; id >= 0; id = context.getPredecessor(id)) {
+                path.push(labelOf(id));
+            }
+        }
+        traversalPool.release(context);
+        return pathLength;
+    }
+
+
+    /**
+     * - Returns the breadth-first level (number of edges from origin) of every
+     * vertex id, or ParallelBreadthFirstSearch.UNREACHED for ids origin
+     * cannot reach. Levels are computed in parallel on the common
+     * ForkJoinPool.
+     * O((|V|+|E|) / p) per level with p workers
+     *
+     * @param origin
+     *            the origin of the BFT
+     * @return int[] level by vertex id
+     */
+    public int[] getBreadthFirstLevels(T origin) {
+        return getBreadthFirstLevels(origin, ForkJoinPool.commonPool());
+    }
+
+
+    /**
+     * - Returns the breadth-first level of every vertex id, computed in
+     * parallel on the given pool.
+     * O((|V|+|E|) / p) per level with p workers
+     *
+     * @param origin
+     *            the origin of the BFT
+     * @param pool
+     *            pool to run on
+     * @return int[] level by vertex id
+     */
+    public int[] getBreadthFirstLevels(T origin, ForkJoinPool pool) {
+        return new ParallelBreadthFirstSearch(this, pool).levels(idOf(origin));
+    }
+
+
+    /**
+     * - Counts the triangles of the snapshot, every edge taken as undirected,
+     * and the clustering coefficient of every vertex, in parallel on the
+     * common ForkJoinPool.
+     * O(E sqrt(E) / p) with p workers
+     *
+     * @return TriangleCounter<T> triangles and coefficients by vertex
+     */
+    public TriangleCounter<T> countTriangles() {
+        return countTriangles(ForkJoinPool.commonPool());
+    }
+
+
+    /**
+     * - Counts the triangles of the snapshot on the given pool.
+     * O(E sqrt(E) / p) with p workers
+     *
+     * @param pool
+     *            pool to run on
+     * @return TriangleCounter<T> triangles and coefficients by vertex
+     */
+    public TriangleCounter<T> countTriangles(ForkJoinPool pool) {
+        return new TriangleCounter<T>(this, pool);
+    }
+
+
+    /**
+     * - Returns the PageRank of every vertex, edge weights ignored, computed
+     * in parallel on the common ForkJoinPool with the default damping and
+     * tolerance.
+     * O((|V|+|E|) / p) per iteration with p workers
+     *
+     * @return PageRank.Scores<T> ranks summing to 1
+     */
+    public PageRank.Scores<T> getPageRank() {
+        return new PageRank<T>(this, ForkJoinPool.commonPool()).rank();
+    }
+
+
+    /**
+     * - Performs a parallel breadth- first traversal of the snapshot and
+     * returns the queue that contains the result. Vertices come out level by
+     * level, as in getBreadthFirstTraversal; inside a level they are in id
+     * order rather than discovery order. Empty queue can be returned.
+     * O((|V|+|E|) / p) per level with p workers, plus O(|V|) to order
+     *
+     * @param origin
+     *            the origin of the BFT
+     * @return queue queue
+     */
+    public Queue<T> getParallelBreadthFirstTraversal(T origin) {
+        int[] levels = getBreadthFirstLevels(origin);
+        // counting sort by level
+        int deepest = -1;
+        for (int level : levels) {
+            deepest = Math.max(deepest, level);
+        }
+        int[] starts = new int[deepest + 2];
+        for (int level : levels) {
+            if (level >= 0) {
+                starts[level + 1]++;
+            }
+        }
+        for (int level = 0; level <= deepest; level++) {
+            starts[level + 1] += starts[level];
+        }
+        Object[] ordered = new Object[starts[deepest + 1]];
+        for (int id = 0; id < levels.length; id++) {
+            if (levels[id] >= 0) {
+                ordered[starts[levels[id]]++] = labels[id];
+            }
+        }
+        Queue<T> traversalOrder = new ArrayDeque<T>(ordered.length);
+        for (Object label : ordered) {
+            @SuppressWarnings("unchecked")
+            T next = (T)label;
+            traversalOrder.add(next);
+        }
+        return traversalOrder;
+    }
+
+
+    /**
+     * - Returns the snapshot with every edge reversed, so the out-edges of an
+     * id in the result are its in-edges here. Built on first use and cached.
+     * O(|V|+|E|) the first time, O(1) after
+     *
+     * @return CsrGraph<T> reversed snapshot
+     */
+    public CsrGraph<T> transpose() {
+        CsrGraph<T> reversed = transpose;
+        if (reversed == null) {
+            int[] inOffsets = new int[labels.length + 1];
+            for (int target : targets) {
+                inOffsets[target + 1]++;
+            }
+            for (int id = 0; id < labels.length; id++) {
+                inOffsets[id + 1] += inOffsets[id];
+            }
+            int[] fill = new int[labels.length];
+            int[] inTargets = new int[targets.length];
+            double[] inWeights = (weights == null)
+                ? null
+                : new double[weights.length];
+            for (int id = 0; id < labels.length; id++) {
+                for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                    int slot = inOffsets[targets[e]] + fill[targets[e]]++;
+                    inTargets[slot] = id;
+                    if (inWeights != null) {
+                        inWeights[slot] = weights[e];
+                    }
+                }
+            }
+            reversed = new CsrGraph<T>(ids, labels, inOffsets, inTargets,
+                inWeights);
+            reversed.transpose = this;
+            transpose = reversed;
+        }
+        return reversed;
+    }
+
+
+    /**
+     * - Returns the id of the given label in this snapshot, or -1.
+     * O(1)
+     */
+    int idOf(T vertexLabel) {
+        if (vertexLabel == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertexLabel);
+        return (id == null) ? -1 : id;
+    }
+
+
+    /**
+     * - Returns the label of the given id, or null for a free id.
+     * O(1)
+     */
+    @SuppressWarnings("unchecked")
+    T labelOf(int id) {
+        return (T)labels[id];
+    }
+
+
+    /**
+     * - Returns one more than the largest id in this snapshot.
+     * O(1)
+     */
+    int idBound() {
+        return labels.length;
+    }
+
+
+    /**
+     * - Returns the row offsets array. Callers must not modify it.
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+
+    /**
+     * - Returns the edge target array. Callers must not modify it.
+     */
+    int[] targets() {
+        return targets;
+    }
+
+
+    /**
+     * - Returns the edge weight array, or null. Callers must not modify it.
+     */
+    double[] weights() {
+        return weights;
+    }
+}
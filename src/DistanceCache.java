@@ -0,0 +1,256 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Bounded cache of shortest path results keyed by a pair of vertex
+ *          ids. It is split into segments, each a small LRU map behind its
+ *          own lock, so concurrent queries rarely wait on each other.
+ *
+ *          Entries are never cleared when the graph changes. Each one keeps
+ *          the graph's edge addition and removal epochs from before it was
+ *          computed and is checked against the current ones on lookup. Adding
+ *          edges can only shorten distances, so an entry survives additions
+ *          if its distance is 1; removing edges or vertices can only
+ *          lengthen them, so an entry survives removals if the pair was
+ *          unreachable. Anything else is recomputed.
+ *
+ */
+public class DistanceCache {
+
+    /**
+     * Distance stored for pairs with no path.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * - initializes an empty cache that holds up to about capacity pairs.
+     *
+     * @param capacity
+     *            maximum number of cached pairs
+     */
+    public DistanceCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int perSegment = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+
+    /**
+     * - Returns the key of the ordered pair (from, to).
+     * O(1)
+     *
+     * @param from
+     *            first vertex id
+     * @param to
+     *            second vertex id
+     * @return key
+     */
+    public static long key(int from, int to) {
+        return ((long)from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+
+    /**
+     * - Returns the key of the unordered pair {a, b}, for distances that do
+     * not depend on direction.
+     * O(1)
+     *
+     * @param a
+     *            vertex id
+     * @param b
+     *            vertex id
+     * @return key
+     */
+    public static long unorderedKey(int a, int b) {
+        return (a <= b) ? key(a, b) : key(b, a);
+    }
+
+
+    /**
+     * - Returns the cached entry for key if it is still valid under the
+     * current epochs, or null. Invalid entries are dropped.
+     * O(1)
+     *
+     * @param key
+     *            pair key
+     * @param additionEpoch
+     *            current edge addition epoch
+     * @param removalEpoch
+     *            current edge removal epoch
+     * @return Entry the entry or null
+     */
+    public Entry get(long key, long additionEpoch, long removalEpoch) {
+        Segment segment = segmentOf(key);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && !entry.isValid(additionEpoch, removalEpoch)) {
+                segment.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+
+    /**
+     * - Caches the result for key, computed from a graph at the given
+     * epochs, which must have been read before the computation started.
+     * O(1)
+     *
+     * @param key
+     *            pair key
+     * @param distance
+     *            number of edges, or UNREACHABLE
+     * @param path
+     *            vertex ids from the first vertex to the second, or null
+     * @param additionEpoch
+     *            edge addition epoch read before computing
+     * @param removalEpoch
+     *            edge removal epoch read before computing
+     */
+    public void put(
+        long key,
+        int distance,
+        int[] path,
+        long additionEpoch,
+        long removalEpoch) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            segment.put(key, new Entry(distance, path, additionEpoch,
+                removalEpoch));
+        }
+    }
+
+
+    /**
+     * - Drops every entry.
+     * O(capacity)
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+
+    /**
+     * @return number of lookups that found a valid entry
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+
+    /**
+     * @return number of lookups that did not
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+
+    private Segment segmentOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return segments[(int)(h >>> 60)];
+    }
+
+
+    /**
+     * @author Adam Schneider
+     * @version 2026-10-17
+     *
+     *          One cached result.
+     */
+    public static class Entry {
+        private final int distance;
+        private final int[] path;
+        private final long additionEpoch;
+        private final long removalEpoch;
+
+        private Entry(
+            int distance,
+            int[] path,
+            long additionEpoch,
+            long removalEpoch) {
+            this.distance = distance;
+            this.path = path;
+            this.additionEpoch = additionEpoch;
+            this.removalEpoch = removalEpoch;
+        }
+
+
+        /**
+         * @return number of edges, or UNREACHABLE
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+
+        /**
+         * @return vertex ids along the path, or null if none was cached
+         */
+        public int[] getPath() {
+            return path;
+        }
+
+
+        private boolean isValid(long currentAdditions, long currentRemovals) {
+            boolean additionsHarmless = additionEpoch == currentAdditions
+                || distance == 1;
+            boolean removalsHarmless = removalEpoch == currentRemovals
+                || distance == UNREACHABLE;
+            return additionsHarmless && removalsHarmless;
+        }
+    }
+
+
+    /**
+     * LRU map of one segment; callers lock it.
+     */
+    private static class Segment
+        extends LinkedHashMap<Long, DistanceCache.Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<Long, DistanceCache.Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,581 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            Incrementally maintained friends-of-friends index over an
+ *            undirected Graph. For every vertex x it keeps a map from each
+ *            vertex c two edges away to the number of neighbors x and c
+ *            share, so ranked suggestions are a lookup instead of a walk
+ *            over the whole two-hop neighborhood. Adding or removing the
+ *            edge a - b only touches the maps of a, b and their neighbors.
+ *
+ *            Hubs, vertices with more than hubDegree neighbors, are left out
+ *            of the maps: a hub keeps no map of its own, and shared neighbors
+ *            that are hubs are counted when a query needs them. That bounds
+ *            the work of one edge change by O(hubDegree) and every map by
+ *            hubDegree^2 entries. A vertex stops being a hub once its degree
+ *            drops to hubDegree / 2, so one vertex near the limit does not
+ *            flip back and forth.
+ *
+ *            The maps keep every candidate rather than only each user's top
+ *            few. A removal can push any candidate into the top k, and a
+ *            truncated map could not tell which one without walking the
+ *            two-hop neighborhood again, so memory is bounded by hubDegree^2
+ *            entries per user instead of by k.
+ *
+ *            The index assumes every edge is stored in both directions, as
+ *            VTConnect does, and must be told about each edge change right
+ *            after it is made. Telling it only queues the change, without
+ *            locking, so threads changing friendships under VTConnect's
+ *            stripes do not wait on the index. refresh applies the queue
+ *            with the graph quiescent: it replays the net change of each
+ *            edge against a view of the neighbor lists as they were when
+ *            the index was last current, so the counts never mix the graph
+ *            before and after a change. Queries see the index as of the
+ *            last refresh; too long a queue marks the index stale instead.
+ *
+ */
+public class FriendSuggestionIndex<T> {
+
+    private static final int PENDING_LIMIT = 4096;
+
+    private final Graph<T> graph;
+    private final int hubDegree;
+    private IntIntHashMap[] mutual;
+    private final BitSet hubs = new BitSet();
+    private volatile boolean stale;
+    private final ConcurrentLinkedQueue<Change> pending =
+        new ConcurrentLinkedQueue<Change>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, AdjacencyList> replayed;
+
+    /**
+     * - initializes the index and builds it from the current graph.
+     * O(|E| * hubDegree)
+     *
+     * @param graph
+     *            graph to index
+     * @param hubDegree
+     *            degree above which a vertex is handled lazily, at least 1
+     */
+    public FriendSuggestionIndex(Graph<T> graph, int hubDegree) {
+        if (hubDegree < 1) {
+            throw new IllegalArgumentException("hubDegree must be positive");
+        }
+        this.graph = graph;
+        this.hubDegree = hubDegree;
+        rebuild();
+    }
+
+
+    /**
+     * - Returns true if the index was invalidated and has not been rebuilt.
+     * O(1)
+     *
+     * @return boolean true if stale
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+
+    /**
+     * - Returns true if edge changes are queued that refresh has not applied
+     * yet.
+     * O(1)
+     *
+     * @return boolean true if changes are pending
+     */
+    public boolean hasPendingChanges() {
+        return pendingCount.get() > 0;
+    }
+
+
+    /**
+     * - Marks the whole index out of date, after many edges were changed at
+     * once. Edge changes are ignored until refresh rebuilds it.
+     * O(1)
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+
+    /**
+     * - Rebuilds the index if it is stale, and applies the queued edge
+     * changes otherwise. The graph must not change during the call.
+     * O(|E| * hubDegree) if stale, O(c * hubDegree) expected for c queued
+     * changes otherwise
+     */
+    public void refresh() {
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                pending.clear();
+                pendingCount.set(0);
+                rebuild();
+            }
+            else if (pendingCount.get() > 0) {
+                replay();
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Records that the undirected edge a - b was just added. Changes to the
+     * same edge must be recorded in the order they were made.
+     * O(1)
+     *
+     * @param a
+     *            one end
+     * @param b
+     *            other end
+     */
+    public void edgeAdded(T a, T b) {
+        enqueue(a, b, true);
+    }
+
+
+    /**
+     * - Records that the undirected edge a - b was just removed. Changes to
+     * the same edge must be recorded in the order they were made.
+     * O(1)
+     *
+     * @param a
+     *            one end
+     * @param b
+     *            other end
+     */
+    public void edgeRemoved(T a, T b) {
+        enqueue(a, b, false);
+    }
+
+
+    /**
+     * - Returns up to k vertices exactly two edges away from origin, ranked by
+     * the number of neighbors they share with origin, most first, ties by
+     * smaller vertex id. Empty if origin is not in the graph. The counts are
+     * those of the last refresh.
+     * O(c log k + sum of the degrees of origin's hub neighbors) for c
+     * candidates; O(m + c log k) for m two-hop edges if origin is a hub
+     *
+     * @param origin
+     *            the vertex to suggest for
+     * @param k
+     *            maximum number of results
+     * @return list of at most k second neighbors, best first
+     */
+    public List<T> getSecondNeighbors(T origin, int k) {
+        int originId = graph.idOf(origin);
+        if (originId < 0 || k <= 0) {
+            return new ArrayList<T>();
+        }
+        lock.readLock().lock();
+        try {
+            return rank(originId, k);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * - getSecondNeighbors with the read lock held.
+     */
+    private List<T> rank(int originId, int k) {
+        AdjacencyList first = graph.adjacencyOf(originId);
+        IntIntHashMap counts = new IntIntHashMap();
+        IntIntHashMap kept = mapOf(originId);
+        if (kept != null) {
+            for (int slot = 0; slot < kept.capacity(); slot++) {
+                if (kept.keyAt(slot) >= 0) {
+                    counts.put(kept.keyAt(slot), kept.valueAt(slot));
+                }
+            }
+        }
+        // shared neighbors the maps leave out: every one for a hub origin,
+        // the hub ones otherwise
+        boolean all = hubs.get(originId);
+        for (int i = 0; i < first.size(); i++) {
+            int middle = first.target(i);
+            if (all || hubs.get(middle)) {
+                AdjacencyList next = graph.adjacencyOf(middle);
+                for (int j = 0; j < next.size(); j++) {
+                    counts.addTo(next.target(j), 1);
+                }
+            }
+        }
+
+        // min-heap of (count << 32 | ~id), the weakest kept candidate on top
+        long[] heap = new long[Math.min(k, counts.size())];
+        int heapSize = 0;
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            int candidate = counts.keyAt(slot);
+            if (candidate < 0 || candidate == originId || first.contains(
+                candidate)) {
+                continue;
+            }
+            long rank = ((long)counts.valueAt(slot) << 32)
+                | (Integer.MAX_VALUE - candidate);
+            if (heapSize < heap.length) {
+                heap[heapSize] = rank;
+                siftUp(heap, heapSize++);
+            }
+            else if (rank > heap[0]) {
+                heap[0] = rank;
+                siftDown(heap, heapSize);
+            }
+        }
+        Object[] ranked = new Object[heapSize];
+        while (heapSize > 0) {
+            int id = Integer.MAX_VALUE - (int)heap[0];
+            ranked[heapSize - 1] = graph.labelOf(id);
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        List<T> result = new ArrayList<T>(ranked.length);
+        for (Object label : ranked) {
+            @SuppressWarnings("unchecked")
+            T next = (T)label;
+            result.add(next);
+        }
+        return result;
+    }
+
+
+    /**
+     * - queues one edge change, or gives up on the queue and marks the index
+     * stale once replaying it would cost more than a rebuild.
+     */
+    private void enqueue(T a, T b, boolean added) {
+        int aId = graph.idOf(a);
+        int bId = graph.idOf(b);
+        if (stale || aId < 0 || bId < 0) {
+            return;
+        }
+        pending.add(new Change(aId, bId, added));
+        if (pendingCount.incrementAndGet() > Math.max(PENDING_LIMIT, graph
+            .getNumberOfEdges())) {
+            stale = true;
+        }
+    }
+
+
+    /**
+     * - applies the queued changes. Only the net change of each edge counts,
+     * so the neighbor lists of the touched vertices are first rolled back
+     * to how they were at the last refresh, and the net changes are then
+     * made to those copies one at a time, each followed by the same update
+     * a single change needs.
+     */
+    private void replay() {
+        // first and last change of each edge, in the order first seen
+        Map<Long, Change[]> changes = new LinkedHashMap<Long, Change[]>();
+        Change change;
+        while ((change = pending.poll()) != null) {
+            long key = ((long)Math.min(change.a, change.b) << 32) | Math.max(
+                change.a, change.b);
+            Change[] ends = changes.get(key);
+            if (ends == null) {
+                changes.put(key, new Change[] { change, change });
+            }
+            else {
+                ends[1] = change;
+            }
+        }
+        pendingCount.set(0);
+        List<Change> net = new ArrayList<Change>();
+        for (Change[] ends : changes.values()) {
+            // added then removed, or removed then added, is no change
+            if (ends[0].added == ends[1].added) {
+                net.add(ends[1]);
+            }
+        }
+        replayed = new HashMap<Integer, AdjacencyList>();
+        for (Change c : net) {
+            replayedList(c.a);
+            replayedList(c.b);
+        }
+        for (Change c : net) {
+            if (c.added) {
+                replayed.get(c.a).remove(c.b);
+                replayed.get(c.b).remove(c.a);
+            }
+            else {
+                replayed.get(c.a).add(c.b, 0);
+                replayed.get(c.b).add(c.a, 0);
+            }
+        }
+        try {
+            for (Change c : net) {
+                if (c.added) {
+                    replayed.get(c.a).add(c.b, 0);
+                    replayed.get(c.b).add(c.a, 0);
+                    applyAdded(c.a, c.b);
+                }
+                else {
+                    replayed.get(c.a).remove(c.b);
+                    replayed.get(c.b).remove(c.a);
+                    applyRemoved(c.a, c.b);
+                }
+            }
+        }
+        finally {
+            replayed = null;
+        }
+    }
+
+
+    /**
+     * - gives id a private copy of its current neighbor list for replay.
+     */
+    private void replayedList(int id) {
+        if (!replayed.containsKey(id)) {
+            AdjacencyList current = graph.adjacencyOf(id);
+            AdjacencyList copy = new AdjacencyList(current.size() + 1);
+            for (int i = 0; i < current.size(); i++) {
+                copy.add(current.target(i), 0);
+            }
+            replayed.put(id, copy);
+        }
+    }
+
+
+    /**
+     * - updates the maps for the edge a - b, just added to the neighbor
+     * lists.
+     */
+    private void applyAdded(int aId, int bId) {
+        // a now joins b to each of its other neighbors, and b likewise
+        middleChanged(aId, bId, 1);
+        middleChanged(bId, aId, 1);
+        if (!hubs.get(aId) && degree(aId) > hubDegree) {
+            makeHub(aId);
+        }
+        if (!hubs.get(bId) && degree(bId) > hubDegree) {
+            makeHub(bId);
+        }
+    }
+
+
+    /**
+     * - updates the maps for the edge a - b, just removed from the neighbor
+     * lists.
+     */
+    private void applyRemoved(int aId, int bId) {
+        middleChanged(aId, bId, -1);
+        middleChanged(bId, aId, -1);
+        if (hubs.get(aId) && degree(aId) <= hubDegree / 2) {
+            unmakeHub(aId);
+        }
+        if (hubs.get(bId) && degree(bId) <= hubDegree / 2) {
+            unmakeHub(bId);
+        }
+    }
+
+
+    /**
+     * - the neighbors of id: the replay copy while replaying, if it has one,
+     * and the graph's otherwise.
+     */
+    private AdjacencyList neighbors(int id) {
+        if (replayed != null) {
+            AdjacencyList copy = replayed.get(id);
+            if (copy != null) {
+                return copy;
+            }
+        }
+        return graph.adjacencyOf(id);
+    }
+
+
+    /**
+     * - adds delta to the shared count of other with every other neighbor of
+     * middle, both ways, unless middle is a hub.
+     */
+    private void middleChanged(int middle, int other, int delta) {
+        if (hubs.get(middle)) {
+            return;
+        }
+        AdjacencyList neighbors = neighbors(middle);
+        for (int i = 0; i < neighbors.size(); i++) {
+            int c = neighbors.target(i);
+            if (c != other) {
+                addShared(other, c, delta);
+                addShared(c, other, delta);
+            }
+        }
+    }
+
+
+    /**
+     * - takes hub out of the maps: drops its own map and the pairs it joins.
+     */
+    private void makeHub(int hub) {
+        pairsThrough(hub, -1);
+        hubs.set(hub);
+        mutual[hub] = null;
+    }
+
+
+    /**
+     * - puts a former hub back: counts the pairs it joins and builds its map.
+     */
+    private void unmakeHub(int hub) {
+        hubs.clear(hub);
+        pairsThrough(hub, 1);
+        AdjacencyList first = neighbors(hub);
+        for (int i = 0; i < first.size(); i++) {
+            int middle = first.target(i);
+            if (hubs.get(middle)) {
+                continue;
+            }
+            AdjacencyList next = neighbors(middle);
+            for (int j = 0; j < next.size(); j++) {
+                if (next.target(j) != hub) {
+                    addShared(hub, next.target(j), 1);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - adds delta to the shared count of every pair of neighbors of middle.
+     */
+    private void pairsThrough(int middle, int delta) {
+        AdjacencyList neighbors = neighbors(middle);
+        for (int i = 0; i < neighbors.size(); i++) {
+            int x = neighbors.target(i);
+            if (hubs.get(x)) {
+                continue;
+            }
+            for (int j = 0; j < neighbors.size(); j++) {
+                if (i != j) {
+                    addShared(x, neighbors.target(j), delta);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - adds delta to x's count for c, dropping counts that reach 0. Hubs
+     * keep no map.
+     */
+    private void addShared(int x, int c, int delta) {
+        if (hubs.get(x)) {
+            return;
+        }
+        if (x >= mutual.length) {
+            mutual = Arrays.copyOf(mutual, Math.max(x + 1, mutual.length
+                * 2));
+        }
+        IntIntHashMap map = mutual[x];
+        if (map == null) {
+            map = new IntIntHashMap();
+            mutual[x] = map;
+        }
+        if (map.addTo(c, delta) <= 0) {
+            map.remove(c, 0);
+        }
+    }
+
+
+    private IntIntHashMap mapOf(int id) {
+        return (id < mutual.length) ? mutual[id] : null;
+    }
+
+
+    private int degree(int id) {
+        return neighbors(id).size();
+    }
+
+
+    private void rebuild() {
+        int bound = graph.idBound();
+        mutual = new IntIntHashMap[Math.max(bound, 16)];
+        hubs.clear();
+        for (int id = 0; id < bound; id++) {
+            if (graph.adjacencyOf(id) != null && degree(id) > hubDegree) {
+                hubs.set(id);
+            }
+        }
+        for (int middle = 0; middle < bound; middle++) {
+            if (graph.adjacencyOf(middle) != null && !hubs.get(middle)) {
+                pairsThrough(middle, 1);
+            }
+        }
+        stale = false;
+    }
+
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = swap;
+            index = parent;
+        }
+    }
+
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[index] <= heap[child]) {
+                return;
+            }
+            long swap = heap[child];
+            heap[child] = heap[index];
+            heap[index] = swap;
+            index = child;
+        }
+    }
+
+
+    /**
+     * - one queued edge change, by vertex id.
+     */
+    private static final class Change {
+        final int a;
+        final int b;
+        final boolean added;
+
+        Change(int a, int b, boolean added) {
+            this.a = a;
+            this.b = b;
+            this.added = added;
+        }
+    }
+}
@@ -1,11 +1,25 @@
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.Stack;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 
@@ -17,20 +31,65 @@ import java.util.concurrent.LinkedBlockingQueue;
  * @param <T>
  * 
  *            SOURCE: A large portion of this was taken from the lecture
+ * 
+ *            Every vertex label is interned to a dense int id when it is
+ *            added. The HashMap is only consulted at the API boundary; edge
+ *            checks and traversals run on the id-indexed adjacency arrays.
+ *            Ids of removed vertices are reused, smallest first. Each edge
+ *            is stored once, in the AdjacencyList of its begin vertex; the
+ *            VertexInterface objects the graph hands out are views that read
+ *            and change that adjacency.
+ * 
+ *            Graph is not synchronized. Adding and removing vertices needs
+ *            exclusive access. Edges of different begin vertices may be
+ *            changed in parallel as long as no two threads change edges that
+ *            touch the same vertex at once, and queries may run during those
+ *            changes; VTConnect's concurrent mode arranges this with striped
+ *            locks.
+ *
+ *            Every change that adds edges bumps the addition epoch and every
+ *            change that removes edges or vertices bumps the removal epoch,
+ *            after the change is made, so cached query results can tell
+ *            whether they are still current.
+ *
+ *            Connected components are tracked with a lock-free union-find
+ *            forest (ConnectedComponents) updated on every edge addition, so
+ *            shortest path queries between different components return at
+ *            once instead of exhausting the origin's component. Removals
+ *            only make the forest unsure; it is rebuilt once per batch of
+ *            removals by removeVertex or rebuildComponentsIfDue, never by a
+ *            query.
  *
  */
 public class Graph<T> implements GraphInterface<T> {
 
-    private HashMap<T, VertexInterface<T>> vertices;
-    private int edgeCount;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private HashMap<T, Integer> ids;
+    private ArrayList<VertexView> vertexTable;
+    private AdjacencyList[] adjacency;
+    private int[] inDegree;
+    private BitSet freeIds;
+    private final AtomicInteger edgeCount = new AtomicInteger();
+    private final AtomicLong additionEpoch = new AtomicLong();
+    private final AtomicLong removalEpoch = new AtomicLong();
+    private volatile DistanceCache distanceCache;
+    private volatile Frozen<T> frozen;
+    private final ConnectedComponents components =
+        new ConnectedComponents(this);
+    private final TraversalContext.Pool traversalPool =
+        new TraversalContext.Pool();
 
     /**
      * - initializes the graph with an empty graph
      * structure.
      */
     public Graph() {
-        edgeCount = 0;
-        vertices = new HashMap<T, VertexInterface<T>>();
+        ids = new HashMap<T, Integer>();
+        vertexTable = new ArrayList<VertexView>();
+        adjacency = new AdjacencyList[DEFAULT_CAPACITY];
+        inDegree = new int[DEFAULT_CAPACITY];
+        freeIds = new BitSet();
     }
 
 
@@ -45,27 +104,114 @@ public class Graph<T> implements GraphInterface<T> {
      * @return boolean if the vertex was added successfully
      */
     public boolean addVertex(T vertexLabel) {
-        if (vertexLabel == null) {
+        if (vertexLabel == null || ids.containsKey(vertexLabel)) {
             return false;
         }
-        VertexInterface<T> addOutcome = vertices.put(vertexLabel, new Vertex<T>(
-            vertexLabel));
-        return addOutcome == null;
+        int id = freeIds.nextSetBit(0);
+        if (id < 0) {
+            id = vertexTable.size();
+            vertexTable.add(null);
+            ensureCapacity(id + 1);
+        }
+        else {
+            freeIds.clear(id);
+        }
+        vertexTable.set(id, new VertexView(vertexLabel, id));
+        adjacency[id] = new AdjacencyList();
+        inDegree[id] = 0;
+        ids.put(vertexLabel, id);
+        components.vertexAdded(id);
+        return true;
+    }
+
+
+    /**
+     * - Adds every label in vertexLabels that is not null and not already in
+     * this graph, growing the id tables once up front. Returns the number of
+     * vertices added.
+     * O(n)
+     * 
+     * @param vertexLabels
+     *            vertices to add
+     * @return int number of vertices added
+     */
+    public int addVertices(Collection<? extends T> vertexLabels) {
+        int bound = vertexTable.size() + vertexLabels.size();
+        vertexTable.ensureCapacity(bound);
+        ensureCapacity(bound);
+        int added = 0;
+        for (T vertexLabel : vertexLabels) {
+            if (addVertex(vertexLabel)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+
+    /**
+     * - Sees whether the given vertex is in this graph.
+     * O(1)
+     * 
+     * @param vertexLabel
+     *            vertex to look for
+     * @return boolean true if the vertex is in this graph
+     */
+    public boolean containsVertex(T vertexLabel) {
+        return idOf(vertexLabel) >= 0;
     }
 
 
     /**
      * - Removes a vertex with the given vertexLabel from this graph and returns
      * the removed vertex. If vertex does not exist, it will return null.
-     * O(n^2)
+     * Edges from other vertices into the removed vertex are dropped so its id
+     * can be reused, and the returned vertex is detached: it keeps its label
+     * but has no neighbors.
+     * O(deg) when every in-edge has a matching out-edge, O(|V|+|E|) otherwise
      * 
      * @param vertexLabel
      *            vertex to remove
      * @return VertexInterface<T> removed vertex
      */
     public VertexInterface<T> removeVertex(T vertexLabel) {
+        if (vertexLabel == null) {
+            return null;
+        }
+        Integer boxedId = ids.remove(vertexLabel);
+        if (boxedId == null) {
+            return null;
+        }
+        int id = boxedId;
+        VertexView removeOutcome = vertexTable.get(id);
+        AdjacencyList out = adjacency[id];
+
+        // drop the in-edges we can find through the out-edges first
+        for (int i = 0; i < out.size() && inDegree[id] > 0; i++) {
+            if (detachEdge(out.target(i), id)) {
+                edgeCount.decrementAndGet();
+            }
+        }
+        // any remaining in-edges have no matching out-edge, scan for them
+        for (int source = 0; inDegree[id] > 0
+            && source < vertexTable.size(); source++) {
+            if (source != id && adjacency[source] != null
+                && detachEdge(source, id)) {
+                edgeCount.decrementAndGet();
+            }
+        }
+        for (int i = 0; i < out.size(); i++) {
+            inDegree[out.target(i)]--;
+        }
+        edgeCount.addAndGet(-out.size());
 
-        VertexInterface<T> removeOutcome = vertices.remove(vertexLabel);
+        removeOutcome.id = -1;
+        vertexTable.set(id, null);
+        adjacency[id] = null;
+        freeIds.set(id);
+        components.vertexRemoved(id);
+        removalEpoch.incrementAndGet();
+        components.rebuildIfDue();
         return removeOutcome;
     }
 
@@ -74,7 +220,7 @@ public class Graph<T> implements GraphInterface<T> {
      * - Adds a weighted edge between two given distinct vertices that are
      * currently in this graph. The desired edge must not already be in the
      * graph. Note that the graph is undirected graph.
-     * O(n)
+     * O(1) expected
      * 
      * @param begin
      *            start of the edge
@@ -88,19 +234,20 @@ public class Graph<T> implements GraphInterface<T> {
         // Note representing undirected edges as two seperate edges back and
         // forth
         boolean result = false;
-        VertexInterface<T> beginVertex = vertices.get(begin);
-        VertexInterface<T> endVertex = vertices.get(end);
+        int beginId = idOf(begin);
+        int endId = idOf(end);
 
         // if the vertex isnt null, connect the start and end
-        if ((beginVertex != null) && (endVertex != null)) {
-            if (!hasEdge(begin, end)) {
-                result = beginVertex.connect(endVertex, edgeWeight);
-            }
-
+        if ((beginId >= 0) && (endId >= 0) && (beginId != endId)) {
+            result = !adjacency[beginId].contains(endId);
         }
         // if the connection was successful, iterate the edgeCount
         if (result) {
-            edgeCount++;
+            adjacency[beginId].add(endId, edgeWeight);
+            inDegree[endId]++;
+            edgeCount.incrementAndGet();
+            components.edgeAdded(beginId, endId);
+            additionEpoch.incrementAndGet();
         }
         return result;
     }
@@ -110,7 +257,7 @@ public class Graph<T> implements GraphInterface<T> {
      * - Adds an unweighted edge between two given distinct vertices that are
      * currently in this graph. The desired edge must not already be in the
      * graph.
-     * O(n)
+     * O(1) expected
      * 
      * @param begin
      *            the beggining point to start the edge from
@@ -123,11 +270,113 @@ public class Graph<T> implements GraphInterface<T> {
     }
 
 
+    /**
+     * - Adds many unweighted edges in one pass. Pairs with a missing or
+     * repeated endpoint, duplicate pairs and edges already in the graph are
+     * skipped. With undirected, each pair adds both directions. Returns the
+     * number of edges added.
+     * The pairs are packed into longs, sorted and deduplicated, then split
+     * into ranges of begin vertices that are filled in parallel, each list
+     * presized for the edges it is about to get. onAdded, if not null, is
+     * called for every added edge from the thread that owns its begin vertex,
+     * so it may update per-vertex state without locking. The graph must not
+     * be used by other threads during the call.
+     * O(E log E / p) for E pairs and p workers
+     * 
+     * @param pairs
+     *            begin and end of each edge
+     * @param undirected
+     *            true to add each pair in both directions
+     * @param onAdded
+     *            called with begin and end of each added edge, or null
+     * @return int number of edges added
+     */
+    public int addEdges(
+        Collection<? extends Map.Entry<? extends T, ? extends T>> pairs,
+        boolean undirected,
+        BiConsumer<T, T> onAdded) {
+        long[] packed = new long[undirected ? pairs.size() * 2 : pairs.size()];
+        int count = 0;
+        for (Map.Entry<? extends T, ? extends T> pair : pairs) {
+            int beginId = idOf(pair.getKey());
+            int endId = idOf(pair.getValue());
+            if ((beginId < 0) || (endId < 0) || (beginId == endId)) {
+                continue;
+            }
+            packed[count++] = ((long)beginId << 32) | endId;
+            if (undirected) {
+                packed[count++] = ((long)endId << 32) | beginId;
+            }
+        }
+        return addEdges(packed, count, onAdded);
+    }
+
+
+    /**
+     * - Adds the unweighted edges packed as (begin id << 32 | end id) in
+     * packed[0 .. count), as addEdges does for label pairs. Every id must be
+     * live; edges from a vertex to itself are skipped. packed is sorted and
+     * overwritten.
+     * O(E log E / p) for E edges and p workers
+     * 
+     * @param packed
+     *            packed edges
+     * @param count
+     *            number of packed edges
+     * @param onAdded
+     *            called with begin and end of each added edge, or null
+     * @return int number of edges added
+     */
+    int addEdges(long[] packed, int count, BiConsumer<T, T> onAdded) {
+        Arrays.parallelSort(packed, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if ((int)(packed[i] >>> 32) != (int)packed[i] && (unique == 0
+                || packed[i] != packed[unique - 1])) {
+                packed[unique++] = packed[i];
+            }
+        }
+
+        // split at begin vertex boundaries so each range owns its vertices
+        int parts = Math.max(1, Math.min(unique / 4096, Runtime.getRuntime()
+            .availableProcessors() * 4));
+        int[] cuts = new int[parts + 1];
+        for (int part = 1; part < parts; part++) {
+            int cut = Math.max(cuts[part - 1], (int)((long)unique * part
+                / parts));
+            while (cut > 0 && cut < unique && (packed[cut]
+                >>> 32) == (packed[cut - 1] >>> 32)) {
+                cut++;
+            }
+            cuts[part] = cut;
+        }
+        cuts[parts] = unique;
+        long[] edges = packed;
+        IntStream.range(0, parts).parallel().forEach(part -> fillEdges(edges,
+            cuts[part], cuts[part + 1], onAdded));
+
+        // skipped edges were marked -1 by fillEdges
+        int added = 0;
+        for (int i = 0; i < unique; i++) {
+            if (edges[i] >= 0) {
+                inDegree[(int)edges[i]]++;
+                components.edgeAdded((int)(edges[i] >>> 32), (int)edges[i]);
+                added++;
+            }
+        }
+        edgeCount.addAndGet(added);
+        if (added > 0) {
+            additionEpoch.incrementAndGet();
+        }
+        return added;
+    }
+
+
     /**
      * - Removes a weighted edge between two given distinct vertices that are
      * currently in this graph. The desired edge must already be in the graph.
      * It returns true if the removal is successful, false otherwise.
-     * O(n)
+     * O(1) expected
      * 
      * @param begin
      *            the beggining point
@@ -141,16 +390,16 @@ public class Graph<T> implements GraphInterface<T> {
 
         boolean result = false;
 
-        VertexInterface<T> beginVertex = vertices.get(begin);
-        VertexInterface<T> endVertex = vertices.get(end);
+        int beginId = idOf(begin);
+        int endId = idOf(end);
         // disconnect as long as neither vertex is null
-        if ((beginVertex != null) && (endVertex != null)) {
-            if (hasEdge(begin, end)) {
-                result = beginVertex.disconnect(endVertex, edgeWeight);
-            }
+        if ((beginId >= 0) && (endId >= 0)) {
+            result = detachEdge(beginId, endId);
         }
         if (result) {
-            edgeCount--;
+            edgeCount.decrementAndGet();
+            components.edgeRemoved();
+            removalEpoch.incrementAndGet();
         }
         return result;
     }
@@ -160,7 +409,7 @@ public class Graph<T> implements GraphInterface<T> {
      * - Removes an unweighted edge between two given distinct vertices that are
      * currently in this graph. The desired edge must already be in the graph.
      * It returns true if the removal is successful, false otherwise
-     * O(n)
+     * O(1) expected
      * 
      * @param begin
      *            the beggining point
@@ -175,7 +424,7 @@ public class Graph<T> implements GraphInterface<T> {
 
     /**
      * - Sees whether an undirected edge exists between two given vertices.
-     * O(n)
+     * O(1) expected
      * 
      * @param begin
      *            the beggining point
@@ -184,23 +433,13 @@ public class Graph<T> implements GraphInterface<T> {
      * @return a boolean if the point has the edge
      */
     public boolean hasEdge(T begin, T end) {
-        boolean found = false;
-        VertexInterface<T> beginVertex = vertices.get(begin);
-        VertexInterface<T> endVertex = vertices.get(end);
+        int beginId = idOf(begin);
+        int endId = idOf(end);
         // check for null vertex
-        if ((beginVertex != null) && (endVertex != null)) {
-            Iterator<VertexInterface<T>> neighbors = beginVertex
-                .getNeighborIterator();
-            // iterate through the neighbors
-            while (!found && neighbors.hasNext()) {
-                VertexInterface<T> nextNeighbor = neighbors.next();
-                if (endVertex.equals(nextNeighbor)) {
-                    // we found the edge
-                    found = true;
-                }
-            }
+        if ((beginId < 0) || (endId < 0)) {
+            return false;
         }
-        return found;
+        return adjacency[beginId].contains(endId);
     }
 
 
@@ -211,7 +450,7 @@ public class Graph<T> implements GraphInterface<T> {
      * @return an int with the number of vertices
      */
     public int getNumberOfVertices() {
-        return vertices.size();
+        return ids.size();
     }
 
 
@@ -222,7 +461,7 @@ public class Graph<T> implements GraphInterface<T> {
      * @return an int of the number of edges
      */
     public int getNumberOfEdges() {
-        return edgeCount;
+        return edgeCount.get();
     }
 
 
@@ -233,7 +472,7 @@ public class Graph<T> implements GraphInterface<T> {
      * @return a boolean if the graph is empty, false otherwise
      */
     public boolean isEmpty() {
-        return vertices.isEmpty();
+        return ids.isEmpty();
     }
 
 
@@ -249,7 +488,12 @@ public class Graph<T> implements GraphInterface<T> {
             return null;
         }
         List<VertexInterface<T>> list = new ArrayList<VertexInterface<T>>(
-            vertices.values());
+            ids.size());
+        for (VertexInterface<T> vertex : vertexTable) {
+            if (vertex != null) {
+                list.add(vertex);
+            }
+        }
         return list;
 
     }
@@ -260,8 +504,15 @@ public class Graph<T> implements GraphInterface<T> {
      * O(1)
      */
     public void clear() {
-        vertices.clear();
-        edgeCount = 0;
+        ids.clear();
+        vertexTable.clear();
+        adjacency = new AdjacencyList[DEFAULT_CAPACITY];
+        inDegree = new int[DEFAULT_CAPACITY];
+        freeIds.clear();
+        edgeCount.set(0);
+        components.rebuild();
+        additionEpoch.incrementAndGet();
+        removalEpoch.incrementAndGet();
     }
 
 
@@ -275,42 +526,165 @@ public class Graph<T> implements GraphInterface<T> {
      * @return queue queue
      */
     public Queue<T> getBreadthFirstTraversal(T origin) {
-        if (origin == null) {
-            return new LinkedBlockingQueue<T>();
-        }
-        resetVertices();
-        Queue<T> traversalOrder = new LinkedBlockingQueue<T>();
-        Queue<VertexInterface<T>> vertexQueue =
-            new LinkedBlockingQueue<VertexInterface<T>>();
-        VertexInterface<T> originVertex = vertices.get(origin);
-        originVertex.visit();
-        traversalOrder.add(origin); // enqueue vertex label
-        vertexQueue.add(originVertex); // enqueue vertex
-
-        while (!vertexQueue.isEmpty()) {
-            VertexInterface<T> frontVertex = vertexQueue.remove();
-
-            Iterator<VertexInterface<T>> neighbors = frontVertex
-                .getNeighborIterator();
-            while (neighbors.hasNext()) {
-                VertexInterface<T> nextNeighbor = neighbors.next();
-                if (!nextNeighbor.isVisited()) {
-                    nextNeighbor.visit();
-                    traversalOrder.add(nextNeighbor.getLabel());
-                    vertexQueue.add(nextNeighbor);
+        int originId = idOf(origin);
+        if (originId < 0) {
+            return new ArrayDeque<T>();
+        }
+        Queue<T> traversalOrder = new ArrayDeque<T>();
+        TraversalContext context = traversalPool.acquire(vertexTable.size());
+        context.visit(originId);
+        context.enqueue(originId);
+
+        while (context.hasQueued()) {
+            int frontId = context.dequeue();
+            traversalOrder.add(labelOf(frontId));
+            AdjacencyList neighbors = adjacency[frontId];
+            for (int i = 0; i < neighbors.size(); i++) {
+                int nextNeighbor = neighbors.target(i);
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor);
+                    context.enqueue(nextNeighbor);
                 } // end if
-            } // end while
+            } // end for
         } // end while
 
+        traversalPool.release(context);
         return traversalOrder;
     } // end getBreadthFirstTraversal
 
 
+    /**
+     * - Performs a parallel breadth- first traversal of a graph and returns
+     * the queue that contains the result, level by level and in id order
+     * inside each level. Runs on the CsrGraph from snapshot(), which is only
+     * frozen again after a change. Empty queue can be returned.
+     * O(|V|+|E|) to freeze after a change, then O((|V|+|E|) / p) per level
+     * with p workers
+     * 
+     * @param origin
+     *            the origin of the BFT
+     * @return queue queue
+     */
+    public Queue<T> getParallelBreadthFirstTraversal(T origin) {
+        return snapshot().getParallelBreadthFirstTraversal(origin);
+    }
+
+
+    /**
+     * - Returns a lazy breadth-first traversal from origin, in the same order
+     * as getBreadthFirstTraversal. The frontier is expanded one vertex per
+     * call to next, so the first results come without walking the whole
+     * graph and a caller that stops early never pays for the rest. The
+     * pooled traversal state goes back to the pool when the iterator runs
+     * out. The graph must not change during the traversal. Empty if origin
+     * is not in the graph.
+     * O(1 + degree) per call to next
+     * 
+     * @param origin
+     *            the origin of the BFT
+     * @return Iterator<T> vertices in breadth-first order
+     */
+    public Iterator<T> breadthFirstIterator(T origin) {
+        return breadthFirstIterator(origin, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * - Returns a lazy breadth-first traversal from origin that stops at
+     * vertices maxDepth edges away, and does not expand them.
+     * O(1 + degree) per call to next
+     * 
+     * @param origin
+     *            the origin of the BFT
+     * @param maxDepth
+     *            largest number of edges from origin to return, 0 for
+     *            just the origin
+     * @return Iterator<T> vertices in breadth-first order
+     */
+    public Iterator<T> breadthFirstIterator(T origin, int maxDepth) {
+        return new BreadthFirstIterator(idOf(origin), maxDepth);
+    }
+
+
+    /**
+     * - Returns the vertices within k edges of origin grouped by hop
+     * distance: element d of the result lists the vertices exactly d edges
+     * away, in breadth-first order, with origin alone at 0. Expansion stops
+     * at depth k, and visited vertices are tracked in a hash set sized by
+     * the neighborhood, so a small neighborhood of a huge graph costs little.
+     * Empty if origin is not in the graph or k is negative.
+     * O(vertices within k hops + edges of those within k - 1 hops)
+     * 
+     * @param origin
+     *            the vertex to start from
+     * @param k
+     *            largest hop distance to include
+     * @return List<List<T>> vertices by hop distance
+     */
+    public List<List<T>> neighborhood(T origin, int k) {
+        int[][] levels = hopLevels(idOf(origin), k);
+        List<List<T>> result = new ArrayList<List<T>>(levels.length);
+        for (int[] level : levels) {
+            List<T> labels = new ArrayList<T>(level.length);
+            for (int id : level) {
+                labels.add(labelOf(id));
+            }
+            result.add(labels);
+        }
+        return result;
+    }
+
+
+    /**
+     * - Returns the number of vertices at most k edges from origin, not
+     * counting origin itself, like neighborhood without building the label
+     * lists. 0 if origin is not in the graph.
+     * O(vertices within k hops + edges of those within k - 1 hops)
+     * 
+     * @param origin
+     *            the vertex to start from
+     * @param k
+     *            largest hop distance to include
+     * @return int number of vertices within k hops
+     */
+    public int countWithinHops(T origin, int k) {
+        int count = 0;
+        for (int[] level : hopLevels(idOf(origin), k)) {
+            count += level.length;
+        }
+        return Math.max(count - 1, 0);
+    }
+
+
+    /**
+     * - Returns breadthFirstIterator(origin, maxDepth) as a sequential
+     * stream, so callers can limit, filter or search it and stop as soon as
+     * they have enough. Closing the stream returns the traversal state to
+     * the pool even if it was not used up.
+     * O(1 + degree) per element
+     * 
+     * @param origin
+     *            the origin of the BFT
+     * @param maxDepth
+     *            largest number of edges from origin to return
+     * @return Stream<T> vertices in breadth-first order
+     */
+    public Stream<T> breadthFirstStream(T origin, int maxDepth) {
+        BreadthFirstIterator iterator = new BreadthFirstIterator(idOf(origin),
+            maxDepth);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            iterator, Spliterator.ORDERED | Spliterator.DISTINCT
+                | Spliterator.NONNULL), false).onClose(iterator::release);
+    }
+
+
     /**
      * - returns the shortest distance between the origin and destination. If a
      * path does not exist, it returns the maximum integer (to simulate
-     * infinity).
-     * O(|V|+|E|)
+     * infinity). Traversal state lives in a pooled TraversalContext, so
+     * concurrent queries on an unchanging graph do not interfere. With
+     * enableDistanceCache, still-valid results are answered from the cache.
+     * O(visited vertices + their edges), O(path length) on a cache hit
      * 
      * @param origin
      *            origin of shortest path
@@ -321,68 +695,1157 @@ public class Graph<T> implements GraphInterface<T> {
      * @return an integer of the number of edges along the shortest path
      */
     public int getShortestPath(T origin, T destination, Stack<T> path) {
+        int originId = idOf(origin);
+        int endId = idOf(destination);
+        if ((originId < 0) || (endId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        if (originId != endId && !components.mayBeConnected(originId, endId)) {
+            return Integer.MAX_VALUE;
+        }
+        DistanceCache cache = distanceCache;
+        if (cache == null || originId == endId) {
+            return pushPath(breadthFirstPath(originId, endId), path);
+        }
+        // read the epochs before searching, so a change made during the
+        // search leaves the cached result already out of date
+        long additions = additionEpoch.get();
+        long removals = removalEpoch.get();
+        long key = DistanceCache.key(originId, endId);
+        DistanceCache.Entry cached = cache.get(key, additions, removals);
+        if (cached != null) {
+            return pushPath(cached.getPath(), path);
+        }
+        int[] found = breadthFirstPath(originId, endId);
+        cache.put(key, (found == null)
+            ? DistanceCache.UNREACHABLE
+            : found.length - 1, found, additions, removals);
+        return pushPath(found, path);
+    }
 
-        // Based on lecture getShortestPath algorithm
-        resetVertices();
-        boolean done = false;
-        Queue<VertexInterface<T>> vertexQueue =
-            new LinkedBlockingQueue<VertexInterface<T>>();
 
-        VertexInterface<T> originVertex = vertices.get(origin);
-        VertexInterface<T> endVertex = vertices.get(destination);
-        // visit the origin and add it to vertexQueue
-        originVertex.visit();
-        vertexQueue.add(originVertex);
-        // Outer loop
-        while (!done && !vertexQueue.isEmpty()) {
-            // dequeue the front vertex
-            VertexInterface<T> frontVertex = vertexQueue.remove();
-            Iterator<VertexInterface<T>> neighbors = frontVertex
-                .getNeighborIterator();
+    /**
+     * - Puts a bounded LRU cache of getShortestPath results in front of the
+     * search, holding up to capacity origin-destination pairs. Results stay
+     * cached across changes that cannot affect them, see DistanceCache.
+     * Replaces any cache already enabled.
+     * O(1)
+     * 
+     * @param capacity
+     *            maximum number of cached pairs
+     */
+    public void enableDistanceCache(int capacity) {
+        distanceCache = new DistanceCache(capacity);
+    }
 
-            while (!done && neighbors.hasNext()) {
-                VertexInterface<T> nextNeighbor = neighbors.next();
-                // if next neighbor is not visited
-                if (!nextNeighbor.isVisited()) {
-                    // Mark next neighbor as visited
-                    nextNeighbor.visit();
-                    // Set the length of the path to nextNeighbor to 1 + length
-                    // of path to frontVertex
-                    nextNeighbor.setCost(1 + frontVertex.getCost());
-                    // set setPredecessor of nextNeighbor to front vertex
-                    nextNeighbor.setPredecessor(frontVertex);
-                    // enqueue
-                    vertexQueue.add(nextNeighbor);
+
+    /**
+     * - Stops caching getShortestPath results and drops the cache.
+     * O(1)
+     */
+    public void disableDistanceCache() {
+        distanceCache = null;
+    }
+
+
+    /**
+     * - Returns the cache in front of getShortestPath, for its hit and miss
+     * counts, or null if none is enabled.
+     * O(1)
+     * 
+     * @return DistanceCache the cache or null
+     */
+    public DistanceCache getDistanceCache() {
+        return distanceCache;
+    }
+
+
+    /**
+     * - returns the shortest distance between the origin and destination using
+     * a bidirectional breadth-first search, and pushes the path onto path
+     * with the origin on top, like getShortestPath. If a path does not exist,
+     * it returns the maximum integer (to simulate infinity).
+     * Each round expands one whole level of the smaller frontier and the
+     * search stops in the round where the two sides meet. The backward side
+     * follows the out-edges of the destination side, so the answer is exact
+     * when every edge has its reverse edge, as in an undirected graph.
+     * O(b^(d/2)) for branching factor b and distance d, O(|V|+|E|) worst case
+     * 
+     * @param origin
+     *            origin of shortest path
+     * @param destination
+     *            destination of shortest path
+     * @param path
+     *            the path
+     * @return an integer of the number of edges along the shortest path
+     */
+    public int getShortestPathBidirectional(
+        T origin,
+        T destination,
+        Stack<T> path) {
+        int originId = idOf(origin);
+        int endId = idOf(destination);
+        if ((originId < 0) || (endId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        if (originId == endId) {
+            path.push(origin);
+            return 0;
+        }
+        if (!components.mayBeConnected(originId, endId)) {
+            return Integer.MAX_VALUE;
+        }
+        int bound = vertexTable.size();
+        TraversalContext forward = traversalPool.acquire(bound);
+        TraversalContext backward = traversalPool.acquire(bound);
+        forward.visit(originId);
+        forward.enqueue(originId);
+        backward.visit(endId);
+        backward.enqueue(endId);
+        int forwardDone = 0;
+        int backwardDone = 0;
+        int bestLength = Integer.MAX_VALUE;
+        int meetFrom = -1;
+        int meetTo = -1;
+
+        while (bestLength == Integer.MAX_VALUE && forward.hasQueued()
+            && backward.hasQueued()) {
+            int forwardFrontier = forward.queuedCount() - forwardDone;
+            int backwardFrontier = backward.queuedCount() - backwardDone;
+            boolean expandForward = forwardFrontier <= backwardFrontier;
+            TraversalContext near = expandForward ? forward : backward;
+            TraversalContext far = expandForward ? backward : forward;
+            int levelEnd = near.queuedCount();
+            int done = expandForward ? forwardDone : backwardDone;
+            // expand one whole level so the best meeting in it is shortest
+            for (; done < levelEnd; done++) {
+                int frontId = near.dequeue();
+                int frontCost = near.getCost(frontId);
+                AdjacencyList neighbors = adjacency[frontId];
+                for (int i = 0; i < neighbors.size(); i++) {
+                    int nextNeighbor = neighbors.target(i);
+                    if (far.isVisited(nextNeighbor)) {
+                        int length = frontCost + 1 + far.getCost(
+                            nextNeighbor);
+                        if (length < bestLength) {
+                            bestLength = length;
+                            meetFrom = expandForward ? frontId : nextNeighbor;
+                            meetTo = expandForward ? nextNeighbor : frontId;
+                        }
+                    }
+                    if (!near.isVisited(nextNeighbor)) {
+                        near.visit(nextNeighbor, frontId, frontCost + 1);
+                        near.enqueue(nextNeighbor);
+                    }
+                }
+            }
+            if (expandForward) {
+                forwardDone = done;
+            }
+            else {
+                backwardDone = done;
+            }
+        }
+
+        if (bestLength != Integer.MAX_VALUE) {
+            // destination side first so the origin ends up on top
+            Stack<Integer> tail = new Stack<Integer>();
+            for (int id = meetTo; id >= 0; id = backward.getPredecessor(id)) {
+                tail.push(id);
+            }
+            while (!tail.isEmpty()) {
+                path.push(labelOf(tail.pop()));
+            }
+            for (int id = meetFrom; id >= 0; id = forward.getPredecessor(id)) {
+                path.push(labelOf(id));
+            }
+        }
+        traversalPool.release(forward);
+        traversalPool.release(backward);
+        return bestLength;
+    }
+
+
+    /**
+     * - returns the cost of the cheapest path between the origin and
+     * destination, adding up edge weights, and pushes the path onto path with
+     * the origin on top. If a path does not exist, it returns positive
+     * infinity and leaves path alone. This is Dijkstra's algorithm on a
+     * primitive indexed heap with decrease-key; it stops as soon as the
+     * destination is settled. Edge weights must not be negative.
+     * O((|V|+|E|) log |V|)
+     * 
+     * @param origin
+     *            origin of the path
+     * @param destination
+     *            destination of the path
+     * @param path
+     *            the path
+     * @return double total weight of the cheapest path
+     */
+    public double getWeightedShortestPath(
+        T origin,
+        T destination,
+        Stack<T> path) {
+        int originId = idOf(origin);
+        int endId = idOf(destination);
+        if ((originId < 0) || (endId < 0) || !components.mayBeConnected(
+            originId, endId)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        TraversalContext context = traversalPool.acquire(vertexTable.size());
+        IndexedMinHeap frontier = context.emptyHeap();
+        context.visit(originId);
+        frontier.offer(originId, 0);
+
+        while (!frontier.isEmpty()) {
+            int frontId = frontier.poll();
+            if (frontId == endId) {
+                break;
+            }
+            double frontCost = frontier.getKey(frontId);
+            AdjacencyList neighbors = adjacency[frontId];
+            for (int i = 0; i < neighbors.size(); i++) {
+                int nextNeighbor = neighbors.target(i);
+                if (frontier.offer(nextNeighbor, frontCost + neighbors.weight(
+                    i))) {
+                    // cheaper way in, remember where it came from
+                    context.visit(nextNeighbor, frontId, context.getCost(
+                        frontId) + 1);
                 }
+            }
+        }
 
-                if (nextNeighbor.equals(endVertex))
-                    done = true;
+        double pathCost = Double.POSITIVE_INFINITY;
+        if (frontier.isPolled(endId)) {
+            pathCost = frontier.getKey(endId);
+            for (int id = endId; id >= 0; id = context.getPredecessor(id)) {
+                path.push(labelOf(id));
             }
         }
+        traversalPool.release(context);
+        return pathCost;
+    }
 
-        // traversal ends - construct shortest path
-        int pathLength = (int)endVertex.getCost();
-        path.push(endVertex.getLabel());
-        // while vertex has a predecessor
-        VertexInterface<T> vertex = endVertex;
-        while (vertex.hasPredecessor()) {
-            vertex = vertex.getPredecessor();
-            path.push(vertex.getLabel());
+
+    /**
+     * - Returns every vertex exactly two edges away from origin, i.e. the
+     * neighbors of its neighbors that are neither origin nor one of its
+     * neighbors, in breadth-first order. Returns an empty list if origin is
+     * not in this graph.
+     * O(sum of the degrees of origin's neighbors)
+     * 
+     * @param origin
+     *            the vertex to start from
+     * @return list of second neighbors in breadth-first order
+     */
+    public List<T> getSecondNeighbors(T origin) {
+        SecondNeighbors second = collectSecondNeighbors(idOf(origin));
+        List<T> result = new ArrayList<T>(second.size);
+        for (int i = 0; i < second.size; i++) {
+            result.add(labelOf(second.order[i]));
         }
+        return result;
+    }
+
 
-        return pathLength;
+    /**
+     * - Returns up to k vertices exactly two edges away from origin, ranked by
+     * the number of neighbors they share with origin, most first. Ties keep
+     * breadth-first order. Shared neighbors are counted in one pass over the
+     * two-hop neighborhood and the best k are kept in a bounded heap.
+     * O(m + c log k) for m two-hop edges and c candidates
+     * 
+     * @param origin
+     *            the vertex to start from
+     * @param k
+     *            maximum number of results
+     * @return list of at most k second neighbors, best first
+     */
+    public List<T> getSecondNeighbors(T origin, int k) {
+        SecondNeighbors second = collectSecondNeighbors(idOf(origin));
+        int limit = Math.max(0, Math.min(k, second.size));
+        // min-heap of candidate positions, the weakest kept candidate on top
+        int[] heap = new int[limit];
+        int heapSize = 0;
+        for (int position = 0; position < second.size && limit > 0;
+            position++) {
+            if (heapSize < limit) {
+                heap[heapSize] = position;
+                siftUp(heap, heapSize++, second);
+            }
+            else if (second.ranksAbove(position, heap[0])) {
+                heap[0] = position;
+                siftDown(heap, heapSize, second);
+            }
+        }
+        Object[] ranked = new Object[heapSize];
+        while (heapSize > 0) {
+            ranked[heapSize - 1] = labelOf(second.order[heap[0]]);
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, second);
+        }
+        List<T> result = new ArrayList<T>(ranked.length);
+        for (Object label : ranked) {
+            @SuppressWarnings("unchecked")
+            T next = (T)label;
+            result.add(next);
+        }
+        return result;
     }
 
 
-    protected void resetVertices() {
-        Collection<VertexInterface<T>> temp = vertices.values();
-        Iterator<VertexInterface<T>> vertexIterator = temp.iterator();
-
-        while (vertexIterator.hasNext()) {
-            VertexInterface<T> nextVertex = vertexIterator.next();
-            nextVertex.unvisit();
-            nextVertex.setCost(0);
-            nextVertex.setPredecessor(null);
+    /**
+     * - Rebuilds the component forest if enough edges or vertices were
+     * removed since it was last built, so that shortest path queries can
+     * again rule out pairs in different components. Call after removing
+     * edges, outside any per-edge lock; edges may change during the call,
+     * vertices may not.
+     * O(1), O(|V|+|E|) once per batch of removals
+     *
+     * @return boolean true if the forest was rebuilt
+     */
+    public boolean rebuildComponentsIfDue() {
+        return components.rebuildIfDue();
+    }
+
+
+    /**
+     * - Returns the number of connected components, treating every edge as
+     * undirected. Rebuilds the component forest first if edges or vertices
+     * were removed since it was last built, so the graph must not change
+     * during the call.
+     * O(1), O(|V|+|E|) after a removal
+     * 
+     * @return int number of components
+     */
+    public int componentCount() {
+        return components.getCount();
+    }
+
+
+    /**
+     * - Returns a representative vertex of the connected component of
+     * vertexLabel: two vertices are in the same component exactly when
+     * their representatives are the same, until the graph changes. Returns
+     * null if the vertex is not in the graph. Rebuilds like componentCount.
+     * O(1) amortized, O(|V|+|E|) after a removal
+     * 
+     * @param vertexLabel
+     *            vertex to look up
+     * @return T representative vertex or null
+     */
+    public T componentOf(T vertexLabel) {
+        int id = idOf(vertexLabel);
+        if (id < 0) {
+            return null;
+        }
+        return labelOf(components.representativeOf(id));
+    }
+
+
+    /**
+     * - Counts the triangles of the graph, every edge taken as undirected,
+     * and the clustering coefficient of every vertex, in parallel on the
+     * common ForkJoinPool. Counts the CsrGraph from snapshot(), so later
+     * changes are not seen by the result.
+     * O(|V| + |E|) to freeze after a change, then O(E sqrt(E) / p) with p
+     * workers
+     * 
+     * @return TriangleCounter<T> triangles and coefficients by vertex
+     */
+    public TriangleCounter<T> countTriangles() {
+        return snapshot().countTriangles();
+    }
+
+
+    /**
+     * - Returns the PageRank of every vertex, edge weights ignored, computed
+     * in parallel on the common ForkJoinPool with the default damping and
+     * tolerance. Ranks the CsrGraph from snapshot(), whose transpose is
+     * cached with it, starting from previous where it applies, so that
+     * scores from before a few changes converge in few iterations.
+     * O(|V| + |E|) per iteration, split over p workers, plus O(|V| + |E|) to
+     * freeze and transpose after a change
+     * 
+     * @param previous
+     *            scores of an earlier run, or null for a cold start
+     * @return PageRank.Scores<T> ranks summing to 1
+     */
+    public PageRank.Scores<T> getPageRank(PageRank.Scores<T> previous) {
+        return new PageRank<T>(snapshot(), ForkJoinPool.commonPool()).rank(
+            previous);
+    }
+
+
+    /**
+     * - Packs the current adjacency into an immutable CompressedGraph
+     * snapshot: neighbor lists sorted and gap-encoded as varints, typically
+     * one or two bytes per edge. Weights are not kept. Later changes to this
+     * graph are not seen by the snapshot.
+     * O(|V| + |E| log d) for maximum degree d
+     * 
+     * @return CompressedGraph<T> compressed snapshot of this graph
+     */
+    public CompressedGraph<T> compress() {
+        Object[] labels = new Object[vertexTable.size()];
+        for (int id = 0; id < labels.length; id++) {
+            if (adjacency[id] != null) {
+                labels[id] = labelOf(id);
+            }
+        }
+        return CompressedGraph.compress(new HashMap<T, Integer>(ids), labels,
+            adjacency);
+    }
+
+
+    /**
+     * - Packs the current adjacency into an immutable CsrGraph snapshot that
+     * keeps the edge weights. Later changes to this graph are not seen by the
+     * snapshot.
+     * O(|V|+|E|)
+     * 
+     * @return CsrGraph<T> snapshot of this graph
+     */
+    public CsrGraph<T> freeze() {
+        return freeze(true);
+    }
+
+
+    /**
+     * - Packs the current adjacency into an immutable CsrGraph snapshot.
+     * Later changes to this graph are not seen by the snapshot. Without
+     * weights each list is copied as of one moment, so edges may change on
+     * other threads meanwhile; with weights the graph must not change
+     * during the call.
+     * O(|V|+|E|)
+     * 
+     * @param keepWeights
+     *            true to copy the edge weights into the snapshot
+     * @return CsrGraph<T> snapshot of this graph
+     */
+    public CsrGraph<T> freeze(boolean keepWeights) {
+        int bound = vertexTable.size();
+        Object[] labels = new Object[bound];
+        int[][] rows = keepWeights ? null : new int[bound][];
+        int[] offsets = new int[bound + 1];
+        for (int id = 0; id < bound; id++) {
+            int degree = 0;
+            if (adjacency[id] != null) {
+                labels[id] = labelOf(id);
+                if (keepWeights) {
+                    degree = adjacency[id].size();
+                }
+                else {
+                    rows[id] = adjacency[id].targetsSnapshot();
+                    degree = rows[id].length;
+                }
+            }
+            offsets[id + 1] = offsets[id] + degree;
+        }
+        int[] targets = new int[offsets[bound]];
+        double[] weights = keepWeights ? new double[offsets[bound]] : null;
+        for (int id = 0; id < bound; id++) {
+            if (!keepWeights) {
+                if (rows[id] != null) {
+                    System.arraycopy(rows[id], 0, targets, offsets[id],
+                        rows[id].length);
+                }
+                continue;
+            }
+            AdjacencyList out = adjacency[id];
+            for (int i = 0; out != null && i < out.size(); i++) {
+                targets[offsets[id] + i] = out.target(i);
+                weights[offsets[id] + i] = out.weight(i);
+            }
+        }
+        return new CsrGraph<T>(new HashMap<T, Integer>(ids), labels, offsets,
+            targets, weights);
+    }
+
+
+    /**
+     * - Returns a CsrGraph snapshot of the current adjacency without weights,
+     * like freeze(false), but hands back the same snapshot until a vertex or
+     * edge changes. The snapshot caches its transpose, so repeated analyses
+     * freeze and transpose the graph once per change instead of once per
+     * call. Edges may change on other threads during the call.
+     * O(|V|+|E|) after a change, O(1) otherwise
+     * 
+     * @return CsrGraph<T> snapshot of this graph
+     */
+    public CsrGraph<T> snapshot() {
+        // read before freezing, so a change made meanwhile outdates it
+        long additions = additionEpoch.get();
+        long removals = removalEpoch.get();
+        int vertices = ids.size();
+        Frozen<T> cached = frozen;
+        if (cached != null && cached.additions == additions
+            && cached.removals == removals && cached.vertices == vertices) {
+            return cached.graph;
+        }
+        CsrGraph<T> fresh = freeze(false);
+        frozen = new Frozen<T>(fresh, additions, removals, vertices);
+        return fresh;
+    }
+
+
+    /**
+     * - Fills this empty graph from an adjacency in CSR form, keeping every
+     * vertex id. labels holds the label of each id, null for ids that are
+     * free; the edges of id are targets[offsets[id] .. offsets[id + 1]).
+     * Vertices are filled in parallel, each list presized, and onAdded, if
+     * not null, is called for every edge from the thread that owns its begin
+     * vertex. The buffers are only read with absolute gets, so mapped file
+     * buffers can be passed in directly.
+     * O((|V|+|E|) / p) for p workers
+     * 
+     * @param labels
+     *            label by vertex id, null for free ids
+     * @param offsets
+     *            edge offsets, one more than labels
+     * @param targets
+     *            end vertex ids
+     * @param onAdded
+     *            called with begin and end of each edge, or null
+     */
+    void restore(
+        List<T> labels,
+        IntBuffer offsets,
+        IntBuffer targets,
+        BiConsumer<T, T> onAdded) {
+        int bound = labels.size();
+        vertexTable.ensureCapacity(bound);
+        ensureCapacity(bound);
+        for (int id = 0; id < bound; id++) {
+            T label = labels.get(id);
+            if (label == null) {
+                vertexTable.add(null);
+                freeIds.set(id);
+                continue;
+            }
+            vertexTable.add(new VertexView(label, id));
+            adjacency[id] = new AdjacencyList();
+            ids.put(label, id);
+        }
+        IntStream.range(0, bound).parallel().forEach(id -> {
+            AdjacencyList out = adjacency[id];
+            if (out == null) {
+                return;
+            }
+            int from = offsets.get(id);
+            int to = offsets.get(id + 1);
+            out.ensureCapacity(to - from);
+            for (int e = from; e < to; e++) {
+                int endId = targets.get(e);
+                out.add(endId, 0);
+                if (onAdded != null) {
+                    onAdded.accept(labelOf(id), labelOf(endId));
+                }
+            }
+        });
+        int edges = offsets.get(bound);
+        for (int e = 0; e < edges; e++) {
+            inDegree[targets.get(e)]++;
+        }
+        edgeCount.set(edges);
+        components.rebuild();
+        additionEpoch.incrementAndGet();
+    }
+
+
+    /**
+     * - Returns the number of changes that added edges so far.
+     * O(1)
+     * 
+     * @return long the addition epoch
+     */
+    long getAdditionEpoch() {
+        return additionEpoch.get();
+    }
+
+
+    /**
+     * - Returns the number of changes that removed edges or vertices so far.
+     * O(1)
+     * 
+     * @return long the removal epoch
+     */
+    long getRemovalEpoch() {
+        return removalEpoch.get();
+    }
+
+
+    /**
+     * - Returns the dense id of the given vertex label, or -1 if the label is
+     * not in this graph.
+     * O(1)
+     * 
+     * @param vertexLabel
+     *            vertex label
+     * @return int id or -1
+     */
+    int idOf(T vertexLabel) {
+        if (vertexLabel == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertexLabel);
+        return (id == null) ? -1 : id;
+    }
+
+
+    /**
+     * - Returns the label of the vertex with the given id.
+     * O(1)
+     * 
+     * @param id
+     *            live vertex id
+     * @return vertex label
+     */
+    T labelOf(int id) {
+        return vertexTable.get(id).getLabel();
+    }
+
+
+    /**
+     * - Returns one more than the largest id handed out so far. Arrays sized
+     * to this bound can be indexed by any live vertex id.
+     * O(1)
+     * 
+     * @return id bound
+     */
+    int idBound() {
+        return vertexTable.size();
+    }
+
+
+    /**
+     * - Returns the outgoing edges of the vertex with the given id, or null if
+     * the id is not live.
+     * O(1)
+     * 
+     * @param id
+     *            vertex id
+     * @return adjacency list of id
+     */
+    AdjacencyList adjacencyOf(int id) {
+        return adjacency[id];
+    }
+
+
+    /**
+     * - Walks the neighbors of the neighbors of originId once, counting how
+     * many neighbors each second neighbor shares with originId.
+     */
+    private SecondNeighbors collectSecondNeighbors(int originId) {
+        SecondNeighbors second = new SecondNeighbors();
+        if (originId < 0) {
+            return second;
+        }
+        AdjacencyList first = adjacency[originId];
+        for (int i = 0; i < first.size(); i++) {
+            AdjacencyList next = adjacency[first.target(i)];
+            for (int j = 0; j < next.size(); j++) {
+                int candidate = next.target(j);
+                if (candidate != originId && !first.contains(candidate)) {
+                    second.count(candidate);
+                }
+            }
+        }
+        return second;
+    }
+
+
+    private static void siftUp(int[] heap, int index, SecondNeighbors second) {
+        int child = index;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (!second.ranksAbove(heap[parent], heap[child])) {
+                return;
+            }
+            int swap = heap[parent];
+            heap[parent] = heap[child];
+            heap[child] = swap;
+            child = parent;
+        }
+    }
+
+
+    private static void siftDown(
+        int[] heap,
+        int heapSize,
+        SecondNeighbors second) {
+        int parent = 0;
+        while (2 * parent + 1 < heapSize) {
+            int child = 2 * parent + 1;
+            if (child + 1 < heapSize && second.ranksAbove(heap[child],
+                heap[child + 1])) {
+                child++;
+            }
+            if (!second.ranksAbove(heap[parent], heap[child])) {
+                return;
+            }
+            int swap = heap[parent];
+            heap[parent] = heap[child];
+            heap[child] = swap;
+            parent = child;
+        }
+    }
+
+
+    /**
+     * - Returns the pool of traversal contexts for queries on this graph.
+     * O(1)
+     * 
+     * @return the traversal context pool
+     */
+    TraversalContext.Pool traversalPool() {
+        return traversalPool;
+    }
+
+
+    /**
+     * - ids of the vertices within k edges of originId, one array per hop
+     * distance. Visited ids go in a hash set instead of an id-indexed
+     * context so memory follows the neighborhood, not the graph.
+     */
+    private int[][] hopLevels(int originId, int k) {
+        if (originId < 0 || k < 0) {
+            return new int[0][];
+        }
+        List<int[]> levels = new ArrayList<int[]>();
+        IntIntHashMap visited = new IntIntHashMap();
+        visited.put(originId, 0);
+        int[] frontier = { originId };
+        levels.add(frontier);
+        for (int depth = 1; depth <= k && frontier.length > 0; depth++) {
+            int[] next = new int[Math.max(frontier.length, 16)];
+            int size = 0;
+            for (int id : frontier) {
+                AdjacencyList neighbors = adjacency[id];
+                for (int i = 0; i < neighbors.size(); i++) {
+                    int neighbor = neighbors.target(i);
+                    if (!visited.containsKey(neighbor)) {
+                        visited.put(neighbor, depth);
+                        if (size == next.length) {
+                            next = Arrays.copyOf(next, size * 2);
+                        }
+                        next[size++] = neighbor;
+                    }
+                }
+            }
+            frontier = Arrays.copyOf(next, size);
+            if (size > 0) {
+                levels.add(frontier);
+            }
+        }
+        return levels.toArray(new int[levels.size()][]);
+    }
+
+
+    /**
+     * - ids along a shortest path from originId to endId, origin first, or
+     * null if there is none. Based on the lecture getShortestPath algorithm.
+     */
+    private int[] breadthFirstPath(int originId, int endId) {
+        TraversalContext context = traversalPool.acquire(vertexTable.size());
+        boolean done = originId == endId;
+        // visit the origin and add it to vertexQueue
+        context.visit(originId);
+        context.enqueue(originId);
+        // Outer loop
+        while (!done && context.hasQueued()) {
+            // dequeue the front vertex
+            int frontId = context.dequeue();
+            int frontCost = context.getCost(frontId);
+            AdjacencyList neighbors = adjacency[frontId];
+            for (int i = 0; !done && i < neighbors.size(); i++) {
+                int nextNeighbor = neighbors.target(i);
+                // if next neighbor is not visited
+                if (!context.isVisited(nextNeighbor)) {
+                    // mark it, one edge further than frontVertex
+                    context.visit(nextNeighbor, frontId, frontCost + 1);
+                    context.enqueue(nextNeighbor);
+                    done = nextNeighbor == endId;
+                }
+            }
+        }
+
+        int[] found = null;
+        if (context.isVisited(endId)) {
+            // traversal ends - construct shortest path
+            found = new int[context.getCost(endId) + 1];
+            for (int id = endId; id >= 0; id = context.getPredecessor(id)) {
+                found[context.getCost(id)] = id;
+            }
+        }
+        traversalPool.release(context);
+        return found;
+    }
+
+
+    /**
+     * - pushes the labels of ids onto path, last first so the origin ends up
+     * on top, and returns the number of edges, or the maximum integer if ids
+     * is null.
+     */
+    private int pushPath(int[] ids, Stack<T> path) {
+        if (ids == null) {
+            return Integer.MAX_VALUE;
+        }
+        for (int i = ids.length - 1; i >= 0; i--) {
+            path.push(labelOf(ids[i]));
+        }
+        return ids.length - 1;
+    }
+
+
+    /**
+     * - Adds the packed, sorted edges in [from, to) and marks the ones that
+     * were already present with -1.
+     */
+    private void fillEdges(
+        long[] edges,
+        int from,
+        int to,
+        BiConsumer<T, T> onAdded) {
+        int runStart = from;
+        while (runStart < to) {
+            int beginId = (int)(edges[runStart] >>> 32);
+            int runEnd = runStart;
+            while (runEnd < to && (int)(edges[runEnd] >>> 32) == beginId) {
+                runEnd++;
+            }
+            AdjacencyList out = adjacency[beginId];
+            out.ensureCapacity(out.size() + runEnd - runStart);
+            for (int i = runStart; i < runEnd; i++) {
+                int endId = (int)edges[i];
+                if (out.contains(endId)) {
+                    edges[i] = -1;
+                    continue;
+                }
+                out.add(endId, 0);
+                if (onAdded != null) {
+                    onAdded.accept(labelOf(beginId), labelOf(endId));
+                }
+            }
+            runStart = runEnd;
+        }
+    }
+
+
+    /**
+     * - Removes the edge between two vertex ids from the id adjacency, leaving
+     * edgeCount to the caller.
+     * O(1) expected
+     */
+    private boolean detachEdge(int beginId, int endId) {
+        if (!adjacency[beginId].remove(endId)) {
+            return false;
+        }
+        inDegree[endId]--;
+        return true;
+    }
+
+
+    private void ensureCapacity(int bound) {
+        if (bound > adjacency.length) {
+            int grown = Math.max(bound, adjacency.length * 2);
+            adjacency = Arrays.copyOf(adjacency, grown);
+            inDegree = Arrays.copyOf(inDegree, grown);
+        }
+    }
+
+
+    protected void resetVertices() {
+        for (VertexInterface<T> nextVertex : vertexTable) {
+            if (nextVertex != null) {
+                nextVertex.unvisit();
+                nextVertex.setCost(0);
+                nextVertex.setPredecessor(null);
+            }
+        }
+    }
+
+
+    /**
+     * VertexInterface view of one vertex id. Neighbors are read from the
+     * vertex's AdjacencyList and connect and disconnect change the graph, so
+     * edges are never stored twice. Only the traversal marks (visited, cost,
+     * predecessor) live in the view. A removed vertex's view is detached and
+     * has no neighbors.
+     */
+    private class VertexView implements VertexInterface<T> {
+        private final T label;
+        private int id;
+        private boolean visited;
+        private VertexInterface<T> previousVertex;
+        private double cost;
+
+        private VertexView(T label, int id) {
+            this.label = label;
+            this.id = id;
+        }
+
+
+        @Override
+        public T getLabel() {
+            return label;
+        }
+
+
+        @Override
+        public int getNumberOfNeighbors() {
+            return (id < 0) ? 0 : adjacency[id].size();
+        }
+
+
+        @Override
+        public void visit() {
+            visited = true;
+        }
+
+
+        @Override
+        public void unvisit() {
+            visited = false;
+        }
+
+
+        @Override
+        public boolean isVisited() {
+            return visited;
+        }
+
+
+        @Override
+        public boolean connect(
+            VertexInterface<T> endVertex,
+            double edgeWeight) {
+            return id >= 0 && endVertex != null && addEdge(label, endVertex
+                .getLabel(), edgeWeight);
+        }
+
+
+        @Override
+        public boolean connect(VertexInterface<T> endVertex) {
+            return connect(endVertex, 0);
+        }
+
+
+        @Override
+        public boolean disconnect(
+            VertexInterface<T> endVertex,
+            double edgeWeight) {
+            return id >= 0 && endVertex != null && removeEdge(label, endVertex
+                .getLabel(), edgeWeight);
+        }
+
+
+        @Override
+        public boolean disconnect(VertexInterface<T> endVertex) {
+            return disconnect(endVertex, 0);
+        }
+
+
+        @Override
+        public Iterator<VertexInterface<T>> getNeighborIterator() {
+            AdjacencyList out = (id < 0) ? null : adjacency[id];
+            return new Iterator<VertexInterface<T>>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return out != null && next < out.size();
+                }
+
+
+                @Override
+                public VertexInterface<T> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return vertexTable.get(out.target(next++));
+                }
+            };
+        }
+
+
+        @Override
+        public boolean hasNeighbor() {
+            return getNumberOfNeighbors() > 0;
+        }
+
+
+        @Override
+        public VertexInterface<T> getUnvisitedNeighbor() {
+            Iterator<VertexInterface<T>> neighbors = getNeighborIterator();
+            while (neighbors.hasNext()) {
+                VertexInterface<T> nextNeighbor = neighbors.next();
+                if (!nextNeighbor.isVisited()) {
+                    return nextNeighbor;
+                }
+            }
+            return null;
+        }
+
+
+        @Override
+        public void setPredecessor(VertexInterface<T> predecessor) {
+            previousVertex = predecessor;
+        }
+
+
+        @Override
+        public VertexInterface<T> getPredecessor() {
+            return previousVertex;
+        }
+
+
+        @Override
+        public boolean hasPredecessor() {
+            return previousVertex != null;
+        }
+
+
+        @Override
+        public void setCost(double newCost) {
+            cost = newCost;
+        }
+
+
+        @Override
+        public double getCost() {
+            return cost;
+        }
+
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            return label.equals(((VertexInterface<?>)other).getLabel());
+        }
+
+
+        @Override
+        public int hashCode() {
+            return label.hashCode();
+        }
+    }
+
+
+    /**
+     * Lazy breadth-first traversal over a pooled TraversalContext. The
+     * neighbors of a vertex are queued when the vertex is returned.
+     */
+    private class BreadthFirstIterator implements Iterator<T> {
+        private final int maxDepth;
+        private TraversalContext context;
+
+        private BreadthFirstIterator(int originId, int maxDepth) {
+            this.maxDepth = maxDepth;
+            if (originId >= 0 && maxDepth >= 0) {
+                context = traversalPool.acquire(vertexTable.size());
+                context.visit(originId);
+                context.enqueue(originId);
+            }
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            if (context != null && !context.hasQueued()) {
+                release();
+            }
+            return context != null;
+        }
+
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int frontId = context.dequeue();
+            int frontCost = context.getCost(frontId);
+            if (frontCost < maxDepth) {
+                AdjacencyList neighbors = adjacency[frontId];
+                for (int i = 0; i < neighbors.size(); i++) {
+                    int nextNeighbor = neighbors.target(i);
+                    if (!context.isVisited(nextNeighbor)) {
+                        context.visit(nextNeighbor, frontId, frontCost + 1);
+                        context.enqueue(nextNeighbor);
+                    }
+                }
+            }
+            return labelOf(frontId);
+        }
+
+
+        private void release() {
+            if (context != null) {
+                traversalPool.release(context);
+                context = null;
+            }
+        }
+    }
+
+
+    /**
+     * - a CsrGraph snapshot with the epochs and vertex count it was taken
+     * at. Adding a vertex bumps neither epoch but always changes the count,
+     * unless a removal, which does bump one, took a vertex away.
+     */
+    private static final class Frozen<T> {
+        final CsrGraph<T> graph;
+        final long additions;
+        final long removals;
+        final int vertices;
+
+        Frozen(CsrGraph<T> graph, long additions, long removals, int vertices) {
+            this.graph = graph;
+            this.additions = additions;
+            this.removals = removals;
+            this.vertices = vertices;
+        }
+    }
+
+
+    /**
+     * Second neighbors of one vertex in discovery order, with the number of
+     * shared neighbors of each.
+     */
+    private static class SecondNeighbors {
+        private int[] order = new int[16];
+        private int size = 0;
+        private IntIntHashMap positions = new IntIntHashMap();
+        private int[] counts = new int[16];
+
+        private void count(int id) {
+            int position = positions.get(id, -1);
+            if (position >= 0) {
+                counts[position]++;
+                return;
+            }
+            if (size == order.length) {
+                order = Arrays.copyOf(order, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            positions.put(id, size);
+            order[size] = id;
+            counts[size] = 1;
+            size++;
+        }
+
+
+        /**
+         * true if the candidate at position a ranks above the one at b: more
+         * shared neighbors, or as many and discovered earlier.
+         */
+        private boolean ranksAbove(int a, int b) {
+            return counts[a] > counts[b] || (counts[a] == counts[b] && a < b);
         }
     }
 }
@@ -0,0 +1,203 @@
+import java.util.Arrays;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Binary min-heap of vertex ids keyed by primitive double
+ *          priorities, with decrease-key. Each id keeps its heap position, so
+ *          lowering a key is O(log n) without searching. Like
+ *          TraversalContext it is stamped with an epoch, so clear() is O(1).
+ *
+ */
+public class IndexedMinHeap {
+
+    private int[] heap;
+    private int[] positions;
+    private double[] keys;
+    private int[] stamps;
+    private int epoch;
+    private int size;
+
+    /**
+     * - initializes an empty heap for ids below bound.
+     *
+     * @param bound
+     *            one more than the largest vertex id
+     */
+    public IndexedMinHeap(int bound) {
+        int capacity = Math.max(bound, 1);
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        stamps = new int[capacity];
+        epoch = 1;
+        size = 0;
+    }
+
+
+    /**
+     * - Empties the heap and forgets every id, growing it to hold ids below
+     * bound.
+     * O(1) amortized
+     *
+     * @param bound
+     *            one more than the largest vertex id
+     */
+    public void clear(int bound) {
+        if (bound > stamps.length) {
+            int grown = Math.max(bound, stamps.length * 2);
+            heap = new int[grown];
+            positions = new int[grown];
+            keys = new double[grown];
+            stamps = Arrays.copyOf(stamps, grown);
+        }
+        epoch++;
+        if (epoch == 0) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        size = 0;
+    }
+
+
+    /**
+     * - Returns true if there are no queued ids.
+     * O(1)
+     *
+     * @return boolean true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /**
+     * - Returns true if id was offered since the last clear, whether it is
+     * still queued or was already polled.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     * @return boolean true if seen
+     */
+    public boolean isSeen(int id) {
+        return stamps[id] == epoch;
+    }
+
+
+    /**
+     * - Returns true if id was polled since the last clear.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     * @return boolean true if polled
+     */
+    public boolean isPolled(int id) {
+        return isSeen(id) && positions[id] < 0;
+    }
+
+
+    /**
+     * - Returns the current key of a seen id.
+     * O(1)
+     *
+     * @param id
+     *            seen vertex id
+     * @return key
+     */
+    public double getKey(int id) {
+        return keys[id];
+    }
+
+
+    /**
+     * - Queues id with the given key, or lowers its key if it is queued with
+     * a larger one. Returns true if the heap changed. Polled ids are left
+     * alone.
+     * O(log n)
+     *
+     * @param id
+     *            vertex id
+     * @param key
+     *            priority, smaller comes out first
+     * @return boolean true if id was inserted or its key lowered
+     */
+    public boolean offer(int id, double key) {
+        if (!isSeen(id)) {
+            stamps[id] = epoch;
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (positions[id] >= 0 && key < keys[id]) {
+            keys[id] = key;
+            siftUp(positions[id]);
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * - Removes and returns the queued id with the smallest key.
+     * O(log n)
+     *
+     * @return vertex id
+     */
+    public int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        double key = keys[id];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            positions[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        double key = keys[id];
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            positions[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
@@ -0,0 +1,273 @@
+import java.util.Arrays;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Open-addressing hash map from non-negative int keys (vertex ids)
+ *          to int values. Uses linear probing with backward-shift deletion,
+ *          so there are no tombstones and no boxing. Keys and values are
+ *          interleaved in one table that is replaced as a whole when it
+ *          grows, so a reader racing with a single writer never indexes out
+ *          of bounds; it may see a stale or missing entry, which callers
+ *          such as AdjacencyList detect with a version check.
+ *
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private volatile int[] table;
+    private int size;
+
+    /**
+     * - initializes an empty map.
+     */
+    public IntIntHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+
+    /**
+     * - initializes an empty map that can hold expectedSize entries before
+     * growing.
+     *
+     * @param expectedSize
+     *            expected number of entries
+     */
+    public IntIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        table = emptyTable(capacity);
+    }
+
+
+    /**
+     * - Returns the number of entries.
+     * O(1)
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * - Returns true if there are no entries.
+     * O(1)
+     *
+     * @return boolean true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /**
+     * - Returns true if key has a value.
+     * O(1) expected
+     *
+     * @param key
+     *            non-negative key
+     * @return boolean true if present
+     */
+    public boolean containsKey(int key) {
+        int[] t = table;
+        return t[slotOf(t, key)] == key;
+    }
+
+
+    /**
+     * - Returns the value of key, or missingValue if there is none.
+     * O(1) expected
+     *
+     * @param key
+     *            non-negative key
+     * @param missingValue
+     *            value to return when key is absent
+     * @return value of key
+     */
+    public int get(int key, int missingValue) {
+        int[] t = table;
+        int slot = slotOf(t, key);
+        return (t[slot] == key) ? t[slot + 1] : missingValue;
+    }
+
+
+    /**
+     * - Sets the value of key.
+     * O(1) expected
+     *
+     * @param key
+     *            non-negative key
+     * @param value
+     *            new value
+     */
+    public void put(int key, int value) {
+        int[] t = table;
+        int slot = slotOf(t, key);
+        t[slot + 1] = value;
+        if (t[slot] != key) {
+            t[slot] = key;
+            if (++size * 4 > t.length) {
+                rehash(t.length);
+            }
+        }
+    }
+
+
+    /**
+     * - Adds delta to the value of key, treating an absent key as 0, and
+     * returns the new value.
+     * O(1) expected
+     *
+     * @param key
+     *            non-negative key
+     * @param delta
+     *            amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int[] t = table;
+        int slot = slotOf(t, key);
+        if (t[slot] == key) {
+            t[slot + 1] += delta;
+            return t[slot + 1];
+        }
+        put(key, delta);
+        return delta;
+    }
+
+
+    /**
+     * - Removes key and returns its value, or missingValue if it was absent.
+     * O(1) expected
+     *
+     * @param key
+     *            non-negative key
+     * @param missingValue
+     *            value to return when key is absent
+     * @return the removed value
+     */
+    public int remove(int key, int missingValue) {
+        int[] t = table;
+        int mask = t.length - 2;
+        int slot = slotOf(t, key);
+        if (t[slot] != key) {
+            return missingValue;
+        }
+        int removed = t[slot + 1];
+        // shift later members of the probe run back into the hole
+        int hole = slot;
+        int next = (hole + 2) & mask;
+        while (t[next] != EMPTY) {
+            int home = homeOf(t, t[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                t[hole + 1] = t[next + 1];
+                t[hole] = t[next];
+                hole = next;
+            }
+            next = (next + 2) & mask;
+        }
+        t[hole] = EMPTY;
+        size--;
+        return removed;
+    }
+
+
+    /**
+     * - Removes every entry.
+     * O(capacity)
+     */
+    public void clear() {
+        table = emptyTable(table.length / 2);
+        size = 0;
+    }
+
+
+    /**
+     * - Returns the number of slots. Entries are found by walking slots 0 ..
+     * capacity() - 1 and skipping the ones where keyAt returns -1.
+     * O(1)
+     *
+     * @return number of slots
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+
+    /**
+     * - Returns the key stored in slot, or -1 if the slot is empty.
+     * O(1)
+     *
+     * @param slot
+     *            0 <= slot < capacity()
+     * @return key or -1
+     */
+    public int keyAt(int slot) {
+        return table[2 * slot];
+    }
+
+
+    /**
+     * - Returns the value stored in slot.
+     * O(1)
+     *
+     * @param slot
+     *            0 <= slot < capacity() with keyAt(slot) != -1
+     * @return value
+     */
+    public int valueAt(int slot) {
+        return table[2 * slot + 1];
+    }
+
+
+    /**
+     * - index of the key cell where key is or would go; values sit one cell
+     * after their key.
+     */
+    private static int slotOf(int[] t, int key) {
+        int mask = t.length - 2;
+        int slot = homeOf(t, key);
+        while (t[slot] != EMPTY && t[slot] != key) {
+            slot = (slot + 2) & mask;
+        }
+        return slot;
+    }
+
+
+    private static int homeOf(int[] t, int key) {
+        int h = key * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) << 1) & (t.length - 2);
+    }
+
+
+    private static int[] emptyTable(int capacity) {
+        int[] t = new int[capacity * 2];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        int[] t = emptyTable(capacity);
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != EMPTY) {
+                int slot = slotOf(t, old[i]);
+                t[slot] = old[i];
+                t[slot + 1] = old[i + 1];
+            }
+        }
+        table = t;
+    }
+}
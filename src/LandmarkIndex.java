@@ -0,0 +1,620 @@
+import java.util.Arrays;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            Landmark (ALT) distance index over an undirected Graph. It
+ *            keeps the hop distance from a few high-degree landmark vertices
+ *            to every vertex. By the triangle inequality, for every landmark
+ *            L, |d(L,a) - d(L,b)| <= d(a,b) <= d(L,a) + d(L,b), which gives
+ *            instant bounds for a distance query and an admissible A*
+ *            heuristic for exact ones.
+ *
+ *            The index assumes every edge is stored in both directions, as
+ *            VTConnect does. Edge changes are only queued, without locking,
+ *            so they cost nothing on the write path; refresh applies them
+ *            with the graph quiescent. Removals are checked first, against
+ *            the distances the index still holds: a removed edge only
+ *            matters to a landmark if its deeper end was one level below
+ *            the other and has no neighbor left at that level, and only
+ *            then is the landmark marked stale, to be rebuilt. Insertions
+ *            still in the graph are then repaired in place. A landmark
+ *            whose vertex is removed is replaced on the next refresh.
+ *
+ *            The bounds are only valid while isCurrent is true: refresh
+ *            records the graph's change epochs, and any change since then
+ *            makes the index out of date until the next refresh.
+ *
+ */
+public class LandmarkIndex<T> {
+
+    /**
+     * Distance stored for vertices a landmark cannot reach.
+     */
+    public static final short UNREACHABLE = Short.MAX_VALUE;
+
+    private static final int PENDING_LIMIT = 4096;
+
+    private final Graph<T> graph;
+    private final int[] landmarks;
+    private final short[][] distances;
+    private final boolean[] stale;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedQueue<Long> pending =
+        new ConcurrentLinkedQueue<Long>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean invalidated;
+    private volatile long additions = -1;
+    private volatile long removals = -1;
+
+    /**
+     * - initializes the index with up to landmarkCount landmarks, picking the
+     * vertices with the most edges, and builds it.
+     * O(k(|V|+|E|)), spread across cores
+     *
+     * @param graph
+     *            graph to index
+     * @param landmarkCount
+     *            number of landmarks to keep
+     */
+    public LandmarkIndex(Graph<T> graph, int landmarkCount) {
+        this.graph = graph;
+        this.landmarks = new int[Math.max(landmarkCount, 0)];
+        this.distances = new short[landmarks.length][];
+        this.stale = new boolean[landmarks.length];
+        Arrays.fill(landmarks, -1);
+        Arrays.fill(stale, true);
+        refresh();
+    }
+
+
+    /**
+     * - Returns the number of landmarks.
+     * O(1)
+     *
+     * @return number of landmarks
+     */
+    public int getNumberOfLandmarks() {
+        return landmarks.length;
+    }
+
+
+    /**
+     * - Applies the queued edge changes and rebuilds every stale landmark, in
+     * parallel. Landmarks whose vertex was removed are replaced by the
+     * highest-degree vertex that is not already a landmark. The graph must
+     * not change during the call.
+     * O(s(|V|+|E|)) for s stale landmarks, plus the repairs of the queued
+     * insertions
+     */
+    public void refresh() {
+        lock.writeLock().lock();
+        try {
+            if (invalidated) {
+                pending.clear();
+                Arrays.fill(stale, true);
+            }
+            else {
+                applyPending();
+            }
+            pendingCount.set(0);
+            invalidated = false;
+            if (anyStale()) {
+                rebuildStale();
+            }
+            additions = graph.getAdditionEpoch();
+            removals = graph.getRemovalEpoch();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Returns true if the graph has not changed since the last refresh, so
+     * the bounds hold. Checking again after using them tells whether they
+     * held throughout.
+     * O(1)
+     *
+     * @return boolean true if the index is up to date
+     */
+    public boolean isCurrent() {
+        return !invalidated && pendingCount.get() == 0
+            && additions == graph.getAdditionEpoch()
+            && removals == graph.getRemovalEpoch();
+    }
+
+
+    /**
+     * - Marks every landmark stale, for changes too large to repair one edge
+     * at a time. They are rebuilt on the next refresh.
+     * O(1)
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+
+    /**
+     * - Records that vertexLabel was just added to the graph. A new vertex
+     * has no edges yet, so no landmark can reach it.
+     * O(k)
+     *
+     * @param vertexLabel
+     *            added vertex
+     */
+    public void vertexAdded(T vertexLabel) {
+        int id = graph.idOf(vertexLabel);
+        if (id < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (int l = 0; l < landmarks.length; l++) {
+                if (!stale[l]) {
+                    ensureBound(l, id + 1);
+                    distances[l][id] = UNREACHABLE;
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Records that vertexLabel is about to be removed from the graph, after
+     * its edges were. A landmark on it is given up and replaced on the next
+     * refresh, so it cannot pass to a vertex that later reuses the id.
+     * O(k)
+     *
+     * @param vertexLabel
+     *            vertex being removed
+     */
+    public void vertexRemoved(T vertexLabel) {
+        int id = graph.idOf(vertexLabel);
+        if (id < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (int l = 0; l < landmarks.length; l++) {
+                if (landmarks[l] == id) {
+                    landmarks[l] = -1;
+                    stale[l] = true;
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Records that the undirected edge between a and b was just added.
+     * Distances can only shrink; refresh repairs them.
+     * O(1)
+     *
+     * @param a
+     *            one endpoint
+     * @param b
+     *            other endpoint
+     */
+    public void edgeAdded(T a, T b) {
+        enqueue(a, b, true);
+    }
+
+
+    /**
+     * - Records that the undirected edge between a and b was just removed.
+     * refresh marks a landmark stale only if the deeper end lost its last
+     * neighbor one level closer to the landmark.
+     * O(1)
+     *
+     * @param a
+     *            one endpoint
+     * @param b
+     *            other endpoint
+     */
+    public void edgeRemoved(T a, T b) {
+        enqueue(a, b, false);
+    }
+
+
+    /**
+     * - Returns a lower bound on the hop distance between a and b, 0 if
+     * nothing better is known, or the maximum integer if some landmark proves
+     * that b cannot be reached from a.
+     * O(k)
+     *
+     * @param a
+     *            one vertex
+     * @param b
+     *            other vertex
+     * @return int lower bound
+     */
+    public int lowerBound(T a, T b) {
+        return bound(a, b, false);
+    }
+
+
+    /**
+     * - Returns an upper bound on the hop distance between a and b through
+     * the best landmark, or the maximum integer if no landmark reaches both.
+     * The error is at most upperBound - lowerBound.
+     * O(k)
+     *
+     * @param a
+     *            one vertex
+     * @param b
+     *            other vertex
+     * @return int upper bound
+     */
+    public int upperBound(T a, T b) {
+        return bound(a, b, true);
+    }
+
+
+    /**
+     * - returns the exact hop distance between the origin and destination and
+     * pushes the path onto path with the origin on top, like
+     * Graph.getShortestPath. Runs A* guided by the landmark lower bounds, so
+     * the index must be current. If a path does not exist, it returns the
+     * maximum integer.
+     * O(|V| log |V| + |E|) worst case, usually far less
+     *
+     * @param origin
+     *            origin of shortest path
+     * @param destination
+     *            destination of shortest path
+     * @param path
+     *            the path
+     * @return an integer of the number of edges along the shortest path
+     */
+    public int getShortestPath(T origin, T destination, Stack<T> path) {
+        int originId = graph.idOf(origin);
+        int endId = graph.idOf(destination);
+        if ((originId < 0) || (endId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        lock.readLock().lock();
+        try {
+            if (idBound(originId, endId) == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            TraversalContext.Pool pool = graph.traversalPool();
+            TraversalContext context = pool.acquire(graph.idBound());
+            IndexedMinHeap frontier = context.emptyHeap();
+            context.visit(originId);
+            frontier.offer(originId, idBound(originId, endId));
+
+            while (!frontier.isEmpty()) {
+                int frontId = frontier.poll();
+                if (frontId == endId) {
+                    break;
+                }
+                int frontCost = context.getCost(frontId);
+                AdjacencyList neighbors = graph.adjacencyOf(frontId);
+                for (int i = 0; i < neighbors.size(); i++) {
+                    int next = neighbors.target(i);
+                    int estimate = idBound(next, endId);
+                    if (frontier.isPolled(next) || estimate == Integer.MAX_VALUE
+                        || (context.isVisited(next) && context.getCost(
+                            next) <= frontCost + 1)) {
+                        continue;
+                    }
+                    context.visit(next, frontId, frontCost + 1);
+                    frontier.offer(next, frontCost + 1 + estimate);
+                }
+            }
+            int pathLength = Integer.MAX_VALUE;
+            if (frontier.isPolled(endId)) {
+                pathLength = context.getCost(endId);
+                for (int id = endId; id >= 0; id = context.getPredecessor(
+                    id)) {
+                    path.push(graph.labelOf(id));
+                }
+            }
+            pool.release(context);
+            return pathLength;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * - queues (a << 32 | b) for an insertion and its complement for a
+     * removal; too many queued changes invalidate the index instead, as a
+     * rebuild is then cheaper than the repairs.
+     */
+    private void enqueue(T a, T b, boolean added) {
+        int aId = graph.idOf(a);
+        int bId = graph.idOf(b);
+        if (invalidated || aId < 0 || bId < 0) {
+            return;
+        }
+        long packed = ((long)aId << 32) | bId;
+        pending.add(added ? packed : ~packed);
+        if (pendingCount.incrementAndGet() > PENDING_LIMIT) {
+            invalidated = true;
+        }
+    }
+
+
+    /**
+     * - removals first, against the distances before the batch; a removal
+     * that is not tight there leaves every distance as it was. Then the
+     * insertions that are still in the graph, relaxed over the graph as it
+     * is now.
+     */
+    private void applyPending() {
+        long[] inserted = new long[pendingCount.get()];
+        int count = 0;
+        Long change;
+        while ((change = pending.poll()) != null) {
+            long packed = change;
+            if (packed < 0) {
+                removed((int)(~packed >>> 32), (int)~packed);
+            }
+            else {
+                if (count == inserted.length) {
+                    inserted = Arrays.copyOf(inserted, count * 2 + 1);
+                }
+                inserted[count++] = packed;
+            }
+        }
+        int[] queue = null;
+        for (int i = 0; i < count; i++) {
+            int aId = (int)(inserted[i] >>> 32);
+            int bId = (int)inserted[i];
+            AdjacencyList out = graph.adjacencyOf(aId);
+            if (out == null || !out.contains(bId)) {
+                continue;
+            }
+            if (queue == null) {
+                queue = new int[graph.idBound()];
+            }
+            added(aId, bId, queue);
+        }
+    }
+
+
+    private void added(int aId, int bId, int[] queue) {
+        for (int l = 0; l < landmarks.length; l++) {
+            if (stale[l]) {
+                continue;
+            }
+            ensureBound(l, graph.idBound());
+            short[] dist = distances[l];
+            int start = -1;
+            if (reach(dist[aId]) + 1 < reach(dist[bId])) {
+                start = bId;
+                dist[bId] = (short)(dist[aId] + 1);
+            }
+            else if (reach(dist[bId]) + 1 < reach(dist[aId])) {
+                start = aId;
+                dist[aId] = (short)(dist[bId] + 1);
+            }
+            if (start >= 0) {
+                relaxFrom(dist, start, queue);
+            }
+        }
+    }
+
+
+    /**
+     * - a removal leaves a landmark's distances exact if the deeper end of
+     * the edge still has a neighbor at the shallower end's level: every
+     * vertex then keeps a neighbor one level up, so no distance grows.
+     * Checked against the graph as it is after the whole batch; a parent
+     * reached through an inserted edge is still one level up.
+     */
+    private void removed(int aId, int bId) {
+        for (int l = 0; l < landmarks.length; l++) {
+            if (stale[l]) {
+                continue;
+            }
+            short[] dist = distances[l];
+            if ((aId >= dist.length) || (bId >= dist.length)) {
+                stale[l] = true;
+                continue;
+            }
+            int child = (dist[aId] > dist[bId]) ? aId : bId;
+            int parent = (child == aId) ? bId : aId;
+            if (dist[parent] != UNREACHABLE
+                && dist[child] == dist[parent] + 1
+                && !hasNeighborAt(child, dist[parent], dist)) {
+                stale[l] = true;
+            }
+        }
+    }
+
+
+    private boolean hasNeighborAt(int id, short level, short[] dist) {
+        AdjacencyList neighbors = graph.adjacencyOf(id);
+        if (neighbors == null) {
+            return false;
+        }
+        for (int i = 0; i < neighbors.size(); i++) {
+            int next = neighbors.target(i);
+            if (next < dist.length && dist[next] == level) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private int bound(T a, T b, boolean upper) {
+        int aId = graph.idOf(a);
+        int bId = graph.idOf(b);
+        if ((aId < 0) || (bId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        lock.readLock().lock();
+        try {
+            return upper ? idUpperBound(aId, bId) : idBound(aId, bId);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Landmark lower bound between two ids; MAX_VALUE if they are proven to
+     * be in different components.
+     */
+    private int idBound(int aId, int bId) {
+        int best = 0;
+        for (int l = 0; l < landmarks.length; l++) {
+            if (stale[l] || aId >= distances[l].length
+                || bId >= distances[l].length) {
+                continue;
+            }
+            short da = distances[l][aId];
+            short db = distances[l][bId];
+            if ((da == UNREACHABLE) != (db == UNREACHABLE)) {
+                return Integer.MAX_VALUE;
+            }
+            if (da != UNREACHABLE) {
+                best = Math.max(best, Math.abs(da - db));
+            }
+        }
+        return best;
+    }
+
+
+    private int idUpperBound(int aId, int bId) {
+        int best = Integer.MAX_VALUE;
+        for (int l = 0; l < landmarks.length; l++) {
+            if (stale[l] || aId >= distances[l].length
+                || bId >= distances[l].length) {
+                continue;
+            }
+            short da = distances[l][aId];
+            short db = distances[l][bId];
+            if (da != UNREACHABLE && db != UNREACHABLE) {
+                best = Math.min(best, da + db);
+            }
+        }
+        return (aId == bId) ? 0 : best;
+    }
+
+
+    private boolean anyStale() {
+        for (boolean isStale : stale) {
+            if (isStale) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private void rebuildStale() {
+        for (int l = 0; l < landmarks.length; l++) {
+            if (stale[l] && (landmarks[l] < 0 || graph.adjacencyOf(
+                landmarks[l]) == null)) {
+                landmarks[l] = pickLandmark();
+            }
+        }
+        IntStream.range(0, landmarks.length).parallel().filter(l -> stale[l])
+            .forEach(l -> distances[l] = breadthFirstDistances(landmarks[l]));
+        Arrays.fill(stale, false);
+    }
+
+
+    /**
+     * - the live vertex with the most edges that is not a landmark yet, or -1.
+     */
+    private int pickLandmark() {
+        int best = -1;
+        int bestDegree = -1;
+        for (int id = 0; id < graph.idBound(); id++) {
+            AdjacencyList out = graph.adjacencyOf(id);
+            if (out != null && out.size() > bestDegree && !isLandmark(id)) {
+                best = id;
+                bestDegree = out.size();
+            }
+        }
+        return best;
+    }
+
+
+    private boolean isLandmark(int id) {
+        for (int landmark : landmarks) {
+            if (landmark == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private short[] breadthFirstDistances(int source) {
+        short[] dist = new short[graph.idBound()];
+        Arrays.fill(dist, UNREACHABLE);
+        if (source < 0) {
+            return dist;
+        }
+        int[] queue = new int[dist.length];
+        dist[source] = 0;
+        queue[0] = source;
+        relaxFrom(dist, source, queue);
+        return dist;
+    }
+
+
+    /**
+     * - Breadth-first pass from start that lowers every distance it can
+     * improve through start. dist[start] must already be final.
+     */
+    private void relaxFrom(short[] dist, int start, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int frontId = queue[head++];
+            int nextDistance = Math.min(dist[frontId] + 1, UNREACHABLE - 1);
+            AdjacencyList neighbors = graph.adjacencyOf(frontId);
+            for (int i = 0; i < neighbors.size(); i++) {
+                int next = neighbors.target(i);
+                if (dist[next] > nextDistance) {
+                    dist[next] = (short)nextDistance;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+
+    private void ensureBound(int l, int bound) {
+        if (distances[l].length < bound) {
+            int old = distances[l].length;
+            distances[l] = Arrays.copyOf(distances[l], bound);
+            Arrays.fill(distances[l], old, bound, UNREACHABLE);
+        }
+    }
+
+
+    private static int reach(short distance) {
+        return (distance == UNREACHABLE) ? Integer.MAX_VALUE - 1 : distance;
+    }
+}
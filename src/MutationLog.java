@@ -0,0 +1,484 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Append-only write-ahead log of VTConnect mutations. Users are
+ *          named by their graph id, which replay reproduces because ids are
+ *          handed out smallest first. Every record is little-endian: payload
+ *          length, CRC32 of the rest, sequence number, type, payload. A torn
+ *          or corrupt tail left by a crash fails its length or checksum and
+ *          is cut off on replay.
+ *
+ *          Appends only copy the record into a memory buffer. Durability uses
+ *          group commit: a thread waiting for its record becomes the leader
+ *          if no flush is running, writes everything appended so far and
+ *          forces it to disk once, and wakes every thread whose record that
+ *          covered. Many concurrent mutations therefore share one fsync.
+ *
+ */
+public class MutationLog implements Closeable {
+
+    /**
+     * Record type of an added user: id, name, status.
+     */
+    public static final byte ADD_USER = 1;
+    /**
+     * Record type of a removed user: id.
+     */
+    public static final byte REMOVE_USER = 2;
+    /**
+     * Record type of a created friendship: id, other id.
+     */
+    public static final byte CREATE_FRIENDSHIP = 3;
+    /**
+     * Record type of a removed friendship: id, other id.
+     */
+    public static final byte REMOVE_FRIENDSHIP = 4;
+    /**
+     * Record type of a changed name or status: id, name, status.
+     */
+    public static final byte SET_PROFILE = 5;
+
+    private static final int FRAME_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private byte[] pending = new byte[4096];
+    private int pendingBytes;
+    private byte[] spare = new byte[4096];
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private IOException failure;
+
+    /**
+     * - Opens file for appending. Sequence numbers continue after
+     * lastSequence. The file should have been replayed first so a torn tail
+     * is already cut off.
+     *
+     * @param file
+     *            log file, created if missing
+     * @param lastSequence
+     *            sequence number of the last record already applied
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    public MutationLog(Path file, long lastSequence) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.appendedSequence = lastSequence;
+        this.durableSequence = lastSequence;
+    }
+
+
+    /**
+     * - Reads every intact record of file with a sequence number above
+     * afterSequence, in order, and passes it to apply. The file is
+     * truncated after the last intact record. Returns the sequence number of
+     * the last record read, or afterSequence if there was none.
+     * O(file size)
+     *
+     * @param file
+     *            log file; a missing file is an empty log
+     * @param afterSequence
+     *            records up to this sequence number are skipped
+     * @param apply
+     *            called with each record
+     * @return long last sequence number
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static long replay(
+        Path file,
+        long afterSequence,
+        Consumer<Record> apply)
+        throws IOException {
+        if (!Files.exists(file)) {
+            return afterSequence;
+        }
+        long last = afterSequence;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES).order(
+                ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            while (position + FRAME_BYTES <= size) {
+                frame.clear();
+                readFully(in, frame, position);
+                int length = frame.getInt(0);
+                if (length < 9 || length > MAX_RECORD_BYTES || position
+                    + FRAME_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length).order(
+                    ByteOrder.LITTLE_ENDIAN);
+                readFully(in, body, position + FRAME_BYTES);
+                body.flip();
+                crc.reset();
+                crc.update(body.array(), 0, length);
+                if ((int)crc.getValue() != frame.getInt(4)) {
+                    break;
+                }
+                Record record = Record.decode(body);
+                if (record.getSequence() > last) {
+                    apply.accept(record);
+                    last = record.getSequence();
+                }
+                position += FRAME_BYTES + length;
+            }
+            if (position < size) {
+                in.truncate(position);
+                in.force(true);
+            }
+        }
+        return last;
+    }
+
+
+    /**
+     * - Appends a record and returns its sequence number. The record is not
+     * durable until awaitDurable returns for that number.
+     * O(record size)
+     *
+     * @param type
+     *            record type
+     * @param id
+     *            user id
+     * @param otherId
+     *            other user id, or -1 if the type has none
+     * @param name
+     *            name, for ADD_USER and SET_PROFILE
+     * @param status
+     *            status, for ADD_USER and SET_PROFILE
+     * @return long sequence number
+     */
+    public long append(
+        byte type,
+        int id,
+        int otherId,
+        String name,
+        String status) {
+        byte[] record = new Record(0, type, id, otherId, name, status)
+            .encode();
+        ByteBuffer view = ByteBuffer.wrap(record).order(
+            ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        lock.lock();
+        try {
+            long sequence = ++appendedSequence;
+            view.putLong(FRAME_BYTES, sequence);
+            crc.update(record, FRAME_BYTES, record.length - FRAME_BYTES);
+            view.putInt(4, (int)crc.getValue());
+            if (pendingBytes + record.length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2,
+                    pendingBytes + record.length));
+            }
+            System.arraycopy(record, 0, pending, pendingBytes, record.length);
+            pendingBytes += record.length;
+            return sequence;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * - Returns the sequence number of the last appended record.
+     * O(1)
+     *
+     * @return sequence number
+     */
+    public long getSequence() {
+        lock.lock();
+        try {
+            return appendedSequence;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * - Waits until the record with the given sequence number, and every
+     * record before it, is on disk. The calling thread may do the flush for
+     * itself and every other waiting thread.
+     * O(bytes flushed)
+     *
+     * @param sequence
+     *            sequence number from append
+     * @throws UncheckedIOException
+     *             if the log could not be written
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                byte[] batch = pending;
+                int batchBytes = pendingBytes;
+                long batchSequence = appendedSequence;
+                pending = spare;
+                pendingBytes = 0;
+                lock.unlock();
+                IOException error = null;
+                try {
+                    ByteBuffer out = ByteBuffer.wrap(batch, 0, batchBytes);
+                    while (out.hasRemaining()) {
+                        channel.write(out);
+                    }
+                    channel.force(false);
+                }
+                catch (IOException e) {
+                    error = e;
+                }
+                lock.lock();
+                spare = batch;
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                }
+                else {
+                    durableSequence = batchSequence;
+                }
+                flushed.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * - Waits until every appended record is on disk.
+     * O(bytes flushed)
+     */
+    public void sync() {
+        awaitDurable(getSequence());
+    }
+
+
+    /**
+     * - Drops every record, after a snapshot has taken them in. Sequence
+     * numbers keep counting from where they were. Nothing may be appended
+     * during the call.
+     * O(1)
+     *
+     * @throws IOException
+     *             if the file cannot be truncated
+     */
+    public void truncate() throws IOException {
+        sync();
+        lock.lock();
+        try {
+            channel.truncate(0);
+            channel.force(true);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * - Flushes every appended record and closes the file.
+     *
+     * @throws IOException
+     *             if the last records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        }
+        catch (UncheckedIOException e) {
+            channel.close();
+            throw e.getCause();
+        }
+        channel.close();
+    }
+
+
+    private static void readFully(
+        FileChannel in,
+        ByteBuffer buffer,
+        long position)
+        throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of log");
+            }
+        }
+    }
+
+
+    /**
+     * @author Adam Schneider
+     * @version 2026-10-17
+     *
+     *          One logged mutation.
+     */
+    public static class Record {
+        private final long sequence;
+        private final byte type;
+        private final int id;
+        private final int otherId;
+        private final String name;
+        private final String status;
+
+        private Record(
+            long sequence,
+            byte type,
+            int id,
+            int otherId,
+            String name,
+            String status) {
+            this.sequence = sequence;
+            this.type = type;
+            this.id = id;
+            this.otherId = otherId;
+            this.name = name;
+            this.status = status;
+        }
+
+
+        /**
+         * @return the sequence number
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+
+        /**
+         * @return the record type
+         */
+        public byte getType() {
+            return type;
+        }
+
+
+        /**
+         * @return the user id
+         */
+        public int getId() {
+            return id;
+        }
+
+
+        /**
+         * @return the other user id, -1 if the type has none
+         */
+        public int getOtherId() {
+            return otherId;
+        }
+
+
+        /**
+         * @return the name, for ADD_USER and SET_PROFILE
+         */
+        public String getName() {
+            return name;
+        }
+
+
+        /**
+         * @return the status, for ADD_USER and SET_PROFILE
+         */
+        public String getStatus() {
+            return status;
+        }
+
+
+        /**
+         * - frame and body of the record, with the checksum left for append
+         * to fill in.
+         */
+        private byte[] encode() {
+            byte[] nameBytes = (name == null)
+                ? null
+                : name.getBytes(StandardCharsets.UTF_8);
+            byte[] statusBytes = (status == null)
+                ? null
+                : status.getBytes(StandardCharsets.UTF_8);
+            int length = 8 + 1 + 4 + 4 + 4 + 4 + size(nameBytes) + size(
+                statusBytes);
+            ByteBuffer out = ByteBuffer.allocate(FRAME_BYTES + length).order(
+                ByteOrder.LITTLE_ENDIAN);
+            out.putInt(length).putInt(0).putLong(sequence).put(type).putInt(
+                id).putInt(otherId);
+            putString(out, nameBytes);
+            putString(out, statusBytes);
+            return out.array();
+        }
+
+
+        private static Record decode(ByteBuffer in) {
+            long sequence = in.getLong();
+            byte type = in.get();
+            int id = in.getInt();
+            int otherId = in.getInt();
+            String name = getString(in);
+            String status = getString(in);
+            return new Record(sequence, type, id, otherId, name, status);
+        }
+
+
+        private static int size(byte[] bytes) {
+            return (bytes == null) ? 0 : bytes.length;
+        }
+
+
+        private static void putString(ByteBuffer out, byte[] bytes) {
+            out.putInt((bytes == null) ? -1 : bytes.length);
+            if (bytes != null) {
+                out.put(bytes);
+            }
+        }
+
+
+        private static String getString(ByteBuffer in) {
+            int length = in.getInt();
+            if (length < 0) {
+                return null;
+            }
+            String text = new String(in.array(), in.arrayOffset() + in
+                .position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return text;
+        }
+    }
+}
@@ -0,0 +1,766 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Stack;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            GraphInterface implementation whose adjacency lives off the
+ *            Java heap, for graphs too large to keep as Vertex and Edge
+ *            objects. The heap only holds the label to id map; everything
+ *            else is in direct ByteBuffers addressed by int vertex id, and
+ *            traversals read that memory directly.
+ *
+ *            Each vertex has a 20-byte record in the vertex table: the
+ *            address of its edge block, its out-degree, the log2 of the
+ *            block capacity and its in-degree. An edge block is a run of
+ *            4-byte end vertex ids inside an arena chunk. Blocks come in
+ *            power-of-two sizes and double when full; freed blocks are kept
+ *            on one free list per size, linked through their own first
+ *            bytes, and reused before the arena grows. A block larger than a
+ *            chunk gets a chunk of its own, released when the block is.
+ *
+ *            Edges cost 4 bytes plus block slack instead of tens of bytes per
+ *            Edge object. Edge weights are accepted but not stored, since no
+ *            GraphInterface query reads them. Edge checks scan the begin
+ *            vertex's block, O(degree); bulk loading through addEdges avoids
+ *            a scan per edge. Ids of removed vertices are reused, smallest
+ *            first.
+ *
+ *            OffHeapGraph is not synchronized. Any number of threads may
+ *            query it while it does not change.
+ *
+ */
+public class OffHeapGraph<T> implements GraphInterface<T> {
+
+    private static final int RECORD_BYTES = 20;
+    private static final int ADDRESS = 0;
+    private static final int OUT_DEGREE = 8;
+    private static final int CAPACITY_LOG = 12;
+    private static final int IN_DEGREE = 16;
+    private static final int MIN_CAPACITY_LOG = 2;
+    private static final int MAX_CAPACITY_LOG = 28;
+    private static final int DEFAULT_CHUNK_LOG = 20;
+    private static final int DEFAULT_VERTICES = 16;
+    private static final int INDEX_THRESHOLD = 16;
+
+    private final int chunkLog;
+    private HashMap<T, Integer> ids;
+    private ArrayList<T> labels;
+    private BitSet freeIds;
+    private ByteBuffer vertexTable;
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+    private int bumpChunk;
+    private int bump;
+    private long[] freeBlocks;
+    private long edgeCount;
+    private final TraversalContext.Pool traversalPool =
+        new TraversalContext.Pool();
+
+    /**
+     * - initializes an empty graph with 4 MB arena chunks.
+     */
+    public OffHeapGraph() {
+        this(DEFAULT_CHUNK_LOG);
+    }
+
+
+    /**
+     * - initializes an empty graph whose arena grows in chunks of 2^chunkLog
+     * edges.
+     *
+     * @param chunkLog
+     *            log2 of the edges per chunk, 2 to 28
+     */
+    public OffHeapGraph(int chunkLog) {
+        if (chunkLog < MIN_CAPACITY_LOG || chunkLog > MAX_CAPACITY_LOG) {
+            throw new IllegalArgumentException("chunkLog must be between "
+                + MIN_CAPACITY_LOG + " and " + MAX_CAPACITY_LOG);
+        }
+        this.chunkLog = chunkLog;
+        clear();
+    }
+
+
+    /**
+     * Adds a given vertex to this graph. If vertexLabel is null or already
+     * in the graph, it returns false. The vertex gets no edge block until
+     * its first edge.
+     * O(1) amortized
+     *
+     * @param vertexLabel
+     *            vertex to add
+     * @return boolean if the vertex was added successfully
+     */
+    public boolean addVertex(T vertexLabel) {
+        if (vertexLabel == null || ids.containsKey(vertexLabel)) {
+            return false;
+        }
+        int id = freeIds.nextSetBit(0);
+        if (id < 0) {
+            id = labels.size();
+            labels.add(null);
+            ensureVertexCapacity(id + 1);
+        }
+        else {
+            freeIds.clear(id);
+        }
+        labels.set(id, vertexLabel);
+        int at = id * RECORD_BYTES;
+        vertexTable.putLong(at + ADDRESS, -1);
+        vertexTable.putInt(at + OUT_DEGREE, 0);
+        vertexTable.putInt(at + CAPACITY_LOG, -1);
+        vertexTable.putInt(at + IN_DEGREE, 0);
+        ids.put(vertexLabel, id);
+        return true;
+    }
+
+
+    /**
+     * - Removes a vertex with the given vertexLabel from this graph, with
+     * every edge that touches it, and returns it as a detached Vertex
+     * without edges. If vertex does not exist, it will return null.
+     * O(out-degree * degree of its neighbors), O(|E|) if some in-edges have
+     * no reverse edge
+     *
+     * @param vertexLabel
+     *            vertex to remove
+     * @return VertexInterface<T> removed vertex
+     */
+    public VertexInterface<T> removeVertex(T vertexLabel) {
+        if (vertexLabel == null) {
+            return null;
+        }
+        Integer boxedId = ids.remove(vertexLabel);
+        if (boxedId == null) {
+            return null;
+        }
+        int id = boxedId;
+        int degree = outDegree(id);
+        // drop the in-edges we can find through the out-edges first
+        for (int i = 0; i < degree && inDegree(id) > 0; i++) {
+            if (detachEdge(target(id, i), id)) {
+                edgeCount--;
+            }
+        }
+        // any remaining in-edges have no matching out-edge, scan for them
+        for (int source = 0; inDegree(id) > 0 && source < labels
+            .size(); source++) {
+            if (source != id && labels.get(source) != null && detachEdge(
+                source, id)) {
+                edgeCount--;
+            }
+        }
+        for (int i = 0; i < degree; i++) {
+            addInDegree(target(id, i), -1);
+        }
+        edgeCount -= degree;
+
+        int at = id * RECORD_BYTES;
+        int capacityLog = vertexTable.getInt(at + CAPACITY_LOG);
+        if (capacityLog >= 0) {
+            freeBlock(vertexTable.getLong(at + ADDRESS), capacityLog);
+        }
+        vertexTable.putLong(at + ADDRESS, -1);
+        vertexTable.putInt(at + OUT_DEGREE, 0);
+        vertexTable.putInt(at + CAPACITY_LOG, -1);
+        labels.set(id, null);
+        freeIds.set(id);
+        return new Vertex<T>(vertexLabel);
+    }
+
+
+    /**
+     * - Adds an edge between two given distinct vertices that are currently
+     * in this graph. The desired edge must not already be in the graph. The
+     * weight is not stored.
+     * O(out-degree of begin)
+     *
+     * @param begin
+     *            start of the edge
+     * @param end
+     *            end of the edge
+     * @param edgeWeight
+     *            weight of the edge, ignored
+     * @return boolean true edge was added
+     */
+    public boolean addEdge(T begin, T end, double edgeWeight) {
+        int beginId = idOf(begin);
+        int endId = idOf(end);
+        if ((beginId < 0) || (endId < 0) || (beginId == endId) || indexOf(
+            beginId, endId) >= 0) {
+            return false;
+        }
+        int degree = outDegree(beginId);
+        ensureEdgeCapacity(beginId, degree + 1);
+        setTarget(beginId, degree, endId);
+        vertexTable.putInt(beginId * RECORD_BYTES + OUT_DEGREE, degree + 1);
+        addInDegree(endId, 1);
+        edgeCount++;
+        return true;
+    }
+
+
+    /**
+     * - Adds an unweighted edge between two given distinct vertices that are
+     * currently in this graph. The desired edge must not already be in the
+     * graph.
+     * O(out-degree of begin)
+     *
+     * @param begin
+     *            the beggining point to start the edge from
+     * @param end
+     *            the end point to end the edge
+     * @return a boolean if the edge was added
+     */
+    public boolean addEdge(T begin, T end) {
+        return addEdge(begin, end, 0);
+    }
+
+
+    /**
+     * - Adds many edges in one pass. Pairs with a missing endpoint, self
+     * loops, duplicate pairs and edges already in the graph are skipped. The
+     * pairs are sorted by begin vertex, so each block grows at most once and
+     * existing edges are checked with one hash set per begin vertex instead
+     * of a scan per edge. If undirected, both directions of each pair are
+     * added. Returns the number of directed edges added.
+     * O(E log E + sum of the touched out-degrees) for E pairs
+     *
+     * @param pairs
+     *            begin and end label of each edge
+     * @param undirected
+     *            true to also add each reverse edge
+     * @return int number of edges added
+     */
+    public int addEdges(
+        Collection<? extends Map.Entry<? extends T, ? extends T>> pairs,
+        boolean undirected) {
+        long[] packed = new long[undirected ? pairs.size() * 2 : pairs.size()];
+        int count = 0;
+        for (Map.Entry<? extends T, ? extends T> pair : pairs) {
+            int beginId = idOf(pair.getKey());
+            int endId = idOf(pair.getValue());
+            if ((beginId < 0) || (endId < 0) || (beginId == endId)) {
+                continue;
+            }
+            packed[count++] = ((long)beginId << 32) | endId;
+            if (undirected) {
+                packed[count++] = ((long)endId << 32) | beginId;
+            }
+        }
+        Arrays.sort(packed, 0, count);
+        int added = 0;
+        int from = 0;
+        while (from < count) {
+            int beginId = (int)(packed[from] >>> 32);
+            int to = from;
+            while (to < count && (int)(packed[to] >>> 32) == beginId) {
+                to++;
+            }
+            added += appendEdges(beginId, packed, from, to);
+            from = to;
+        }
+        edgeCount += added;
+        return added;
+    }
+
+
+    /**
+     * - Removes the edge between two given distinct vertices that are
+     * currently in this graph. The weight is ignored. It returns true if the
+     * removal is successful, false otherwise.
+     * O(out-degree of begin)
+     *
+     * @param begin
+     *            the beggining point
+     * @param end
+     *            the end point
+     * @param edgeWeight
+     *            the edge weight, ignored
+     * @return a boolean if the edge was removed
+     */
+    public boolean removeEdge(T begin, T end, double edgeWeight) {
+        int beginId = idOf(begin);
+        int endId = idOf(end);
+        if ((beginId < 0) || (endId < 0) || !detachEdge(beginId, endId)) {
+            return false;
+        }
+        edgeCount--;
+        return true;
+    }
+
+
+    /**
+     * - Removes an unweighted edge between two given distinct vertices that are
+     * currently in this graph. It returns true if the removal is successful,
+     * false otherwise.
+     * O(out-degree of begin)
+     *
+     * @param begin
+     *            the beggining point
+     * @param end
+     *            the end point
+     * @return a boolean if the edge was removed
+     */
+    public boolean removeEdge(T begin, T end) {
+        return removeEdge(begin, end, 0);
+    }
+
+
+    /**
+     * - Sees whether an edge exists from begin to end.
+     * O(out-degree of begin)
+     *
+     * @param begin
+     *            the beggining point
+     * @param end
+     *            the end point
+     * @return a boolean if the point has the edge
+     */
+    public boolean hasEdge(T begin, T end) {
+        int beginId = idOf(begin);
+        int endId = idOf(end);
+        return (beginId >= 0) && (endId >= 0) && indexOf(beginId, endId) >= 0;
+    }
+
+
+    /**
+     * - This method returns the number of Vertices in this graph.
+     * O(1)
+     *
+     * @return an int with the number of vertices
+     */
+    public int getNumberOfVertices() {
+        return ids.size();
+    }
+
+
+    /**
+     * - This method returns the number of edges in this graph, capped at the
+     * largest int.
+     * O(1)
+     *
+     * @return an int with the number of edges
+     */
+    public int getNumberOfEdges() {
+        return (int)Math.min(edgeCount, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * - Sees whether the graph is empty
+     * O(1)
+     *
+     * @return a boolean true if empty
+     */
+    public boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+
+    /**
+     * - Returns on-heap Vertex copies of every vertex, connected like the
+     * graph, or null if the graph is empty. Later changes to the graph are
+     * not seen by the copies.
+     * O(|V|+|E|)
+     *
+     * @return list of vertices
+     */
+    public List<VertexInterface<T>> getVertices() {
+        if (isEmpty()) {
+            return null;
+        }
+        List<Vertex<T>> copies = new ArrayList<Vertex<T>>(labels.size());
+        for (T label : labels) {
+            copies.add((label == null) ? null : new Vertex<T>(label));
+        }
+        List<VertexInterface<T>> list = new ArrayList<VertexInterface<T>>(
+            ids.size());
+        for (int id = 0; id < copies.size(); id++) {
+            Vertex<T> vertex = copies.get(id);
+            if (vertex == null) {
+                continue;
+            }
+            for (int i = 0; i < outDegree(id); i++) {
+                vertex.connect(copies.get(target(id, i)), 0);
+            }
+            list.add(vertex);
+        }
+        return list;
+    }
+
+
+    /**
+     * – clears the graph and drops its off-heap memory.
+     * O(1)
+     */
+    public void clear() {
+        ids = new HashMap<T, Integer>();
+        labels = new ArrayList<T>();
+        freeIds = new BitSet();
+        vertexTable = ByteBuffer.allocateDirect(DEFAULT_VERTICES
+            * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        bumpChunk = -1;
+        bump = 1 << chunkLog;
+        freeBlocks = new long[MAX_CAPACITY_LOG + 1];
+        Arrays.fill(freeBlocks, -1);
+        edgeCount = 0;
+    }
+
+
+    /**
+     * - Returns the number of bytes of direct memory held by the vertex
+     * table and the edge arena.
+     * O(chunks)
+     *
+     * @return long off-heap bytes
+     */
+    public long getOffHeapBytes() {
+        long bytes = vertexTable.capacity();
+        for (int c = 0; c < chunkCount; c++) {
+            if (chunks[c] != null) {
+                bytes += chunks[c].capacity();
+            }
+        }
+        return bytes;
+    }
+
+
+    /**
+     * - Performs a breadth- first traversal of a graph and returns the queue
+     * that contains the result. Empty queue can be returned.
+     * O(|V|+|E|)
+     *
+     * @param origin
+     *            the origin of the BFT
+     * @return queue queue
+     */
+    public Queue<T> getBreadthFirstTraversal(T origin) {
+        int originId = idOf(origin);
+        Queue<T> traversalOrder = new ArrayDeque<T>();
+        if (originId < 0) {
+            return traversalOrder;
+        }
+        TraversalContext context = traversalPool.acquire(labels.size());
+        context.visit(originId);
+        context.enqueue(originId);
+        while (context.hasQueued()) {
+            int frontId = context.dequeue();
+            traversalOrder.add(labels.get(frontId));
+            int at = frontId * RECORD_BYTES;
+            int degree = vertexTable.getInt(at + OUT_DEGREE);
+            if (degree == 0) {
+                continue;
+            }
+            long address = vertexTable.getLong(at + ADDRESS);
+            ByteBuffer chunk = chunks[(int)(address >>> 32)];
+            int base = (int)address << 2;
+            for (int i = 0; i < degree; i++) {
+                int nextNeighbor = chunk.getInt(base + (i << 2));
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor);
+                    context.enqueue(nextNeighbor);
+                }
+            }
+        }
+        traversalPool.release(context);
+        return traversalOrder;
+    }
+
+
+    /**
+     * - returns the shortest distance between the origin and destination and
+     * pushes the path onto path with the origin on top. If a path does not
+     * exist, it returns the maximum integer (to simulate infinity).
+     * O(visited vertices + their edges)
+     *
+     * @param origin
+     *            origin of shortest path
+     * @param destination
+     *            destination of shortest path
+     * @param path
+     *            the path
+     * @return an integer of the number of edges along the shortest path
+     */
+    public int getShortestPath(T origin, T destination, Stack<T> path) {
+        int originId = idOf(origin);
+        int endId = idOf(destination);
+        if ((originId < 0) || (endId < 0)) {
+            return Integer.MAX_VALUE;
+        }
+        TraversalContext context = traversalPool.acquire(labels.size());
+        boolean done = originId == endId;
+        context.visit(originId);
+        context.enqueue(originId);
+        while (!done && context.hasQueued()) {
+            int frontId = context.dequeue();
+            int frontCost = context.getCost(frontId);
+            int at = frontId * RECORD_BYTES;
+            int degree = vertexTable.getInt(at + OUT_DEGREE);
+            if (degree == 0) {
+                continue;
+            }
+            long address = vertexTable.getLong(at + ADDRESS);
+            ByteBuffer chunk = chunks[(int)(address >>> 32)];
+            int base = (int)address << 2;
+            for (int i = 0; !done && i < degree; i++) {
+                int nextNeighbor = chunk.getInt(base + (i << 2));
+                if (!context.isVisited(nextNeighbor)) {
+                    context.visit(nextNeighbor, frontId, frontCost + 1);
+                    context.enqueue(nextNeighbor);
+                    done = nextNeighbor == endId;
+                }
+            }
+        }
+        int pathLength = Integer.MAX_VALUE;
+        if (context.isVisited(endId)) {
+            pathLength = context.getCost(endId);
+            for (int id = endId; id >= 0; id = context.getPredecessor(id)) {
+                path.push(labels.get(id));
+            }
+        }
+        traversalPool.release(context);
+        return pathLength;
+    }
+
+
+    /**
+     * - Returns the dense id of the given vertex label, or -1 if the label is
+     * not in this graph.
+     * O(1)
+     */
+    int idOf(T vertexLabel) {
+        if (vertexLabel == null) {
+            return -1;
+        }
+        Integer id = ids.get(vertexLabel);
+        return (id == null) ? -1 : id;
+    }
+
+
+    /**
+     * - Returns the label of the vertex with the given id.
+     * O(1)
+     */
+    T labelOf(int id) {
+        return labels.get(id);
+    }
+
+
+    /**
+     * - appends the sorted ends packed[from .. to) to beginId's block,
+     * skipping repeats and existing edges. Returns the number appended.
+     */
+    private int appendEdges(int beginId, long[] packed, int from, int to) {
+        int degree = outDegree(beginId);
+        IntIntHashMap existing = null;
+        if (degree > INDEX_THRESHOLD) {
+            existing = new IntIntHashMap(degree);
+            for (int i = 0; i < degree; i++) {
+                existing.put(target(beginId, i), i);
+            }
+        }
+        ensureEdgeCapacity(beginId, degree + (to - from));
+        int size = degree;
+        int previous = -1;
+        for (int e = from; e < to; e++) {
+            int endId = (int)packed[e];
+            if (endId == previous) {
+                continue;
+            }
+            previous = endId;
+            boolean present = (existing == null)
+                ? indexOf(beginId, endId) >= 0
+                : existing.containsKey(endId);
+            if (!present) {
+                setTarget(beginId, size++, endId);
+                vertexTable.putInt(beginId * RECORD_BYTES + OUT_DEGREE, size);
+                addInDegree(endId, 1);
+            }
+        }
+        return size - degree;
+    }
+
+
+    /**
+     * - removes the edge beginId -> endId by moving the last edge into its
+     * slot, and fixes endId's in-degree. Leaves edgeCount to the caller.
+     */
+    private boolean detachEdge(int beginId, int endId) {
+        int index = indexOf(beginId, endId);
+        if (index < 0) {
+            return false;
+        }
+        int last = outDegree(beginId) - 1;
+        setTarget(beginId, index, target(beginId, last));
+        vertexTable.putInt(beginId * RECORD_BYTES + OUT_DEGREE, last);
+        addInDegree(endId, -1);
+        return true;
+    }
+
+
+    private int indexOf(int beginId, int endId) {
+        int at = beginId * RECORD_BYTES;
+        int degree = vertexTable.getInt(at + OUT_DEGREE);
+        if (degree == 0) {
+            return -1;
+        }
+        long address = vertexTable.getLong(at + ADDRESS);
+        ByteBuffer chunk = chunks[(int)(address >>> 32)];
+        int base = (int)address << 2;
+        for (int i = 0; i < degree; i++) {
+            if (chunk.getInt(base + (i << 2)) == endId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    private int outDegree(int id) {
+        return vertexTable.getInt(id * RECORD_BYTES + OUT_DEGREE);
+    }
+
+
+    private int inDegree(int id) {
+        return vertexTable.getInt(id * RECORD_BYTES + IN_DEGREE);
+    }
+
+
+    private void addInDegree(int id, int delta) {
+        int at = id * RECORD_BYTES + IN_DEGREE;
+        vertexTable.putInt(at, vertexTable.getInt(at) + delta);
+    }
+
+
+    private int target(int id, int index) {
+        long address = vertexTable.getLong(id * RECORD_BYTES + ADDRESS);
+        return chunks[(int)(address >>> 32)].getInt(((int)address + index)
+            << 2);
+    }
+
+
+    private void setTarget(int id, int index, int endId) {
+        long address = vertexTable.getLong(id * RECORD_BYTES + ADDRESS);
+        chunks[(int)(address >>> 32)].putInt(((int)address + index) << 2,
+            endId);
+    }
+
+
+    /**
+     * - moves id's edges to a block that holds at least needed edges if its
+     * block is smaller.
+     */
+    private void ensureEdgeCapacity(int id, int needed) {
+        int at = id * RECORD_BYTES;
+        int capacityLog = vertexTable.getInt(at + CAPACITY_LOG);
+        if (capacityLog >= 0 && needed <= 1 << capacityLog) {
+            return;
+        }
+        int grownLog = Math.max(MIN_CAPACITY_LOG, 32 - Integer
+            .numberOfLeadingZeros(needed - 1));
+        if (grownLog > MAX_CAPACITY_LOG) {
+            throw new IllegalStateException("more than 2^" + MAX_CAPACITY_LOG
+                + " edges from one vertex");
+        }
+        grownLog = Math.max(grownLog, capacityLog + 1);
+        long grown = allocateBlock(grownLog);
+        if (capacityLog >= 0) {
+            long old = vertexTable.getLong(at + ADDRESS);
+            int degree = vertexTable.getInt(at + OUT_DEGREE);
+            ByteBuffer from = chunks[(int)(old >>> 32)].duplicate();
+            from.position((int)old << 2).limit(((int)old + degree) << 2);
+            ByteBuffer into = chunks[(int)(grown >>> 32)].duplicate();
+            into.position((int)grown << 2);
+            into.put(from);
+            freeBlock(old, capacityLog);
+        }
+        vertexTable.putLong(at + ADDRESS, grown);
+        vertexTable.putInt(at + CAPACITY_LOG, grownLog);
+    }
+
+
+    /**
+     * - address, chunk index << 32 | first edge slot, of a free block of
+     * 2^capacityLog edges.
+     */
+    private long allocateBlock(int capacityLog) {
+        long address = freeBlocks[capacityLog];
+        if (address >= 0) {
+            freeBlocks[capacityLog] = chunks[(int)(address >>> 32)].getLong(
+                (int)address << 2);
+            return address;
+        }
+        int capacity = 1 << capacityLog;
+        if (capacityLog > chunkLog) {
+            return (long)addChunk(capacity) << 32;
+        }
+        if (bump + capacity > 1 << chunkLog) {
+            // the tail of the current chunk is too small, start a new one
+            bumpChunk = addChunk(1 << chunkLog);
+            bump = 0;
+        }
+        address = ((long)bumpChunk << 32) | bump;
+        bump += capacity;
+        return address;
+    }
+
+
+    private void freeBlock(long address, int capacityLog) {
+        int chunk = (int)(address >>> 32);
+        if (capacityLog > chunkLog) {
+            // an oversized block owns its chunk
+            chunks[chunk] = null;
+            return;
+        }
+        chunks[chunk].putLong((int)address << 2, freeBlocks[capacityLog]);
+        freeBlocks[capacityLog] = address;
+    }
+
+
+    /**
+     * - index of a new chunk of the given number of edge slots.
+     */
+    private int addChunk(int slots) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount] = ByteBuffer.allocateDirect(slots << 2).order(
+            ByteOrder.nativeOrder());
+        return chunkCount++;
+    }
+
+
+    private void ensureVertexCapacity(int bound) {
+        int capacity = vertexTable.capacity() / RECORD_BYTES;
+        if (bound <= capacity) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(bound, capacity
+            * 2) * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        ByteBuffer old = vertexTable.duplicate();
+        old.clear();
+        grown.put(old);
+        grown.clear();
+        vertexTable = grown;
+    }
+}
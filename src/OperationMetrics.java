@@ -0,0 +1,379 @@
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Lock-free call counters and latency histograms for each public
+ *          VTConnect operation. Latencies go into log-linear buckets: every
+ *          power of two is split into SUB_BUCKETS equal buckets, so a
+ *          percentile is accurate to within 1 / SUB_BUCKETS of its value at
+ *          any scale, from nanoseconds to minutes, in a fixed 4 KB per
+ *          operation. Recording is a few atomic increments and never
+ *          allocates.
+ *
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * The measured operations, one per public VTConnect method.
+     */
+    public enum Operation {
+        /** VTConnect.addUser */
+        ADD_USER,
+        /** VTConnect.addUsers */
+        ADD_USERS,
+        /** VTConnect.removeUser */
+        REMOVE_USER,
+        /** VTConnect.createFriendship */
+        CREATE_FRIENDSHIP,
+        /** VTConnect.createFriendships */
+        CREATE_FRIENDSHIPS,
+        /** VTConnect.removeFriendship */
+        REMOVE_FRIENDSHIP,
+        /** VTConnect.hasFriendship */
+        HAS_FRIENDSHIP,
+        /** VTConnect.exists */
+        EXISTS,
+        /** VTConnect.traverse */
+        TRAVERSE,
+        /** VTConnect.friendSuggestion */
+        FRIEND_SUGGESTION,
+        /** VTConnect.friendshipDistance */
+        FRIENDSHIP_DISTANCE,
+        /** VTConnect.estimateFriendshipDistance */
+        ESTIMATE_FRIENDSHIP_DISTANCE,
+        /** VTConnect.analyzeClustering */
+        ANALYZE_CLUSTERING,
+        /** VTConnect.rankInfluence */
+        RANK_INFLUENCE,
+        /** VTConnect.personalizedInfluence */
+        PERSONALIZED_INFLUENCE,
+        /** VTConnect.save */
+        SAVE,
+        /** VTConnect.checkpoint */
+        CHECKPOINT
+    }
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final Histogram[] histograms =
+        new Histogram[Operation.values().length];
+
+    /**
+     * - initializes empty metrics.
+     */
+    public OperationMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+
+    /**
+     * - Records one call of operation that took nanos nanoseconds. Safe to
+     * call from many threads at once.
+     * O(1)
+     *
+     * @param operation
+     *            the operation
+     * @param nanos
+     *            its latency
+     */
+    public void record(Operation operation, long nanos) {
+        histograms[operation.ordinal()].record(Math.max(nanos, 0));
+    }
+
+
+    /**
+     * - Returns a copy of the counters and histogram of operation. Calls
+     * recorded while the copy is taken may be partly included.
+     * O(BUCKETS)
+     *
+     * @param operation
+     *            the operation
+     * @return Snapshot the current state
+     */
+    public Snapshot snapshot(Operation operation) {
+        return histograms[operation.ordinal()].snapshot();
+    }
+
+
+    /**
+     * - Returns a copy of every operation's counters and histogram.
+     * O(operations * BUCKETS)
+     *
+     * @return Map<Operation, Snapshot> the current state by operation
+     */
+    public Map<Operation, Snapshot> snapshot() {
+        Map<Operation, Snapshot> snapshots =
+            new EnumMap<Operation, Snapshot>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            snapshots.put(operation, snapshot(operation));
+        }
+        return snapshots;
+    }
+
+
+    /**
+     * - Clears every counter and histogram. Calls recorded during the reset
+     * may be lost.
+     * O(operations * BUCKETS)
+     */
+    @Override
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+
+    /**
+     * - Registers these metrics with the platform MBean server under
+     * "VTConnect:type=OperationMetrics,name=" + name.
+     *
+     * @param name
+     *            name that tells this network apart from others
+     * @return ObjectName the registered name
+     * @throws JMException
+     *             if the name is invalid or taken
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName(
+            "VTConnect:type=OperationMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+            objectName);
+        return objectName;
+    }
+
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        for (Map.Entry<Operation, Snapshot> entry : snapshot().entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                counts.put(entry.getKey().name(), entry.getValue()
+                    .getCount());
+            }
+        }
+        return counts;
+    }
+
+
+    @Override
+    public Map<String, Double> getP50Micros() {
+        return micros(s -> s.getPercentileNanos(0.5));
+    }
+
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return micros(s -> s.getPercentileNanos(0.99));
+    }
+
+
+    @Override
+    public Map<String, Double> getP999Micros() {
+        return micros(s -> s.getPercentileNanos(0.999));
+    }
+
+
+    @Override
+    public Map<String, Double> getMaxMicros() {
+        return micros(s -> s.getMaxNanos());
+    }
+
+
+    private Map<String, Double> micros(ToDoubleFunction<Snapshot> nanos) {
+        Map<String, Double> values = new LinkedHashMap<String, Double>();
+        for (Map.Entry<Operation, Snapshot> entry : snapshot().entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                values.put(entry.getKey().name(), nanos.applyAsDouble(entry
+                    .getValue()) / 1000.0);
+            }
+        }
+        return values;
+    }
+
+
+    /**
+     * - bucket of a latency: exact below SUB_BUCKETS, then SUB_BUCKETS
+     * buckets per power of two.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int)nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int)(nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+
+    /**
+     * - largest latency that falls in bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+
+    /**
+     * Counters and latency buckets of one operation.
+     */
+    private static class Histogram {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(
+            Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets.incrementAndGet(bucketOf(nanos));
+        }
+
+
+        private Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = buckets.get(i);
+            }
+            return new Snapshot(count.sum(), totalNanos.sum(), maxNanos.get(),
+                copy);
+        }
+
+
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+        }
+    }
+
+
+    /**
+     * @author Adam Schneider
+     * @version 2026-10-17
+     *
+     *          Immutable copy of one operation's counters and histogram.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] buckets;
+
+        private Snapshot(
+            long count,
+            long totalNanos,
+            long maxNanos,
+            long[] buckets) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.buckets = buckets;
+        }
+
+
+        /**
+         * @return number of recorded calls
+         */
+        public long getCount() {
+            return count;
+        }
+
+
+        /**
+         * @return sum of all recorded latencies in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+
+        /**
+         * @return largest recorded latency in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+
+        /**
+         * @return mean latency in nanoseconds, 0 without calls
+         */
+        public double getMeanNanos() {
+            return (count == 0) ? 0 : (double)totalNanos / count;
+        }
+
+
+        /**
+         * - Returns the latency that a fraction q of the calls did not
+         * exceed, rounded up to its bucket's upper bound and capped at the
+         * largest latency.
+         * O(BUCKETS)
+         *
+         * @param q
+         *            fraction between 0 and 1, e.g. 0.99
+         * @return latency in nanoseconds, 0 without calls
+         */
+        public long getPercentileNanos(double q) {
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long)Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+
+        /**
+         * - Returns the count and p50/p99/p999/max latencies in
+         * microseconds.
+         */
+        @Override
+        public String toString() {
+            return String.format("count=%d p50=%.1fus p99=%.1fus p999=%.1fus"
+                + " max=%.1fus", count, getPercentileNanos(0.5) / 1000.0,
+                getPercentileNanos(0.99) / 1000.0, getPercentileNanos(0.999)
+                    / 1000.0, maxNanos / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Map;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          JMX view of OperationMetrics. Every attribute maps operation names
+ *          to a value; operations that were never called are left out.
+ *
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return number of calls of each operation
+     */
+    Map<String, Long> getCounts();
+
+
+    /**
+     * @return median latency of each operation in microseconds
+     */
+    Map<String, Double> getP50Micros();
+
+
+    /**
+     * @return 99th percentile latency of each operation in microseconds
+     */
+    Map<String, Double> getP99Micros();
+
+
+    /**
+     * @return 99.9th percentile latency of each operation in microseconds
+     */
+    Map<String, Double> getP999Micros();
+
+
+    /**
+     * @return largest latency of each operation in microseconds
+     */
+    Map<String, Double> getMaxMicros();
+
+
+    /**
+     * - Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,497 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            Parallel PageRank and personalized PageRank over a CsrGraph,
+ *            ignoring edge weights. Ranks live in double[] vectors indexed by
+ *            vertex id. Every iteration first turns each rank into the share
+ *            it passes along each out-edge, then each vertex pulls the shares
+ *            of its in-neighbors from the transposed snapshot. Every vertex
+ *            is written by one worker only, so no locks or atomics are
+ *            needed and the result does not depend on the number of workers.
+ *            Vertex ranges are split across a ForkJoinPool.
+ *
+ *            The rank of vertices without out-edges is spread like the
+ *            teleport: over every vertex for PageRank, over the sources for
+ *            personalized PageRank. Iteration stops once the ranks move less
+ *            than the tolerance in total (L1), or after maxIterations.
+ *
+ *            A run can start from the scores of an earlier run. Vertex ids of
+ *            a Graph stay the same while the vertex lives, so after a few
+ *            changes the old scores are close to the new ones and far fewer
+ *            iterations are needed. The start only changes how fast the
+ *            ranks converge, never what they converge to.
+ *
+ */
+public class PageRank<T> {
+
+    /** probability of following an edge rather than teleporting */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** total change in rank below which iteration stops */
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+    /** iterations after which a run stops even if not converged */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private static final int GRAIN = 1024;
+
+    private final CsrGraph<T> graph;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+    private final int[] outOffsets;
+    private final ForkJoinPool pool;
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+    private final int bound;
+
+    /**
+     * - initializes the engine with the default damping, tolerance and
+     * iteration limit.
+     * O(|V|+|E|) to transpose the snapshot, unless it already was
+     *
+     * @param graph
+     *            snapshot to rank
+     * @param pool
+     *            pool to run on
+     */
+    public PageRank(CsrGraph<T> graph, ForkJoinPool pool) {
+        this(graph, pool, DEFAULT_DAMPING, DEFAULT_TOLERANCE,
+            DEFAULT_MAX_ITERATIONS);
+    }
+
+
+    /**
+     * - initializes the engine.
+     * O(|V|+|E|) to transpose the snapshot, unless it already was
+     *
+     * @param graph
+     *            snapshot to rank
+     * @param pool
+     *            pool to run on
+     * @param damping
+     *            probability of following an edge, at least 0 and below 1
+     * @param tolerance
+     *            total change in rank below which iteration stops, positive
+     * @param maxIterations
+     *            most iterations of one run, at least 1
+     */
+    public PageRank(
+        CsrGraph<T> graph,
+        ForkJoinPool pool,
+        double damping,
+        double tolerance,
+        int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1)");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException(
+                "maxIterations must be positive");
+        }
+        this.graph = graph;
+        this.pool = pool;
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.bound = graph.idBound();
+        CsrGraph<T> reversed = graph.transpose();
+        this.inOffsets = reversed.offsets();
+        this.inTargets = reversed.targets();
+        this.outOffsets = graph.offsets();
+    }
+
+
+    /**
+     * - Returns the PageRank of every vertex, starting from uniform ranks.
+     * O((|V|+|E|) / p) per iteration with p workers
+     *
+     * @return Scores<T> ranks summing to 1
+     */
+    public Scores<T> rank() {
+        return rank(null);
+    }
+
+
+    /**
+     * - Returns the PageRank of every vertex, starting from the scores of an
+     * earlier run where they apply. Vertices that are new, or whose id now
+     * belongs to another vertex, start from the uniform rank.
+     * O((|V|+|E|) / p) per iteration with p workers
+     *
+     * @param previous
+     *            scores of an earlier run, or null for a cold start
+     * @return Scores<T> ranks summing to 1
+     */
+    public Scores<T> rank(Scores<T> previous) {
+        double[] teleport = new double[bound];
+        int vertices = 0;
+        for (int id = 0; id < bound; id++) {
+            if (graph.labelOf(id) != null) {
+                vertices++;
+            }
+        }
+        for (int id = 0; id < bound; id++) {
+            if (graph.labelOf(id) != null) {
+                teleport[id] = 1.0 / vertices;
+            }
+        }
+        return iterate(teleport, previous);
+    }
+
+
+    /**
+     * - Returns the personalized PageRank of every vertex with respect to
+     * sources: the chance that a walk which keeps restarting at a random
+     * source is at the vertex. Sources not in the graph are ignored; if none
+     * is in it, every score is 0.
+     * O((|V|+|E|) / p) per iteration with p workers
+     *
+     * @param sources
+     *            vertices the walk restarts at
+     * @param previous
+     *            scores of an earlier run for the same sources, or null
+     * @return Scores<T> ranks summing to 1, or all 0
+     */
+    public Scores<T> personalizedRank(
+        Collection<? extends T> sources,
+        Scores<T> previous) {
+        double[] teleport = new double[bound];
+        List<Integer> ids = new ArrayList<Integer>();
+        for (T source : sources) {
+            int id = graph.idOf(source);
+            if (id >= 0 && teleport[id] == 0) {
+                teleport[id] = 1;
+                ids.add(id);
+            }
+        }
+        for (int id : ids) {
+            teleport[id] = 1.0 / ids.size();
+        }
+        return iterate(teleport, previous);
+    }
+
+
+    private Scores<T> iterate(double[] teleport, Scores<T> previous) {
+        double[] rank = start(teleport, previous);
+        double[] next = new double[bound];
+        double[] share = new double[bound];
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            double dangling = pool.invoke(new Share(rank, share, 0, bound));
+            double change = pool.invoke(new Pull(teleport, share, dangling,
+                rank, next, 0, bound));
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            iterations++;
+            converged = change < tolerance;
+        }
+        return new Scores<T>(graph, rank, iterations, converged);
+    }
+
+
+    /**
+     * - the old score of each vertex it still belongs to, the teleport
+     * elsewhere, scaled to the teleport's total.
+     */
+    private double[] start(double[] teleport, Scores<T> previous) {
+        double[] rank = teleport.clone();
+        if (previous == null) {
+            return rank;
+        }
+        double total = 0;
+        double sum = 0;
+        for (int id = 0; id < bound; id++) {
+            total += teleport[id];
+            T label = graph.labelOf(id);
+            if (label != null && previous.idOf(label) == id) {
+                rank[id] = previous.scores[id];
+            }
+            sum += rank[id];
+        }
+        if (sum == 0) {
+            return teleport.clone();
+        }
+        for (int id = 0; id < bound; id++) {
+            rank[id] *= total / sum;
+        }
+        return rank;
+    }
+
+
+    /**
+     * Splits the rank of each vertex in lo..hi over its out-edges and returns
+     * the rank held by vertices without any.
+     */
+    private class Share extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] rank;
+        private final double[] share;
+        private final int lo;
+        private final int hi;
+
+        private Share(double[] rank, double[] share, int lo, int hi) {
+            this.rank = rank;
+            this.share = share;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+
+        @Override
+        protected Double compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Share left = new Share(rank, share, lo, mid);
+                Share right = new Share(rank, share, mid, hi);
+                left.fork();
+                double rightDangling = right.compute();
+                return left.join() + rightDangling;
+            }
+            double dangling = 0;
+            for (int id = lo; id < hi; id++) {
+                int degree = outOffsets[id + 1] - outOffsets[id];
+                if (degree == 0) {
+                    dangling += rank[id];
+                    share[id] = 0;
+                }
+                else {
+                    share[id] = rank[id] / degree;
+                }
+            }
+            return dangling;
+        }
+    }
+
+
+    /**
+     * Computes the next rank of each vertex in lo..hi from the shares of its
+     * in-neighbors and returns the total change.
+     */
+    private class Pull extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] teleport;
+        private final double[] share;
+        private final double dangling;
+        private final double[] rank;
+        private final double[] next;
+        private final int lo;
+        private final int hi;
+
+        private Pull(
+            double[] teleport,
+            double[] share,
+            double dangling,
+            double[] rank,
+            double[] next,
+            int lo,
+            int hi) {
+            this.teleport = teleport;
+            this.share = share;
+            this.dangling = dangling;
+            this.rank = rank;
+            this.next = next;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+
+        @Override
+        protected Double compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Pull left = new Pull(teleport, share, dangling, rank, next,
+                    lo, mid);
+                Pull right = new Pull(teleport, share, dangling, rank, next,
+                    mid, hi);
+                left.fork();
+                double rightChange = right.compute();
+                return left.join() + rightChange;
+            }
+            double restart = damping * dangling + 1 - damping;
+            double change = 0;
+            for (int id = lo; id < hi; id++) {
+                double pulled = 0;
+                for (int e = inOffsets[id]; e < inOffsets[id + 1]; e++) {
+                    pulled += share[inTargets[e]];
+                }
+                next[id] = damping * pulled + restart * teleport[id];
+                change += Math.abs(next[id] - rank[id]);
+            }
+            return change;
+        }
+    }
+
+
+    /**
+     * @param <T>
+     *
+     *            Result of one PageRank run: the score of every vertex by id
+     *            in the snapshot that was ranked.
+     */
+    public static class Scores<T> {
+
+        private final CsrGraph<T> graph;
+        private final double[] scores;
+        private final int iterations;
+        private final boolean converged;
+
+        /**
+         * - initializes the result. The scores array is owned by the result.
+         */
+        Scores(
+            CsrGraph<T> graph,
+            double[] scores,
+            int iterations,
+            boolean converged) {
+            this.graph = graph;
+            this.scores = scores;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+
+        /**
+         * - Returns the score of vertexLabel, or 0 if it was not in the graph.
+         * O(1)
+         *
+         * @param vertexLabel
+         *            the vertex
+         * @return double score between 0 and 1
+         */
+        public double get(T vertexLabel) {
+            int id = graph.idOf(vertexLabel);
+            return (id < 0) ? 0 : scores[id];
+        }
+
+
+        /**
+         * - Returns up to k vertices with a positive score, highest first,
+         * ties by smaller vertex id.
+         * O(|V| log k)
+         *
+         * @param k
+         *            maximum number of results
+         * @return list of at most k vertices, best first
+         */
+        public List<T> top(int k) {
+            // min-heap of ids, the weakest kept vertex on top
+            int[] heap = new int[Math.max(0, Math.min(k, scores.length))];
+            int heapSize = 0;
+            for (int id = 0; id < scores.length && heap.length > 0; id++) {
+                if (scores[id] <= 0) {
+                    continue;
+                }
+                if (heapSize < heap.length) {
+                    heap[heapSize] = id;
+                    siftUp(heap, heapSize++);
+                }
+                else if (weaker(heap[0], id)) {
+                    heap[0] = id;
+                    siftDown(heap, heapSize);
+                }
+            }
+            Object[] ranked = new Object[heapSize];
+            while (heapSize > 0) {
+                ranked[heapSize - 1] = graph.labelOf(heap[0]);
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+            }
+            List<T> result = new ArrayList<T>(ranked.length);
+            for (Object label : ranked) {
+                @SuppressWarnings("unchecked")
+                T next = (T)label;
+                result.add(next);
+            }
+            return result;
+        }
+
+
+        /**
+         * - Returns the number of iterations the run took.
+         * O(1)
+         *
+         * @return int iterations
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+
+        /**
+         * - Returns true if the run reached the tolerance before the
+         * iteration limit.
+         * O(1)
+         *
+         * @return boolean true if converged
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+
+
+        int idOf(T vertexLabel) {
+            return graph.idOf(vertexLabel);
+        }
+
+
+        /**
+         * - true if a ranks below b: lower score, then larger id.
+         */
+        private boolean weaker(int a, int b) {
+            if (scores[a] != scores[b]) {
+                return scores[a] < scores[b];
+            }
+            return a > b;
+        }
+
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!weaker(heap[index], heap[parent])) {
+                    return;
+                }
+                int swap = heap[parent];
+                heap[parent] = heap[index];
+                heap[index] = swap;
+                index = parent;
+            }
+        }
+
+
+        private void siftDown(int[] heap, int size) {
+            int index = 0;
+            while (2 * index + 1 < size) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && weaker(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!weaker(heap[child], heap[index])) {
+                    return;
+                }
+                int swap = heap[child];
+                heap[child] = heap[index];
+                heap[index] = swap;
+                index = child;
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Level-synchronous, direction-optimizing breadth-first search over
+ *          a CsrGraph on a ForkJoinPool. Each level is split into chunks that
+ *          run in parallel.
+ *
+ *          Small frontiers are expanded top-down: every frontier vertex scans
+ *          its out-edges and claims unvisited neighbors through an atomic
+ *          visited bitset. Once the frontier's edges outweigh the edges left
+ *          to explore, levels are expanded bottom-up: every unvisited vertex
+ *          scans its in-edges and stops at the first one that comes from the
+ *          frontier. The switch follows Beamer et al.'s alpha/beta rule.
+ *
+ *          The result is the BFS level (hop distance) of every vertex, the
+ *          same distances the sequential traversal produces.
+ *
+ */
+public class ParallelBreadthFirstSearch {
+
+    /**
+     * Level stored for vertices the source cannot reach.
+     */
+    public static final int UNREACHED = -1;
+
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int GRAIN = 1024;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+    private final int bound;
+    private final ForkJoinPool pool;
+
+    /**
+     * - initializes a search over the given snapshot that runs its chunks on
+     * pool.
+     *
+     * @param graph
+     *            snapshot to search
+     * @param pool
+     *            pool to run on
+     */
+    public ParallelBreadthFirstSearch(CsrGraph<?> graph, ForkJoinPool pool) {
+        CsrGraph<?> reverse = graph.transpose();
+        this.offsets = graph.offsets();
+        this.targets = graph.targets();
+        this.inOffsets = reverse.offsets();
+        this.inTargets = reverse.targets();
+        this.bound = graph.idBound();
+        this.pool = pool;
+    }
+
+
+    /**
+     * - Returns the BFS level of every vertex id from sourceId, UNREACHED
+     * for ids it cannot reach.
+     * O((|V|+|E|) / p) per level with p workers
+     *
+     * @param sourceId
+     *            id of the source vertex
+     * @return int[] level by vertex id
+     */
+    public int[] levels(int sourceId) {
+        int[] levels = new int[bound];
+        Arrays.fill(levels, UNREACHED);
+        if (sourceId < 0 || sourceId >= bound) {
+            return levels;
+        }
+        AtomicLongArray visited = new AtomicLongArray((bound + 63) >>> 6);
+        levels[sourceId] = 0;
+        claim(visited, sourceId);
+
+        int[] frontier = new int[] { sourceId };
+        long unexploredEdges = targets.length;
+        boolean bottomUp = false;
+        for (int depth = 0; frontier.length > 0; depth++) {
+            long frontierEdges = 0;
+            for (int id : frontier) {
+                frontierEdges += offsets[id + 1] - offsets[id];
+            }
+            unexploredEdges -= frontierEdges;
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            }
+            else if (bottomUp && frontier.length < bound / BETA) {
+                bottomUp = false;
+            }
+            Step step = bottomUp
+                ? new Step(levels, visited, null, depth, 0, bound)
+                : new Step(levels, visited, frontier, depth, 0,
+                    frontier.length);
+            pool.invoke(step);
+            frontier = step.next();
+        }
+        return levels;
+    }
+
+
+    private static boolean claim(AtomicLongArray visited, int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * One chunk of one level. With a frontier it expands frontier[lo..hi)
+     * top-down; without one it checks vertex ids lo..hi bottom-up. Either way
+     * the vertices it claims for the next level end up in next().
+     */
+    private class Step extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] levels;
+        private final AtomicLongArray visited;
+        private final int[] frontier;
+        private final int depth;
+        private final int lo;
+        private final int hi;
+        private int[] found;
+        private int foundCount;
+        private Step left;
+        private Step right;
+
+        private Step(
+            int[] levels,
+            AtomicLongArray visited,
+            int[] frontier,
+            int depth,
+            int lo,
+            int hi) {
+            this.levels = levels;
+            this.visited = visited;
+            this.frontier = frontier;
+            this.depth = depth;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+
+        @Override
+        protected void compute() {
+            int grain = (frontier == null) ? GRAIN * 8 : GRAIN;
+            if (hi - lo > grain) {
+                int mid = (lo + hi) >>> 1;
+                left = new Step(levels, visited, frontier, depth, lo, mid);
+                right = new Step(levels, visited, frontier, depth, mid, hi);
+                invokeAll(left, right);
+                return;
+            }
+            found = new int[16];
+            if (frontier != null) {
+                topDown();
+            }
+            else {
+                bottomUp();
+            }
+        }
+
+
+        private void topDown() {
+            for (int i = lo; i < hi; i++) {
+                int id = frontier[i];
+                for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                    int next = targets[e];
+                    if (levels[next] == UNREACHED && claim(visited, next)) {
+                        levels[next] = depth + 1;
+                        add(next);
+                    }
+                }
+            }
+        }
+
+
+        private void bottomUp() {
+            for (int id = lo; id < hi; id++) {
+                if (levels[id] != UNREACHED) {
+                    continue;
+                }
+                for (int e = inOffsets[id]; e < inOffsets[id + 1]; e++) {
+                    if (levels[inTargets[e]] == depth) {
+                        claim(visited, id);
+                        levels[id] = depth + 1;
+                        add(id);
+                        break;
+                    }
+                }
+            }
+        }
+
+
+        private void add(int id) {
+            if (foundCount == found.length) {
+                found = Arrays.copyOf(found, foundCount * 2);
+            }
+            found[foundCount++] = id;
+        }
+
+
+        private int count() {
+            return (left == null) ? foundCount : left.count() + right.count();
+        }
+
+
+        private int copyInto(int[] into, int at) {
+            if (left == null) {
+                System.arraycopy(found, 0, into, at, foundCount);
+                return at + foundCount;
+            }
+            return right.copyInto(into, left.copyInto(into, at));
+        }
+
+
+        private int[] next() {
+            int[] next = new int[count()];
+            copyInto(next, 0);
+            return next;
+        }
+    }
+}
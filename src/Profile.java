@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 /**
  * 
@@ -15,6 +16,7 @@ public class Profile {
     private String name;
     private String status;
     private ArrayList<Profile> friendProfiles;
+    private Consumer<Profile> changeListener;
 
     /**
      * Constructor
@@ -58,6 +60,7 @@ public class Profile {
     public Profile(String name, String status) {
         this.name = name;
         this.status = status;
+        this.friendProfiles = new ArrayList<Profile>();
     }
 
 
@@ -72,6 +75,7 @@ public class Profile {
      */
     public void setName(String firstName, String lastName) {
         this.name = firstName + " " + lastName;
+        changed();
     }
 
 
@@ -92,6 +96,7 @@ public class Profile {
      */
     public void setStatus(String status) {
         this.status = status;
+        changed();
     }
 
 
@@ -180,4 +185,41 @@ public class Profile {
         return friendProfiles.remove(user);
     }
 
+
+    /**
+     * - Sets the listener told after the name or status changes, or null for
+     * none. VTConnect uses it to log the change.
+     * O(1)
+     * 
+     * @param listener
+     *            called with this profile after a change
+     */
+    void setChangeListener(Consumer<Profile> listener) {
+        this.changeListener = listener;
+    }
+
+
+    /**
+     * - Sets the name and status as they were logged, without telling the
+     * listener.
+     * O(1)
+     * 
+     * @param name
+     *            full name
+     * @param status
+     *            status
+     */
+    void restore(String name, String status) {
+        this.name = name;
+        this.status = status;
+    }
+
+
+    private void changed() {
+        Consumer<Profile> listener = changeListener;
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
 }
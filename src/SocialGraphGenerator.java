@@ -0,0 +1,523 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Seeded generator of synthetic social graphs for load and scale
+ *          testing, with three models:
+ *
+ *          Barabasi-Albert preferential attachment, which gives a power-law
+ *          degree distribution. It uses the copy model of Sanders and Schulz:
+ *          each new edge copies a random endpoint of an earlier edge, and the
+ *          endpoint is worked out again from that edge's own random choice,
+ *          so no edge list has to be kept. A vertex's edges go to distinct
+ *          earlier vertices, so this model has no duplicates or self-loops;
+ *
+ *          R-MAT, which drops each edge into a recursively chosen quadrant of
+ *          the adjacency matrix, with vertex ids scrambled so the popular
+ *          vertices are not all at small ids;
+ *
+ *          Watts-Strogatz small world, a ring lattice whose edges are rewired
+ *          to random vertices with a given probability.
+ *
+ *          Every edge is a pure function of the seed and its index, so edges
+ *          are generated in parallel chunks and the same seed gives the same
+ *          edges on any number of threads. Edges are handed to an EdgeSink
+ *          one chunk at a time and never collected. Like the real data, the
+ *          R-MAT and Watts-Strogatz streams may contain duplicates and
+ *          self-loops, which the graph's bulk ingestion drops.
+ *
+ */
+public class SocialGraphGenerator {
+
+    /**
+     * Receives generated edges one chunk at a time. Chunks arrive from
+     * several threads at once.
+     */
+    public interface EdgeSink {
+
+        /**
+         * - Takes the edges begins[i] - ends[i] for 0 <= i < count. The
+         * arrays must not be kept after this returns.
+         *
+         * @param begins
+         *            begin vertex of each edge
+         * @param ends
+         *            end vertex of each edge
+         * @param count
+         *            number of edges
+         */
+        void accept(int[] begins, int[] ends, int count);
+    }
+
+    private static final int BARABASI_ALBERT = 0;
+    private static final int RMAT = 1;
+    private static final int WATTS_STROGATZ = 2;
+    private static final int CHUNK = 1 << 16;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final int MAX_REDRAWS = 16;
+
+    private final int model;
+    private final int vertices;
+    private final long edges;
+    private final long seed;
+    private final int degree;
+    private final double[] quadrants;
+    private final double rewire;
+
+    private SocialGraphGenerator(
+        int model,
+        int vertices,
+        long edges,
+        long seed,
+        int degree,
+        double[] quadrants,
+        double rewire) {
+        this.model = model;
+        this.vertices = vertices;
+        this.edges = edges;
+        this.seed = seed;
+        this.degree = degree;
+        this.quadrants = quadrants;
+        this.rewire = rewire;
+    }
+
+
+    /**
+     * - Returns a Barabasi-Albert generator. The first edgesPerVertex + 1
+     * vertices form a clique, and every later vertex attaches to
+     * edgesPerVertex distinct earlier vertices.
+     *
+     * @param vertices
+     *            number of vertices
+     * @param edgesPerVertex
+     *            edges each new vertex brings, at least 1
+     * @param seed
+     *            random seed
+     * @return the generator
+     */
+    public static SocialGraphGenerator barabasiAlbert(
+        int vertices,
+        int edgesPerVertex,
+        long seed) {
+        if (vertices < 1 || edgesPerVertex < 1) {
+            throw new IllegalArgumentException(
+                "need at least one vertex and one edge per vertex");
+        }
+        long seedEdges = (long)edgesPerVertex * (edgesPerVertex + 1) / 2;
+        long edges = (vertices <= edgesPerVertex + 1)
+            ? (long)vertices * (vertices - 1) / 2
+            : seedEdges + (long)(vertices - edgesPerVertex - 1)
+                * edgesPerVertex;
+        return new SocialGraphGenerator(BARABASI_ALBERT, vertices, edges,
+            seed, edgesPerVertex, null, 0);
+    }
+
+
+    /**
+     * - Returns an R-MAT generator over 2^scale vertices. Each edge falls in
+     * the top-left, top-right, bottom-left or bottom-right quadrant with
+     * probability a, b, c and 1 - a - b - c; 0.57, 0.19, 0.19 is the usual
+     * social-network choice.
+     *
+     * @param scale
+     *            log2 of the number of vertices, 1 to 30
+     * @param edges
+     *            number of edges to generate
+     * @param a
+     *            top-left probability
+     * @param b
+     *            top-right probability
+     * @param c
+     *            bottom-left probability
+     * @param seed
+     *            random seed
+     * @return the generator
+     */
+    public static SocialGraphGenerator rmat(
+        int scale,
+        long edges,
+        double a,
+        double b,
+        double c,
+        long seed) {
+        if (scale < 1 || scale > 30 || edges < 0 || a < 0 || b < 0 || c < 0
+            || a + b + c > 1) {
+            throw new IllegalArgumentException("invalid R-MAT parameters");
+        }
+        return new SocialGraphGenerator(RMAT, 1 << scale, edges, seed, scale,
+            new double[] { a, a + b, a + b + c }, 0);
+    }
+
+
+    /**
+     * - Returns a Watts-Strogatz generator: a ring in which every vertex is
+     * joined to its neighbors closest neighbors, neighbors / 2 on each side,
+     * and each edge's far end is moved to a random vertex with probability
+     * rewire.
+     *
+     * @param vertices
+     *            number of vertices
+     * @param neighbors
+     *            even number of lattice neighbors per vertex
+     * @param rewire
+     *            rewiring probability, 0 to 1
+     * @param seed
+     *            random seed
+     * @return the generator
+     */
+    public static SocialGraphGenerator wattsStrogatz(
+        int vertices,
+        int neighbors,
+        double rewire,
+        long seed) {
+        if (vertices < 1 || neighbors < 2 || neighbors % 2 != 0
+            || neighbors >= vertices || rewire < 0 || rewire > 1) {
+            throw new IllegalArgumentException(
+                "invalid Watts-Strogatz parameters");
+        }
+        return new SocialGraphGenerator(WATTS_STROGATZ, vertices,
+            (long)vertices * (neighbors / 2), seed, neighbors / 2, null,
+            rewire);
+    }
+
+
+    /**
+     * - Returns the number of vertices.
+     * O(1)
+     *
+     * @return number of vertices
+     */
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+
+    /**
+     * - Returns the number of edges generated. For Barabasi-Albert this is
+     * the number of distinct friendships; R-MAT and Watts-Strogatz count
+     * their duplicates and self-loops too.
+     * O(1)
+     *
+     * @return number of generated edges
+     */
+    public long getNumberOfEdges() {
+        return edges;
+    }
+
+
+    /**
+     * - Generates every edge into sink on the common ForkJoinPool.
+     * O(E / p) for p workers, O(E log E / p) for Barabasi-Albert
+     *
+     * @param sink
+     *            receives the edges
+     */
+    public void generate(EdgeSink sink) {
+        generate(sink, ForkJoinPool.commonPool());
+    }
+
+
+    /**
+     * - Generates every edge into sink, in chunks run on pool.
+     * O(E / p) for p workers, O(E log E / p) for Barabasi-Albert
+     *
+     * @param sink
+     *            receives the edges
+     * @param pool
+     *            pool to run on
+     */
+    public void generate(EdgeSink sink, ForkJoinPool pool) {
+        long chunks = (edges + CHUNK - 1) / CHUNK;
+        pool.submit(() -> LongStream.range(0, chunks).parallel().forEach(
+            chunk -> generateChunk(chunk * CHUNK, Math.min(edges, (chunk + 1)
+                * CHUNK), sink))).join();
+    }
+
+
+    /**
+     * - Adds getNumberOfVertices() new users named "user0", "user1", ... to
+     * network and streams the generated friendships into it through bulk
+     * ingestion, one chunk at a time. Returns the new users in vertex order.
+     * O(E log E / p) for p workers
+     *
+     * @param network
+     *            network to fill
+     * @return the generated users
+     */
+    public List<Profile> populate(VTConnect network) {
+        List<Profile> users = new ArrayList<Profile>(vertices);
+        for (int v = 0; v < vertices; v++) {
+            users.add(new Profile("user" + v, ""));
+        }
+        network.addUsers(users);
+        int[] ids = new int[vertices];
+        for (int v = 0; v < vertices; v++) {
+            ids[v] = network.idOf(users.get(v));
+        }
+        generate((begins, ends, count) -> {
+            long[] packed = pack(ids, begins, ends, count);
+            synchronized (network) {
+                network.createFriendships(packed, 2 * count);
+            }
+        });
+        return users;
+    }
+
+
+    /**
+     * - Adds the label of every vertex to graph and streams the generated
+     * edges into it in both directions, as friendships, one chunk at a
+     * time.
+     * O(E log E / p) for p workers
+     *
+     * @param <T>
+     *            label type
+     * @param graph
+     *            graph to fill
+     * @param labels
+     *            label of each vertex, all distinct and new to graph
+     */
+    public <T> void populate(Graph<T> graph, IntFunction<T> labels) {
+        int[] ids = new int[vertices];
+        for (int v = 0; v < vertices; v++) {
+            T label = labels.apply(v);
+            if (!graph.addVertex(label)) {
+                throw new IllegalArgumentException("label " + label
+                    + " is null or already in the graph");
+            }
+            ids[v] = graph.idOf(label);
+        }
+        generate((begins, ends, count) -> {
+            long[] packed = pack(ids, begins, ends, count);
+            synchronized (graph) {
+                graph.addEdges(packed, 2 * count, null);
+            }
+        });
+    }
+
+
+    /**
+     * - generates edges [from, to) and hands them to sink.
+     */
+    private void generateChunk(long from, long to, EdgeSink sink) {
+        int count = (int)(to - from);
+        int[] begins = new int[count];
+        int[] ends = new int[count];
+        if (model == BARABASI_ALBERT) {
+            barabasiAlbertEdges(from, begins, ends, count);
+        }
+        else {
+            for (int i = 0; i < count; i++) {
+                if (model == RMAT) {
+                    rmatEdge(from + i, begins, ends, i);
+                }
+                else {
+                    wattsStrogatzEdge(from + i, begins, ends, i);
+                }
+            }
+        }
+        sink.accept(begins, ends, count);
+    }
+
+
+    /**
+     * - fills in Barabasi-Albert edges [from, from + count). Edges are
+     * numbered by begin vertex: vertex v <= degree has v edges, to every
+     * earlier vertex, and each later vertex has degree edges, whose targets
+     * are worked out together.
+     */
+    private void barabasiAlbertEdges(
+        long from,
+        int[] begins,
+        int[] ends,
+        int count) {
+        long seedEdges = seedEdges();
+        int[] targets = new int[degree];
+        int filled = -1;
+        for (int i = 0; i < count; i++) {
+            long edge = from + i;
+            int begin = beginVertex(edge);
+            begins[i] = begin;
+            if (edge < seedEdges) {
+                ends[i] = (int)(edge - (long)begin * (begin - 1) / 2);
+            }
+            else {
+                if (begin != filled) {
+                    attachmentTargets(begin, targets);
+                    filled = begin;
+                }
+                ends[i] = targets[(int)((edge - seedEdges) % degree)];
+            }
+        }
+    }
+
+
+    /**
+     * - number of edges in the starting clique on vertices 0 to degree.
+     */
+    private long seedEdges() {
+        return (long)degree * (degree + 1) / 2;
+    }
+
+
+    /**
+     * - begin vertex of Barabasi-Albert edge e.
+     */
+    private int beginVertex(long edge) {
+        long seedEdges = seedEdges();
+        if (edge >= seedEdges) {
+            return degree + 1 + (int)((edge - seedEdges) / degree);
+        }
+        int v = (int)((1 + Math.sqrt(1 + 8.0 * edge)) / 2);
+        while ((long)v * (v - 1) / 2 > edge) {
+            v--;
+        }
+        while ((long)v * (v + 1) / 2 <= edge) {
+            v++;
+        }
+        return v;
+    }
+
+
+    /**
+     * - fills targets with the degree distinct earlier vertices that vertex
+     * v > degree attaches to. A target already taken by one of v's earlier
+     * edges is drawn again, and after MAX_REDRAWS draws the next free vertex
+     * below v is used, so the loop ends however skewed the degrees are.
+     */
+    private void attachmentTargets(int v, int[] targets) {
+        long first = seedEdges() + (long)(v - degree - 1) * degree;
+        for (int slot = 0; slot < degree; slot++) {
+            long edge = first + slot;
+            long random = mix(seed + edge * GOLDEN);
+            int target = attachmentTarget(edge, random);
+            for (int draw = 0; taken(targets, slot, target); draw++) {
+                if (draw < MAX_REDRAWS) {
+                    random = mix(random);
+                    target = attachmentTarget(edge, random);
+                }
+                else {
+                    target = (target + 1) % v;
+                }
+            }
+            targets[slot] = target;
+        }
+    }
+
+
+    private static boolean taken(int[] targets, int count, int target) {
+        for (int i = 0; i < count; i++) {
+            if (targets[i] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * - a preferential end vertex for Barabasi-Albert edge e, drawn with
+     * random. Every edge e contributes two endpoints, number 2e (its begin
+     * vertex) and 2e + 1 (its end). Edge e copies a uniformly chosen
+     * endpoint of the edges of earlier vertices, which picks a vertex in
+     * proportion to its degree; an end endpoint is resolved by repeating the
+     * first choice of the edge it belongs to, or read off directly inside
+     * the clique. Every endpoint copied is below e's begin vertex, so the
+     * result is never a self-loop.
+     */
+    private int attachmentTarget(long edge, long random) {
+        long seedEdges = seedEdges();
+        while (true) {
+            long earlier = edge - (edge - seedEdges) % degree;
+            long endpoint = Long.remainderUnsigned(random, 2 * earlier);
+            long copied = endpoint >>> 1;
+            int begin = beginVertex(copied);
+            if ((endpoint & 1) == 0) {
+                return begin;
+            }
+            if (copied < seedEdges) {
+                return (int)(copied - (long)begin * (begin - 1) / 2);
+            }
+            edge = copied;
+            random = mix(seed + edge * GOLDEN);
+        }
+    }
+
+
+    private void rmatEdge(long edge, int[] begins, int[] ends, int i) {
+        long state = seed + edge * GOLDEN;
+        int row = 0;
+        int column = 0;
+        for (int level = 0; level < degree; level++) {
+            state += GOLDEN;
+            double u = (mix(state) >>> 11) * 0x1.0p-53;
+            row <<= 1;
+            column <<= 1;
+            if (u >= quadrants[2]) {
+                row |= 1;
+                column |= 1;
+            }
+            else if (u >= quadrants[1]) {
+                row |= 1;
+            }
+            else if (u >= quadrants[0]) {
+                column |= 1;
+            }
+        }
+        begins[i] = scramble(row);
+        ends[i] = scramble(column);
+    }
+
+
+    private void wattsStrogatzEdge(long edge, int[] begins, int[] ends, int i) {
+        int begin = (int)(edge / degree);
+        int end = (int)((begin + edge % degree + 1) % vertices);
+        long random = mix(seed + edge * GOLDEN);
+        if ((random >>> 11) * 0x1.0p-53 < rewire) {
+            end = (int)Long.remainderUnsigned(mix(random), vertices);
+        }
+        begins[i] = begin;
+        ends[i] = end;
+    }
+
+
+    /**
+     * - a bijection on R-MAT vertex ids: odd multiplier and offset modulo
+     * the power-of-two vertex count.
+     */
+    private int scramble(int id) {
+        return (int)((id * (mix(seed) | 1) + mix(~seed)) & (vertices - 1));
+    }
+
+
+    private static long[] pack(int[] ids, int[] begins, int[] ends, int count) {
+        long[] packed = new long[2 * count];
+        for (int i = 0; i < count; i++) {
+            int begin = ids[begins[i]];
+            int end = ids[ends[i]];
+            packed[2 * i] = ((long)begin << 32) | end;
+            packed[2 * i + 1] = ((long)end << 32) | begin;
+        }
+        return packed;
+    }
+
+
+    /**
+     * - SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
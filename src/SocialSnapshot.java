@@ -0,0 +1,524 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Compact binary snapshot of a social graph, read back through
+ *          memory-mapped buffers. The file is little-endian and holds, in
+ *          order:
+ *
+ *          a 32 byte header (magic, format version, id bound, user count,
+ *          directed edge count, string pool size, and the sequence number
+ *          of the last MutationLog record the snapshot includes, 0 for
+ *          none);
+ *
+ *          the vertex table, three ints per vertex id: the offset of the
+ *          user's strings in the pool (-1 for a free id), the length of the
+ *          name and the length of the status (-1 for null);
+ *
+ *          the CSR adjacency, id bound + 1 edge offsets followed by the end
+ *          id of every edge, in the order the graph stored them;
+ *
+ *          the string pool, each user's name and status in UTF-8.
+ *
+ *          Vertex ids are kept as they are, free ids included, so a loaded
+ *          graph hands out the same ids as the one that was saved. An opened
+ *          snapshot answers friendship queries straight from the mapped
+ *          file, without copying it onto the heap.
+ *
+ */
+public class SocialSnapshot {
+
+    private static final int MAGIC = 0x56544353;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int VERTEX_INTS = 3;
+    private static final int FREE = -1;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final int bound;
+    private final int userCount;
+    private final long sequence;
+    private final IntBuffer vertexTable;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final ByteBuffer pool;
+    private final TraversalContext.Pool traversalPool =
+        new TraversalContext.Pool();
+
+    private SocialSnapshot(
+        int bound,
+        int userCount,
+        long sequence,
+        IntBuffer vertexTable,
+        IntBuffer offsets,
+        IntBuffer targets,
+        ByteBuffer pool) {
+        this.bound = bound;
+        this.userCount = userCount;
+        this.sequence = sequence;
+        this.vertexTable = vertexTable;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.pool = pool;
+    }
+
+
+    /**
+     * - Writes a snapshot of graph to file. The snapshot is written to a
+     * temporary file next to it and moved into place, so a crash never
+     * leaves a half-written snapshot behind. The directory is forced to
+     * disk after the move, so once this returns the new snapshot survives a
+     * crash too. The graph must not change during the call.
+     * O(|V|+|E|)
+     *
+     * @param graph
+     *            graph to save
+     * @param file
+     *            file to write
+     * @param sequence
+     *            last mutation log sequence number the graph includes
+     * @throws IOException
+     *             if the file cannot be written or a section would not fit
+     *             in one mapping
+     */
+    static void write(Graph<Profile> graph, Path file, long sequence)
+        throws IOException {
+        int bound = graph.idBound();
+        byte[][] names = new byte[bound][];
+        byte[][] statuses = new byte[bound][];
+        int[] poolOffsets = new int[bound];
+        int users = 0;
+        long poolBytes = 0;
+        long edges = 0;
+        for (int id = 0; id < bound; id++) {
+            AdjacencyList out = graph.adjacencyOf(id);
+            if (out == null) {
+                poolOffsets[id] = FREE;
+                continue;
+            }
+            Profile user = graph.labelOf(id);
+            names[id] = encode(user.getName());
+            statuses[id] = encode(user.getStatus());
+            poolOffsets[id] = (int)poolBytes;
+            poolBytes += length(names[id]) + length(statuses[id]);
+            edges += out.size();
+            users++;
+            if (poolBytes > Integer.MAX_VALUE) {
+                throw new IOException("string pool is too large to map");
+            }
+        }
+        if (edges * 4 > Integer.MAX_VALUE || (bound + 1L) * 4
+            * VERTEX_INTS > Integer.MAX_VALUE) {
+            throw new IOException("graph is too large to map");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(bound).putInt(users)
+                .putInt((int)edges).putInt((int)poolBytes).putLong(sequence);
+            for (int id = 0; id < bound; id++) {
+                buffer = reserve(channel, buffer, 4 * VERTEX_INTS);
+                buffer.putInt(poolOffsets[id]);
+                buffer.putInt(lengthOrNull(names[id]));
+                buffer.putInt(lengthOrNull(statuses[id]));
+            }
+            int offset = 0;
+            buffer = reserve(channel, buffer, 4);
+            buffer.putInt(offset);
+            for (int id = 0; id < bound; id++) {
+                AdjacencyList out = graph.adjacencyOf(id);
+                offset += (out == null) ? 0 : out.size();
+                buffer = reserve(channel, buffer, 4);
+                buffer.putInt(offset);
+            }
+            for (int id = 0; id < bound; id++) {
+                AdjacencyList out = graph.adjacencyOf(id);
+                for (int i = 0; out != null && i < out.size(); i++) {
+                    buffer = reserve(channel, buffer, 4);
+                    buffer.putInt(out.target(i));
+                }
+            }
+            for (int id = 0; id < bound; id++) {
+                buffer = putBytes(channel, buffer, names[id]);
+                buffer = putBytes(channel, buffer, statuses[id]);
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+
+    /**
+     * - Maps the snapshot in file. Only the header is read; every other
+     * section is paged in by the operating system as it is used.
+     * O(1)
+     *
+     * @param file
+     *            snapshot file
+     * @return SocialSnapshot the mapped snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot
+     */
+    public static SocialSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + " has unknown snapshot version "
+                    + header.getInt(4));
+            }
+            int bound = header.getInt(8);
+            int users = header.getInt(12);
+            int edges = header.getInt(16);
+            int poolBytes = header.getInt(20);
+            long vertexStart = HEADER_BYTES;
+            long offsetStart = vertexStart + 4L * VERTEX_INTS * bound;
+            long targetStart = offsetStart + 4L * (bound + 1);
+            long poolStart = targetStart + 4L * edges;
+            if (bound < 0 || edges < 0 || poolBytes < 0
+                || poolStart + poolBytes != size) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            return new SocialSnapshot(bound, users, header.getLong(24), map(
+                channel, vertexStart, offsetStart - vertexStart).asIntBuffer(),
+                map(channel, offsetStart, targetStart - offsetStart)
+                    .asIntBuffer(), map(channel, targetStart, poolStart
+                        - targetStart).asIntBuffer(), map(channel, poolStart,
+                            poolBytes));
+        }
+    }
+
+
+    /**
+     * - Returns one more than the largest vertex id in the snapshot.
+     * O(1)
+     *
+     * @return id bound
+     */
+    public int idBound() {
+        return bound;
+    }
+
+
+    /**
+     * - Returns the sequence number of the last mutation log record included
+     * in the snapshot, 0 if none.
+     * O(1)
+     *
+     * @return sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+
+    /**
+     * - Returns the number of users in the snapshot.
+     * O(1)
+     *
+     * @return number of users
+     */
+    public int getNumberOfUsers() {
+        return userCount;
+    }
+
+
+    /**
+     * - Returns the number of friendships in the snapshot.
+     * O(1)
+     *
+     * @return number of friendships
+     */
+    public int getNumberOfFriendships() {
+        return offsets.get(bound) / 2;
+    }
+
+
+    /**
+     * - Returns true if id belongs to a user, false if it is out of range or
+     * was free when the snapshot was taken.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     * @return boolean true if id is a user
+     */
+    public boolean isUser(int id) {
+        return id >= 0 && id < bound && vertexTable.get(id
+            * VERTEX_INTS) != FREE;
+    }
+
+
+    /**
+     * - Returns the name of the user with the given id.
+     * O(length of the name)
+     *
+     * @param id
+     *            user id
+     * @return the name
+     */
+    public String getName(int id) {
+        int start = vertexTable.get(id * VERTEX_INTS);
+        return decode(start, vertexTable.get(id * VERTEX_INTS + 1));
+    }
+
+
+    /**
+     * - Returns the status of the user with the given id.
+     * O(length of the status)
+     *
+     * @param id
+     *            user id
+     * @return the status
+     */
+    public String getStatus(int id) {
+        int start = vertexTable.get(id * VERTEX_INTS);
+        int nameLength = Math.max(vertexTable.get(id * VERTEX_INTS + 1), 0);
+        return decode(start + nameLength, vertexTable.get(id * VERTEX_INTS
+            + 2));
+    }
+
+
+    /**
+     * - Returns the number of friends of the user with the given id.
+     * O(1)
+     *
+     * @param id
+     *            user id
+     * @return number of friends
+     */
+    public int getNumberOfFriends(int id) {
+        return offsets.get(id + 1) - offsets.get(id);
+    }
+
+
+    /**
+     * - Returns the id of the index-th friend of the user with the given id.
+     * O(1)
+     *
+     * @param id
+     *            user id
+     * @param index
+     *            0 <= index < getNumberOfFriends(id)
+     * @return friend id
+     */
+    public int getFriend(int id, int index) {
+        return targets.get(offsets.get(id) + index);
+    }
+
+
+    /**
+     * - Returns true if the users with ids a and b are friends. Scans the
+     * shorter of the two friend lists.
+     * O(min(deg a, deg b))
+     *
+     * @param a
+     *            user id
+     * @param b
+     *            user id
+     * @return boolean true if they are friends
+     */
+    public boolean hasFriendship(int a, int b) {
+        if (!isUser(a) || !isUser(b)) {
+            return false;
+        }
+        if (getNumberOfFriends(b) < getNumberOfFriends(a)) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        for (int e = offsets.get(a); e < offsets.get(a + 1); e++) {
+            if (targets.get(e) == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * - Returns the number of hops between the users with ids a and b, read
+     * from the mapped adjacency, or -1 if they are the same user or not
+     * connected, as VTConnect.friendshipDistance does. Safe to call from
+     * many threads at once.
+     * O(|V|+|E|)
+     *
+     * @param a
+     *            user id
+     * @param b
+     *            user id
+     * @return int number of hops or -1
+     */
+    public int friendshipDistance(int a, int b) {
+        if (!isUser(a) || !isUser(b) || a == b) {
+            return -1;
+        }
+        TraversalContext context = traversalPool.acquire(bound);
+        try {
+            context.visit(a);
+            context.enqueue(a);
+            while (context.hasQueued()) {
+                int id = context.dequeue();
+                int cost = context.getCost(id) + 1;
+                for (int e = offsets.get(id); e < offsets.get(id + 1); e++) {
+                    int next = targets.get(e);
+                    if (next == b) {
+                        return cost;
+                    }
+                    if (!context.isVisited(next)) {
+                        context.visit(next, id, cost);
+                        context.enqueue(next);
+                    }
+                }
+            }
+            return -1;
+        }
+        finally {
+            traversalPool.release(context);
+        }
+    }
+
+
+    /**
+     * - Fills the empty graph with the users and friendships of this
+     * snapshot. Every user gets a new Profile whose friend list is in the
+     * order the adjacency was saved in.
+     * O((|V|+|E|) / p) for p workers
+     *
+     * @param graph
+     *            empty graph to fill
+     */
+    void restoreInto(Graph<Profile> graph) {
+        List<Profile> users = new ArrayList<Profile>(bound);
+        for (int id = 0; id < bound; id++) {
+            users.add(isUser(id)
+                ? new Profile(getName(id), getStatus(id), new ArrayList<
+                    Profile>(getNumberOfFriends(id)))
+                : null);
+        }
+        graph.restore(users, offsets, targets, (a, b) -> a.addFriend(b));
+    }
+
+
+    private String decode(int start, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = pool.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * - Forces the entries of directory to disk, so a file just moved into it
+     * stays there after a crash. Windows cannot open a directory as a
+     * channel, so it is skipped there.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        if (File.separatorChar == '\\') {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory,
+            StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+
+    private static byte[] encode(String text) {
+        return (text == null) ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+
+    private static int length(byte[] bytes) {
+        return (bytes == null) ? 0 : bytes.length;
+    }
+
+
+    private static int lengthOrNull(byte[] bytes) {
+        return (bytes == null) ? -1 : bytes.length;
+    }
+
+
+    private static ByteBuffer map(FileChannel channel, long start, long size)
+        throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, size).order(
+            ByteOrder.LITTLE_ENDIAN);
+    }
+
+
+    /**
+     * - Makes room for bytes more bytes, writing the buffer out if it is
+     * full.
+     */
+    private static ByteBuffer reserve(
+        FileChannel channel,
+        ByteBuffer buffer,
+        int bytes)
+        throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain(channel, buffer);
+        }
+        return buffer;
+    }
+
+
+    private static ByteBuffer putBytes(
+        FileChannel channel,
+        ByteBuffer buffer,
+        byte[] bytes)
+        throws IOException {
+        for (int at = 0; bytes != null && at < bytes.length;) {
+            buffer = reserve(channel, buffer, 1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - at);
+            buffer.put(bytes, at, chunk);
+            at += chunk;
+        }
+        return buffer;
+    }
+
+
+    private static void drain(FileChannel channel, ByteBuffer buffer)
+        throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
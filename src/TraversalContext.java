@@ -0,0 +1,258 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Per-query traversal state indexed by vertex id: visited marks,
+ *          predecessors, costs and a work queue. A vertex counts as visited
+ *          only if its mark equals the current epoch, so starting a new query
+ *          is O(1) instead of a pass that resets every vertex. Contexts are
+ *          borrowed from a Pool and never shared between threads, which lets
+ *          many queries run against one graph at the same time.
+ *
+ */
+public class TraversalContext {
+
+    private int[] marks;
+    private int[] predecessors;
+    private int[] costs;
+    private int[] queue;
+    private int epoch;
+    private int head;
+    private int tail;
+    private int bound;
+    private IndexedMinHeap heap;
+
+    /**
+     * - initializes a context that can index ids below bound.
+     *
+     * @param bound
+     *            one more than the largest vertex id
+     */
+    public TraversalContext(int bound) {
+        int size = Math.max(bound, 1);
+        this.marks = new int[size];
+        this.predecessors = new int[size];
+        this.costs = new int[size];
+        this.queue = new int[size];
+        this.epoch = 0;
+    }
+
+
+    /**
+     * - Starts a new query over ids below bound. Everything is unvisited and
+     * the queue is empty afterwards.
+     * O(1) amortized
+     *
+     * @param bound
+     *            one more than the largest vertex id
+     */
+    public void begin(int bound) {
+        if (bound > marks.length) {
+            int grown = Math.max(bound, marks.length * 2);
+            marks = Arrays.copyOf(marks, grown);
+            predecessors = new int[grown];
+            costs = new int[grown];
+            queue = new int[grown];
+        }
+        epoch++;
+        if (epoch == 0) {
+            // the stamp wrapped around, old marks could look current
+            Arrays.fill(marks, 0);
+            epoch = 1;
+        }
+        head = 0;
+        tail = 0;
+        this.bound = bound;
+    }
+
+
+    /**
+     * - Returns true if id was visited in the current query.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     * @return boolean true if visited
+     */
+    public boolean isVisited(int id) {
+        return marks[id] == epoch;
+    }
+
+
+    /**
+     * - Marks id as visited with no predecessor and a cost of 0.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     */
+    public void visit(int id) {
+        visit(id, -1, 0);
+    }
+
+
+    /**
+     * - Marks id as visited and records its predecessor and cost.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     * @param predecessor
+     *            id of the previous vertex on the path, or -1
+     * @param cost
+     *            cost of the path to id
+     */
+    public void visit(int id, int predecessor, int cost) {
+        marks[id] = epoch;
+        predecessors[id] = predecessor;
+        costs[id] = cost;
+    }
+
+
+    /**
+     * - Returns the predecessor recorded for a visited id, or -1.
+     * O(1)
+     *
+     * @param id
+     *            visited vertex id
+     * @return predecessor id
+     */
+    public int getPredecessor(int id) {
+        return predecessors[id];
+    }
+
+
+    /**
+     * - Returns the cost recorded for a visited id.
+     * O(1)
+     *
+     * @param id
+     *            visited vertex id
+     * @return cost
+     */
+    public int getCost(int id) {
+        return costs[id];
+    }
+
+
+    /**
+     * - Adds id to the back of the work queue. Each id may be queued at most
+     * once per query.
+     * O(1)
+     *
+     * @param id
+     *            vertex id
+     */
+    public void enqueue(int id) {
+        queue[tail++] = id;
+    }
+
+
+    /**
+     * - Removes and returns the id at the front of the work queue.
+     * O(1)
+     *
+     * @return vertex id
+     */
+    public int dequeue() {
+        return queue[head++];
+    }
+
+
+    /**
+     * - Returns true if the work queue is not empty.
+     * O(1)
+     *
+     * @return boolean true if there is queued work
+     */
+    public boolean hasQueued() {
+        return head < tail;
+    }
+
+
+    /**
+     * - Returns the number of ids queued so far in this query, including the
+     * ones already dequeued.
+     * O(1)
+     *
+     * @return number of queued ids
+     */
+    public int queuedCount() {
+        return tail;
+    }
+
+
+    /**
+     * - Returns the id queued at the given position in this query.
+     * O(1)
+     *
+     * @param position
+     *            0 <= position < queuedCount()
+     * @return vertex id
+     */
+    public int queuedAt(int position) {
+        return queue[position];
+    }
+
+
+    /**
+     * - Returns this context's priority queue, emptied, for weighted
+     * searches. The heap is created on first use and reused afterwards.
+     * O(1) amortized
+     *
+     * @return an empty heap for ids below the current bound
+     */
+    public IndexedMinHeap emptyHeap() {
+        if (heap == null) {
+            heap = new IndexedMinHeap(bound);
+        }
+        heap.clear(bound);
+        return heap;
+    }
+
+
+    /**
+     * @author Adam Schneider
+     * @version 2026-10-17
+     *
+     *          Thread-safe pool of traversal contexts for one graph.
+     */
+    public static class Pool {
+        private final ConcurrentLinkedQueue<TraversalContext> idle =
+            new ConcurrentLinkedQueue<TraversalContext>();
+
+        /**
+         * - Borrows a context and starts a new query on it.
+         *
+         * @param bound
+         *            one more than the largest vertex id
+         * @return a context for the calling thread
+         */
+        public TraversalContext acquire(int bound) {
+            TraversalContext context = idle.poll();
+            if (context == null) {
+                context = new TraversalContext(bound);
+            }
+            context.begin(bound);
+            return context;
+        }
+
+
+        /**
+         * - Returns a borrowed context to the pool.
+         *
+         * @param context
+         *            context from acquire
+         */
+        public void release(TraversalContext context) {
+            idle.offer(context);
+        }
+    }
+}
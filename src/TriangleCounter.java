@@ -0,0 +1,324 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ * @param <T>
+ *
+ *            Parallel triangle count and local clustering coefficients of a
+ *            CsrGraph, treating every edge as undirected. Each edge is
+ *            oriented from the endpoint of lower degree to the one of higher
+ *            degree, ties by id, which leaves every vertex with at most
+ *            O(sqrt(E)) out-neighbors. The oriented lists are sorted, and
+ *            every triangle a < b < c in that order is found exactly once,
+ *            as the common out-neighbor c of the oriented edge a -> b, by
+ *            merging the two sorted lists. Vertex ranges are split across a
+ *            ForkJoinPool for sorting and for counting.
+ *
+ *            The counts are computed once by the constructor; the snapshot's
+ *            ids stay valid for the getters.
+ *
+ */
+public class TriangleCounter<T> {
+
+    private static final int GRAIN = 512;
+
+    private final CsrGraph<T> graph;
+    private final int bound;
+    private final int[] degrees;
+    private final AtomicLongArray triangles;
+    private final long total;
+
+    /**
+     * - initializes the counter and counts the triangles of graph on pool.
+     * O(E sqrt(E) / p) for p workers
+     *
+     * @param graph
+     *            snapshot to count
+     * @param pool
+     *            pool to run on
+     */
+    public TriangleCounter(CsrGraph<T> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.bound = graph.idBound();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        // rank by raw degree, both directions, so the order is total
+        int[] rawDegrees = new int[bound];
+        for (int id = 0; id < bound; id++) {
+            rawDegrees[id] += offsets[id + 1] - offsets[id];
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                rawDegrees[targets[e]]++;
+            }
+        }
+        int[] orientedOffsets = new int[bound + 1];
+        for (int id = 0; id < bound; id++) {
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                int other = targets[e];
+                if (other != id) {
+                    orientedOffsets[lower(rawDegrees, id, other) + 1]++;
+                }
+            }
+        }
+        for (int id = 0; id < bound; id++) {
+            orientedOffsets[id + 1] += orientedOffsets[id];
+        }
+        int[] oriented = new int[orientedOffsets[bound]];
+        int[] ends = Arrays.copyOf(orientedOffsets, bound);
+        for (int id = 0; id < bound; id++) {
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                int other = targets[e];
+                if (other != id) {
+                    int from = lower(rawDegrees, id, other);
+                    oriented[ends[from]++] = (from == id) ? other : id;
+                }
+            }
+        }
+        // sort each list and drop the copy an edge stored both ways leaves
+        pool.invoke(new SortRows(orientedOffsets, oriented, ends, 0, bound));
+
+        this.degrees = new int[bound];
+        for (int id = 0; id < bound; id++) {
+            degrees[id] += ends[id] - orientedOffsets[id];
+            for (int e = orientedOffsets[id]; e < ends[id]; e++) {
+                degrees[oriented[e]]++;
+            }
+        }
+        this.triangles = new AtomicLongArray(bound);
+        this.total = pool.invoke(new CountRows(orientedOffsets, oriented, ends,
+            0, bound));
+    }
+
+
+    /**
+     * - Returns the number of triangles in the graph.
+     * O(1)
+     *
+     * @return long number of triangles
+     */
+    public long getTotal() {
+        return total;
+    }
+
+
+    /**
+     * - Returns the number of triangles vertexLabel is part of, or 0 if it
+     * is not in the graph.
+     * O(1)
+     *
+     * @param vertexLabel
+     *            the vertex
+     * @return long number of triangles through the vertex
+     */
+    public long getTriangles(T vertexLabel) {
+        int id = graph.idOf(vertexLabel);
+        return (id < 0) ? 0 : triangles.get(id);
+    }
+
+
+    /**
+     * - Returns the local clustering coefficient of vertexLabel: the share of
+     * pairs of its neighbors that are neighbors of each other, 0 for fewer
+     * than two neighbors or a vertex not in the graph.
+     * O(1)
+     *
+     * @param vertexLabel
+     *            the vertex
+     * @return double coefficient between 0 and 1
+     */
+    public double getClusteringCoefficient(T vertexLabel) {
+        int id = graph.idOf(vertexLabel);
+        return (id < 0) ? 0 : coefficient(id);
+    }
+
+
+    /**
+     * - Returns the mean local clustering coefficient over every vertex.
+     * O(|V|)
+     *
+     * @return double average coefficient, 0 for an empty graph
+     */
+    public double getAverageClusteringCoefficient() {
+        double sum = 0;
+        int vertices = 0;
+        for (int id = 0; id < bound; id++) {
+            if (graph.labelOf(id) != null) {
+                sum += coefficient(id);
+                vertices++;
+            }
+        }
+        return (vertices == 0) ? 0 : sum / vertices;
+    }
+
+
+    /**
+     * - Returns the global clustering coefficient (transitivity): three times
+     * the triangles over the number of paths of length two.
+     * O(|V|)
+     *
+     * @return double transitivity, 0 without any path of length two
+     */
+    public double getTransitivity() {
+        double wedges = 0;
+        for (int id = 0; id < bound; id++) {
+            wedges += (double)degrees[id] * (degrees[id] - 1) / 2;
+        }
+        return (wedges == 0) ? 0 : 3 * total / wedges;
+    }
+
+
+    private double coefficient(int id) {
+        long degree = degrees[id];
+        if (degree < 2) {
+            return 0;
+        }
+        return 2.0 * triangles.get(id) / (degree * (degree - 1));
+    }
+
+
+    /**
+     * - which of a and b ranks lower: smaller degree, then smaller id.
+     */
+    private static int lower(int[] rawDegrees, int a, int b) {
+        if (rawDegrees[a] != rawDegrees[b]) {
+            return (rawDegrees[a] < rawDegrees[b]) ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+
+    /**
+     * Sorts and deduplicates the oriented lists of vertex ids lo..hi, moving
+     * each list's end in ends.
+     */
+    private static class SortRows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] ends;
+        private final int lo;
+        private final int hi;
+
+        private SortRows(
+            int[] offsets,
+            int[] targets,
+            int[] ends,
+            int lo,
+            int hi) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.ends = ends;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new SortRows(offsets, targets, ends, lo, mid),
+                    new SortRows(offsets, targets, ends, mid, hi));
+                return;
+            }
+            for (int id = lo; id < hi; id++) {
+                int from = offsets[id];
+                Arrays.sort(targets, from, ends[id]);
+                int kept = from;
+                for (int e = from; e < ends[id]; e++) {
+                    if (kept == from || targets[kept - 1] != targets[e]) {
+                        targets[kept++] = targets[e];
+                    }
+                }
+                ends[id] = kept;
+            }
+        }
+    }
+
+
+    /**
+     * Counts the triangles whose lowest-ranked vertex is in lo..hi, adding
+     * each to the counts of its three vertices.
+     */
+    private class CountRows extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] ends;
+        private final int lo;
+        private final int hi;
+
+        private CountRows(
+            int[] offsets,
+            int[] targets,
+            int[] ends,
+            int lo,
+            int hi) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.ends = ends;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+
+        @Override
+        protected Long compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                CountRows left = new CountRows(offsets, targets, ends, lo,
+                    mid);
+                CountRows right = new CountRows(offsets, targets, ends, mid,
+                    hi);
+                left.fork();
+                long rightCount = right.compute();
+                return left.join() + rightCount;
+            }
+            long found = 0;
+            for (int a = lo; a < hi; a++) {
+                long throughA = 0;
+                for (int e = offsets[a]; e < ends[a]; e++) {
+                    int b = targets[e];
+                    // common out-neighbors of a and b close a triangle
+                    int i = offsets[a];
+                    int j = offsets[b];
+                    long throughAB = 0;
+                    while (i < ends[a] && j < ends[b]) {
+                        if (targets[i] < targets[j]) {
+                            i++;
+                        }
+                        else if (targets[i] > targets[j]) {
+                            j++;
+                        }
+                        else {
+                            triangles.incrementAndGet(targets[i]);
+                            throughAB++;
+                            i++;
+                            j++;
+                        }
+                    }
+                    if (throughAB > 0) {
+                        triangles.addAndGet(b, throughAB);
+                        throughA += throughAB;
+                    }
+                }
+                if (throughA > 0) {
+                    triangles.addAndGet(a, throughA);
+                    found += throughA;
+                }
+            }
+            return found;
+        }
+    }
+}
@@ -1,7 +1,17 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 
@@ -11,17 +21,147 @@ import java.util.Stack;
  * @author Adam Schneider
  * @version 2022-11-11
  *          SOURCE: A large portion of this was taken from the lecture
+ * 
+ *          In concurrent mode every method is thread-safe. Adding and removing
+ *          users takes an exclusive lock. Creating or removing a friendship
+ *          locks only the stripes of the two profiles involved, always in
+ *          stripe order so two threads can never wait on each other, so
+ *          unrelated friendships change in parallel. Queries take the shared
+ *          side of the user lock only and never wait for friendship changes.
  *
  */
 public class VTConnect {
 
+    private static final int LOCK_STRIPES = 256;
+
+    private static final String SNAPSHOT_FILE = "network.snapshot";
+    private static final String LOG_FILE = "mutations.log";
+
     private Graph<Profile> graph;
+    private volatile LandmarkIndex<Profile> landmarks;
+    private FriendSuggestionIndex<Profile> suggestions;
+    private MutationLog log;
+    private Path directory;
+    private volatile OperationMetrics metrics;
+    private volatile DistanceCache distanceCache;
+    private volatile PageRank.Scores<Profile> influence;
+    private final ReentrantReadWriteLock userLock;
+    private final ReentrantLock[] stripes;
 
     /**
      * - initializes the social networking app.
      */
     public VTConnect() {
+        this(false);
+    }
+
+
+    /**
+     * - initializes the social networking app, thread-safe if concurrent is
+     * true. A non-concurrent app does no locking at all.
+     * 
+     * @param concurrent
+     *            true to allow calls from many threads at once
+     */
+    public VTConnect(boolean concurrent) {
         this.graph = new Graph<Profile>();
+        this.landmarks = null;
+        if (concurrent) {
+            this.userLock = new ReentrantReadWriteLock();
+            this.stripes = new ReentrantLock[LOCK_STRIPES];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new ReentrantLock();
+            }
+        }
+        else {
+            this.userLock = null;
+            this.stripes = null;
+        }
+    }
+
+
+    /**
+     * - Builds a landmark distance index over the current network with the
+     * given number of landmarks and keeps it up to date from then on.
+     * Friendship changes are queued for the index and applied by the next
+     * distance query that finds the exclusive lock free; queries search
+     * instead while it is behind. A count of 0 or less drops the index.
+     * O(k(n+E)), spread across cores
+     * 
+     * @param landmarkCount
+     *            number of landmark profiles
+     */
+    public void enableLandmarkIndex(int landmarkCount) {
+        lockUsers();
+        try {
+            if (landmarkCount <= 0) {
+                landmarks = null;
+            }
+            else {
+                landmarks = new LandmarkIndex<Profile>(graph, landmarkCount);
+            }
+        }
+        finally {
+            unlockUsers();
+        }
+    }
+
+
+    /**
+     * - Builds a friends-of-friends index over the current network and keeps
+     * it up to date from then on, so ranked friendSuggestion(user, k) is a
+     * lookup of mutual-friend counts. Users with more than hubDegree friends
+     * are counted on demand instead of kept in the index. Friendship changes
+     * are queued for the index and applied by the next ranked
+     * friendSuggestion, under the exclusive lock. A hubDegree of 0 or less
+     * drops the index.
+     * O(E * hubDegree)
+     * 
+     * @param hubDegree
+     *            friend count above which a user is handled lazily
+     */
+    public void enableFriendSuggestionIndex(int hubDegree) {
+        lockUsers();
+        try {
+            if (hubDegree <= 0) {
+                suggestions = null;
+            }
+            else {
+                suggestions = new FriendSuggestionIndex<Profile>(graph,
+                    hubDegree);
+            }
+        }
+        finally {
+            unlockUsers();
+        }
+    }
+
+
+    /**
+     * - Puts a bounded LRU cache in front of friendshipDistance and
+     * estimateFriendshipDistance holding up to capacity pairs of users. A
+     * cached distance is kept across changes that cannot affect it: added
+     * friendships leave direct friends alone, and removals leave
+     * disconnected pairs alone. A capacity of 0 or less drops the cache.
+     * O(1)
+     * 
+     * @param capacity
+     *            maximum number of cached pairs
+     */
+    public void enableDistanceCache(int capacity) {
+        distanceCache = (capacity <= 0) ? null : new DistanceCache(capacity);
+    }
+
+
+    /**
+     * - Returns the distance cache, for its hit and miss counts, or null if
+     * none is enabled.
+     * O(1)
+     * 
+     * @return DistanceCache the cache or null
+     */
+    public DistanceCache getDistanceCache() {
+        return distanceCache;
     }
 
 
@@ -32,7 +172,67 @@ public class VTConnect {
      * @param p
      */
     public void addUser(Profile p) {
-        graph.addVertex(p);
+        long started = startTimer();
+        try {
+            long logged = 0;
+            lockUsers();
+            try {
+                if (graph.addVertex(p)) {
+                    if (landmarks != null) {
+                        landmarks.vertexAdded(p);
+                    }
+                    logged = logUser(p);
+                }
+            }
+            finally {
+                unlockUsers();
+            }
+            awaitLogged(logged);
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.ADD_USER, started);
+        }
+    }
+
+
+    /**
+     * - Adds many new users at once. Users that already exist are skipped.
+     * Returns the number of users added.
+     * O(n)
+     * 
+     * @param users
+     *            profiles to add
+     * @return int number of users added
+     */
+    public int addUsers(Collection<Profile> users) {
+        long started = startTimer();
+        try {
+            long logged = 0;
+            int added = 0;
+            lockUsers();
+            try {
+                if (landmarks == null && log == null) {
+                    return graph.addVertices(users);
+                }
+                for (Profile p : users) {
+                    if (graph.addVertex(p)) {
+                        if (landmarks != null) {
+                            landmarks.vertexAdded(p);
+                        }
+                        logged = logUser(p);
+                        added++;
+                    }
+                }
+            }
+            finally {
+                unlockUsers();
+            }
+            awaitLogged(logged);
+            return added;
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.ADD_USERS, started);
+        }
     }
 
 
@@ -45,15 +245,44 @@ public class VTConnect {
      * @return profile of removed user
      */
     public Profile removeUser(Profile p) {
-        if (!exists(p)) {
-            return null;
+        long started = startTimer();
+        try {
+            long logged = 0;
+            Profile removed;
+            lockUsers();
+            try {
+                if (!graph.containsVertex(p)) {
+                    return null;
+                }
+                ArrayList<Profile> list = p.getFriendProfiles();
+                for (int i = p.getFriendProfiles().size() - 1; i >= 0; i--) {
+                    Profile p2 = list.get(i);
+                    detachFriendship(p, p2);
+                }
+                if (log != null) {
+                    p.setChangeListener(null);
+                    logged = log.append(MutationLog.REMOVE_USER, graph.idOf(p),
+                        -1, null, null);
+                }
+                // the queued changes name p by id, which is about to go
+                if (landmarks != null) {
+                    landmarks.refresh();
+                    landmarks.vertexRemoved(p);
+                }
+                if (suggestions != null) {
+                    suggestions.refresh();
+                }
+                removed = graph.removeVertex(p).getLabel();
+            }
+            finally {
+                unlockUsers();
+            }
+            awaitLogged(logged);
+            return removed;
         }
-        ArrayList<Profile> list = p.getFriendProfiles();
-        for (int i = p.getFriendProfiles().size() - 1; i >= 0; i--) {
-            Profile p2 = list.get(i);
-            removeFriendship(p, p2);
+        finally {
+            stopTimer(OperationMetrics.Operation.REMOVE_USER, started);
         }
-        return graph.removeVertex(p).getLabel();
     }
 
 
@@ -67,19 +296,130 @@ public class VTConnect {
      * @return boolean true if the friendship is created successfully
      */
     public boolean createFriendship(Profile a, Profile b) {
-        if (!exists(a) || !exists(b)) {
-            return false;
+        long started = startTimer();
+        try {
+            long logged = 0;
+            lockShared();
+            lockPair(a, b);
+            try {
+                if (a == b || !graph.containsVertex(a) || !graph
+                    .containsVertex(b)) {
+                    return false;
+                }
+                if (graph.hasEdge(a, b)) {
+                    return false;
+                }
+                a.addFriend(b);
+                b.addFriend(a);
+                graph.addEdge(a, b);
+                graph.addEdge(b, a);
+                if (landmarks != null) {
+                    landmarks.edgeAdded(a, b);
+                }
+                if (suggestions != null) {
+                    suggestions.edgeAdded(a, b);
+                }
+                if (log != null) {
+                    logged = log.append(MutationLog.CREATE_FRIENDSHIP, graph
+                        .idOf(a), graph.idOf(b), null, null);
+                }
+            }
+            finally {
+                unlockPair(a, b);
+                unlockShared();
+            }
+            awaitLogged(logged);
+            return true;
         }
-        if (hasFriendship(a, b)) {
-            return false;
+        finally {
+            stopTimer(OperationMetrics.Operation.CREATE_FRIENDSHIP, started);
         }
-        a.addFriend(b);
-        b.addFriend(a);
-        graph.addEdge(a, b);
-        graph.addEdge(b, a);
+    }
+
+
+    /**
+     * - Creates many friendships at once, for loading an export. Pairs with a
+     * missing user, a user paired with itself, repeated pairs and existing
+     * friendships are skipped. The friendships are sorted, deduplicated and
+     * added in parallel with the adjacency presized, and the landmark index,
+     * if enabled, is rebuilt once on the next query instead of per edge.
+     * Returns the number of friendships created.
+     * O(E log E / p) for E pairs and p workers
+     * 
+     * @param pairs
+     *            the two users of each friendship
+     * @return int number of friendships created
+     */
+    public int createFriendships(
+        Collection<? extends Map.Entry<Profile, Profile>> pairs) {
+        long started = startTimer();
+        try {
+            int added;
+            lockUsers();
+            try {
+                added = graph.addEdges(pairs, true, this::friendAdded);
+                if (added > 0 && landmarks != null) {
+                    landmarks.invalidate();
+                }
+                if (added > 0 && suggestions != null) {
+                    suggestions.invalidate();
+                }
+            }
+            finally {
+                unlockUsers();
+            }
+            if (log != null) {
+                log.sync();
+            }
+            return added / 2;
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.CREATE_FRIENDSHIPS, started);
+        }
+    }
+
+
+    /**
+     * - Creates the friendships packed as (id << 32 | other id) in packed[0
+     * .. count), which must hold both directions of each friendship, the
+     * way createFriendships does for profile pairs. For generators that
+     * already work in user ids.
+     * O(E log E / p) for E packed ids and p workers
+     * 
+     * @param packed
+     *            packed user id pairs, overwritten
+     * @param count
+     *            number of packed pairs
+     * @return int number of friendships created
+     */
+    int createFriendships(long[] packed, int count) {
+        int added;
+        lockUsers();
+        try {
+            added = graph.addEdges(packed, count, this::friendAdded);
+            if (added > 0 && landmarks != null) {
+                landmarks.invalidate();
+            }
+            if (added > 0 && suggestions != null) {
+                suggestions.invalidate();
+            }
+        }
+        finally {
+            unlockUsers();
+        }
+        if (log != null) {
+            log.sync();
+        }
+        return added / 2;
+    }
 
-        return true;
 
+    /**
+     * - Returns the graph id of a user, or -1.
+     * O(1)
+     */
+    int idOf(Profile user) {
+        return graph.idOf(user);
     }
 
 
@@ -93,59 +433,92 @@ public class VTConnect {
      * @return boolean true if friendship was successfully removed
      */
     public boolean removeFriendship(Profile a, Profile b) {
-        if (!exists(a) || !exists(b)) {
-            return false;
-        }
-        
-        if (hasFriendship(a, b)) {
-            a.unFriend(b);
-            b.unFriend(a);
-            graph.removeEdge(a, b);
-            graph.removeEdge(b, a);
+        long started = startTimer();
+        try {
+            long logged = 0;
+            lockShared();
+            lockPair(a, b);
+            try {
+                if (!graph.containsVertex(a) || !graph.containsVertex(b)
+                    || !detachFriendship(a, b)) {
+                    return false;
+                }
+                if (log != null) {
+                    logged = log.append(MutationLog.REMOVE_FRIENDSHIP, graph
+                        .idOf(a), graph.idOf(b), null, null);
+                }
+            }
+            finally {
+                unlockPair(a, b);
+                // off the stripes, once per batch of removals
+                graph.rebuildComponentsIfDue();
+                unlockShared();
+            }
+            awaitLogged(logged);
             return true;
         }
-
-        return false;
-
+        finally {
+            stopTimer(OperationMetrics.Operation.REMOVE_FRIENDSHIP, started);
+        }
     }
 
 
     /**
      * - Returns true if there is friendship between Profiles a and b, false
-     * otherwise.
-     * O(n)
+     * otherwise. Reads the friendship edge instead of the friend list, so it
+     * is exact even while another thread changes a's friendships.
+     * O(1) expected
      * 
      * @param a
      * @param b
      * @return boolean true if there is friendship between Profiles a and b
      */
     public boolean hasFriendship(Profile a, Profile b) {
-        if (!exists(a) || !exists(b)) {
-            return false;
-        }
-        ArrayList<Profile> list = a.getFriendProfiles();
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(i).equals(b)) {
-                return true;
+        long started = startTimer();
+        try {
+            lockShared();
+            try {
+                return graph.hasEdge(a, b);
+            }
+            finally {
+                unlockShared();
             }
         }
-        return false;
+        finally {
+            stopTimer(OperationMetrics.Operation.HAS_FRIENDSHIP, started);
+        }
     }
 
 
     /**
      * - this method displays each profile's information and friends, starting
      * from the startPoint profile. See the sample run on the format of the
-     * display.
+     * display. Profiles are printed as the traversal reaches them instead
+     * of after it has finished. Each friend list is copied under its
+     * profile's stripe before printing, so friendships changing meanwhile
+     * cannot break the listing.
      * O(n+E)
      * 
      * @param startPoint
      */
     public void traverse(Profile startPoint) {
-        Queue<Profile> queue = graph.getBreadthFirstTraversal(startPoint);
-        while (!queue.isEmpty()) {
-            queue.poll().display();
-            System.out.println("");
+        long started = startTimer();
+        try {
+            lockShared();
+            try {
+                Iterator<Profile> order = graph.breadthFirstIterator(
+                    startPoint);
+                while (order.hasNext()) {
+                    display(order.next());
+                    System.out.println("");
+                }
+            }
+            finally {
+                unlockShared();
+            }
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.TRAVERSE, started);
         }
     }
 
@@ -160,14 +533,19 @@ public class VTConnect {
      *         VTConnect
      */
     public boolean exists(Profile user) {
-        List<VertexInterface<Profile>> allProfiles = graph.getVertices();
-
-        for (VertexInterface<Profile> profile : allProfiles) {
-            if (profile.getLabel().equals(user)) {
-                return true;
+        long started = startTimer();
+        try {
+            lockShared();
+            try {
+                return graph.containsVertex(user);
+            }
+            finally {
+                unlockShared();
             }
         }
-        return false;
+        finally {
+            stopTimer(OperationMetrics.Operation.EXISTS, started);
+        }
     }
 
 
@@ -176,27 +554,78 @@ public class VTConnect {
      * profile's friends (but not currently the profile's friend). It returns
      * null, if the user does not exist or if it does not have any friend
      * suggestions. Take a look at the sample run for an example.
-     * O(n^2)
+     * O(sum of the friend counts of the user's friends)
      * 
      * @param user
      * @return the list of profiles of friend suggestions
      */
     public List<Profile> friendSuggestion(Profile user) {
-        if (user == null || !exists(user)) {
-            return null;
+        long started = startTimer();
+        try {
+            if (user == null) {
+                return null;
+            }
+            List<Profile> res;
+            lockShared();
+            try {
+                res = graph.getSecondNeighbors(user);
+            }
+            finally {
+                unlockShared();
+            }
+            if (res.size() == 0) {
+                return null;
+            }
+            return res;
         }
-        List<Profile> res = new ArrayList<Profile>();
-        Queue<Profile> queue = graph.getBreadthFirstTraversal(user);
-        while (!queue.isEmpty()) {
-            Profile currProfile = queue.poll();
-            if (friendshipDistance(user, currProfile) == 2) {
-                res.add(currProfile);
+        finally {
+            stopTimer(OperationMetrics.Operation.FRIEND_SUGGESTION, started);
+        }
+    }
+
+
+    /**
+     * - Returns at most k friend suggestions for the user, ranked by how many
+     * mutual friends they have with the user, most first. Ties keep the order
+     * of friendSuggestion(user). It returns null, if the user does not exist
+     * or if it does not have any friend suggestions. With the friend
+     * suggestion index enabled the counts are looked up instead, and ties
+     * are broken by internal user id rather than discovery order. If the
+     * index has changes to catch up on while other threads hold the user
+     * lock, the query counts from the friend lists instead of waiting.
+     * O(m + c log k) for m friend-of-friend links and c candidates, O(c log
+     * k) plus the friends of hub friends with the index
+     * 
+     * @param user
+     * @param k
+     *            maximum number of suggestions
+     * @return the list of profiles of friend suggestions, best first
+     */
+    public List<Profile> friendSuggestion(Profile user, int k) {
+        long started = startTimer();
+        try {
+            if (user == null) {
+                return null;
+            }
+            FriendSuggestionIndex<Profile> index = catchUpSuggestions();
+            List<Profile> res;
+            lockShared();
+            try {
+                res = (index == null)
+                    ? graph.getSecondNeighbors(user, k)
+                    : index.getSecondNeighbors(user, k);
             }
+            finally {
+                unlockShared();
+            }
+            if (res.size() == 0) {
+                return null;
+            }
+            return res;
         }
-        if (res.size() == 0) {
-            return null;
+        finally {
+            stopTimer(OperationMetrics.Operation.FRIEND_SUGGESTION, started);
         }
-        return res;
     }
 
 
@@ -206,24 +635,713 @@ public class VTConnect {
      * example, if a and b are friends their friendship distance is 1. If they
      * have a common friend but they are not friends, their friendship distance
      * is 2. If either of the profiles are not in the social networking app, the
-     * method returns -1.
-     * O(n+E)
+     * method returns -1. Friendships are always stored in both directions, so
+     * this uses a bidirectional search that meets in the middle. With a
+     * landmark index, pairs it proves disconnected or pins to one distance
+     * are answered without searching, and other pairs by an A* search that
+     * its lower bounds guide toward the other profile.
+     * O(n+E) worst case, about O(b^(d/2)) for average degree b
      * 
      * @param a
      * @param b
      * @return distance between friends
      */
     public int friendshipDistance(Profile a, Profile b) {
-        if (!exists(a) || !exists(b)) {
+        long started = startTimer();
+        try {
+            catchUpLandmarks();
+            lockShared();
+            try {
+                return distance(a, b);
+            }
+            finally {
+                unlockShared();
+            }
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.FRIENDSHIP_DISTANCE, started);
+        }
+    }
+
+
+    /**
+     * - Returns an estimate of the friendship distance between two profiles
+     * that is never smaller than the real distance. With a landmark index it
+     * is the shortest route through a landmark and costs O(k); without one,
+     * or while it is behind on friendship changes, it is the exact
+     * friendshipDistance. Returns -1 if either profile is not in
+     * the social networking app or they are not connected.
+     * 
+     * @param a
+     * @param b
+     * @return estimated distance between friends
+     */
+    public int estimateFriendshipDistance(Profile a, Profile b) {
+        long started = startTimer();
+        try {
+            catchUpLandmarks();
+            lockShared();
+            try {
+                LandmarkIndex<Profile> index = landmarks;
+                if (index == null || !index.isCurrent()) {
+                    return distance(a, b);
+                }
+                if (!graph.containsVertex(a) || !graph.containsVertex(b)) {
+                    return -1;
+                }
+                int lower = index.lowerBound(a, b);
+                int upper = index.upperBound(a, b);
+                if (!index.isCurrent() || upper == Integer.MAX_VALUE
+                    && lower != Integer.MAX_VALUE) {
+                    // changed meanwhile, or no landmark reaches both
+                    return distance(a, b);
+                }
+                if (lower == Integer.MAX_VALUE) {
+                    return -1;
+                }
+                return (upper == 0) ? -1 : upper;
+            }
+            finally {
+                unlockShared();
+            }
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.ESTIMATE_FRIENDSHIP_DISTANCE,
+                started);
+        }
+    }
+
+
+    /**
+     * - Counts the triangles of mutual friends in the network and the
+     * clustering coefficient of every user, in parallel on the common
+     * ForkJoinPool. Users and friendships are copied under the lock and
+     * counted after it is released, so other calls only wait for the copy;
+     * the copy is shared with the other analyses until the next change.
+     * Later changes are not seen by the result.
+     * O(n+E) under the lock after a change, then O(E sqrt(E) / p) with p
+     * workers
+     * 
+     * @return triangles and clustering coefficients by user
+     */
+    public TriangleCounter<Profile> analyzeClustering() {
+        long started = startTimer();
+        try {
+            return snapshot().countTriangles();
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.ANALYZE_CLUSTERING, started);
+        }
+    }
+
+
+    /**
+     * - Ranks every user by influence (PageRank over the friendships) in
+     * parallel on the common ForkJoinPool. Users and friendships are copied
+     * under the lock and ranked after it is released; the copy and its
+     * transpose are reused until the next change. The scores are kept, and
+     * the next call starts from them, so after a few changes it needs far
+     * fewer iterations.
+     * O(n+E) under the lock after a change, then O((n+E) / p) per iteration
+     * with p workers
+     * 
+     * @return influence scores of every user, summing to 1
+     */
+    public PageRank.Scores<Profile> rankInfluence() {
+        long started = startTimer();
+        try {
+            PageRank<Profile> engine = new PageRank<Profile>(snapshot(),
+                ForkJoinPool.commonPool());
+            PageRank.Scores<Profile> scores = engine.rank(influence);
+            influence = scores;
+            return scores;
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.RANK_INFLUENCE, started);
+        }
+    }
+
+
+    /**
+     * - Returns the influence scores of the last rankInfluence call, or null
+     * if there was none. They do not reflect later changes.
+     * O(1)
+     * 
+     * @return last influence scores, or null
+     */
+    public PageRank.Scores<Profile> getInfluence() {
+        return influence;
+    }
+
+
+    /**
+     * - Ranks every user by influence as seen from user (personalized
+     * PageRank restarting at user), in parallel on the common ForkJoinPool.
+     * Every score is 0 if user is not in the social networking app.
+     * O(n+E) under the lock after a change, then O((n+E) / p) per iteration
+     * with p workers
+     * 
+     * @param user
+     *            the profile to rank for
+     * @return influence scores relative to user
+     */
+    public PageRank.Scores<Profile> personalizedInfluence(Profile user) {
+        long started = startTimer();
+        try {
+            PageRank<Profile> engine = new PageRank<Profile>(snapshot(),
+                ForkJoinPool.commonPool());
+            return engine.personalizedRank(Collections.singleton(user), null);
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.PERSONALIZED_INFLUENCE,
+                started);
+        }
+    }
+
+
+    /**
+     * - Saves every user and friendship to a binary snapshot file. The
+     * landmark index is not saved.
+     * O(n+E)
+     * 
+     * @param file
+     *            file to write
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        long started = startTimer();
+        try {
+            lockUsers();
+            try {
+                SocialSnapshot.write(graph, file, (log == null)
+                    ? 0
+                    : log.getSequence());
+            }
+            finally {
+                unlockUsers();
+            }
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.SAVE, started);
+        }
+    }
+
+
+    /**
+     * - Loads a social network saved with save. Users keep the ids they had,
+     * so the loaded network behaves exactly like the saved one.
+     * O((n+E) / p) for p workers
+     * 
+     * @param file
+     *            snapshot file
+     * @param concurrent
+     *            true to allow calls from many threads at once
+     * @return VTConnect the loaded network
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot
+     */
+    public static VTConnect load(Path file, boolean concurrent)
+        throws IOException {
+        VTConnect network = new VTConnect(concurrent);
+        SocialSnapshot.open(file).restoreInto(network.graph);
+        return network;
+    }
+
+
+    /**
+     * - Opens the durable network kept in directory. The latest snapshot is
+     * loaded, if there is one, and the mutation log is replayed on top of
+     * it. From then on every change to users, friendships, names and
+     * statuses is appended to the log, and each call returns once its change
+     * is on disk. Concurrent changes share one fsync (group commit). If the
+     * log cannot be written, the change is already made in memory and is not
+     * rolled back: the call throws UncheckedIOException, and so does every
+     * later change, as the log stays failed. Reopening the directory then
+     * gives the network without the changes that never reached the log.
+     * O((n+E) / p + log size) for p workers
+     * 
+     * @param directory
+     *            directory holding the snapshot and the log, created if
+     *            missing
+     * @param concurrent
+     *            true to allow calls from many threads at once
+     * @return VTConnect the recovered network
+     * @throws IOException
+     *             if the files cannot be read or do not match
+     */
+    public static VTConnect open(Path directory, boolean concurrent)
+        throws IOException {
+        Files.createDirectories(directory);
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        VTConnect network = new VTConnect(concurrent);
+        long sequence = 0;
+        if (Files.exists(snapshotFile)) {
+            SocialSnapshot snapshot = SocialSnapshot.open(snapshotFile);
+            snapshot.restoreInto(network.graph);
+            sequence = snapshot.getSequence();
+        }
+        try {
+            sequence = MutationLog.replay(directory.resolve(LOG_FILE),
+                sequence, network::replay);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        network.directory = directory;
+        network.log = new MutationLog(directory.resolve(LOG_FILE), sequence);
+        List<VertexInterface<Profile>> users = network.graph.getVertices();
+        for (int i = 0; users != null && i < users.size(); i++) {
+            users.get(i).getLabel().setChangeListener(network::logProfile);
+        }
+        return network;
+    }
+
+
+    /**
+     * - Rolls the mutation log into a new snapshot and empties the log, so
+     * the next open replays nothing. Only for networks from open. A crash at
+     * any point leaves either the old snapshot and log or the new snapshot,
+     * which records how much of the log it includes; the log is only
+     * emptied once the new snapshot and its directory entry are on disk.
+     * O(n+E)
+     * 
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    public void checkpoint() throws IOException {
+        long started = startTimer();
+        try {
+            lockUsers();
+            try {
+                log.sync();
+                SocialSnapshot.write(graph, directory.resolve(SNAPSHOT_FILE),
+                    log.getSequence());
+                log.truncate();
+            }
+            finally {
+                unlockUsers();
+            }
+        }
+        finally {
+            stopTimer(OperationMetrics.Operation.CHECKPOINT, started);
+        }
+    }
+
+
+    /**
+     * - Flushes and closes the mutation log of a network from open. Later
+     * changes are no longer logged.
+     * 
+     * @throws IOException
+     *             if the last changes cannot be written
+     */
+    public void close() throws IOException {
+        lockUsers();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        }
+        finally {
+            unlockUsers();
+        }
+    }
+
+
+    /**
+     * - Starts recording the call count and latency of every public
+     * operation, and returns the metrics. Calling it again returns the same
+     * metrics. While metrics are off each operation pays one field read.
+     * O(1)
+     * 
+     * @return OperationMetrics the live metrics
+     */
+    public synchronized OperationMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new OperationMetrics();
+        }
+        return metrics;
+    }
+
+
+    /**
+     * - Stops recording metrics. Snapshots taken before stay valid.
+     * O(1)
+     */
+    public synchronized void disableMetrics() {
+        metrics = null;
+    }
+
+
+    /**
+     * - Returns the live metrics, or null if they are off.
+     * O(1)
+     * 
+     * @return OperationMetrics the metrics or null
+     */
+    public OperationMetrics getMetrics() {
+        return metrics;
+    }
+
+
+    /**
+     * - friendshipDistance for a caller that holds the shared lock.
+     */
+    private int distance(Profile a, Profile b) {
+        int aId = graph.idOf(a);
+        int bId = graph.idOf(b);
+        if (aId < 0 || bId < 0 || aId == bId) {
             return -1;
         }
+        DistanceCache cache = distanceCache;
+        if (cache == null) {
+            return search(a, b);
+        }
+        // epochs are read before searching so that a change made meanwhile
+        // already outdates the cached result
+        long additions = graph.getAdditionEpoch();
+        long removals = graph.getRemovalEpoch();
+        long key = DistanceCache.unorderedKey(aId, bId);
+        DistanceCache.Entry cached = cache.get(key, additions, removals);
+        if (cached != null) {
+            return cached.getDistance();
+        }
+        int res = search(a, b);
+        cache.put(key, res, null, additions, removals);
+        return res;
+    }
+
+
+    /**
+     * - distance between two distinct users in the graph, or -1 if they are
+     * not connected, from the landmark bounds, a search guided by them, or a
+     * bidirectional search.
+     */
+    private int search(Profile a, Profile b) {
         Stack<Profile> path = new Stack<Profile>();
-        int res = graph.getShortestPath(a, b, path);
-        if (res == 0) {
+        LandmarkIndex<Profile> index = landmarks;
+        if (index != null && index.isCurrent()) {
+            int lower = index.lowerBound(a, b);
+            int upper = index.upperBound(a, b);
+            // the bounds count only if no friendship changed meanwhile
+            if (index.isCurrent()) {
+                if (lower == Integer.MAX_VALUE) {
+                    return -1;
+                }
+                if (lower > 0 && lower == upper) {
+                    return lower;
+                }
+                int res = index.getShortestPath(a, b, path);
+                if (index.isCurrent()) {
+                    return (res == 0 || res == Integer.MAX_VALUE) ? -1 : res;
+                }
+                path.clear();
+            }
+        }
+        int res = graph.getShortestPathBidirectional(a, b, path);
+        if (res == 0 || res == Integer.MAX_VALUE) {
             return -1;
         }
         return res;
+    }
+
+
+    /**
+     * - Removes the friendship between a and b from both friend lists, the
+     * graph and the landmark index. Returns false if there was none.
+     */
+    private boolean detachFriendship(Profile a, Profile b) {
+        if (!graph.hasEdge(a, b)) {
+            return false;
+        }
+        a.unFriend(b);
+        b.unFriend(a);
+        graph.removeEdge(a, b);
+        graph.removeEdge(b, a);
+        if (landmarks != null) {
+            landmarks.edgeRemoved(a, b);
+        }
+        if (suggestions != null) {
+            suggestions.edgeRemoved(a, b);
+        }
+        return true;
+    }
+
+
+    /**
+     * - Records one direction of a bulk-created friendship: adds b to a's
+     * friend list and logs the friendship once, from its smaller id.
+     */
+    private void friendAdded(Profile a, Profile b) {
+        a.addFriend(b);
+        int aId = graph.idOf(a);
+        int bId = graph.idOf(b);
+        if (log != null && aId < bId) {
+            log.append(MutationLog.CREATE_FRIENDSHIP, aId, bId, null, null);
+        }
+    }
+
+
+    /**
+     * - Logs a just-added user and starts logging its profile changes.
+     * Returns the record's sequence number, 0 without a log.
+     */
+    private long logUser(Profile p) {
+        if (log == null) {
+            return 0;
+        }
+        p.setChangeListener(this::logProfile);
+        return log.append(MutationLog.ADD_USER, graph.idOf(p), -1, p
+            .getName(), p.getStatus());
+    }
+
+
+    /**
+     * - Logs the current name and status of a user after one of them
+     * changed.
+     */
+    private void logProfile(Profile p) {
+        long logged = 0;
+        lockShared();
+        try {
+            int id = graph.idOf(p);
+            if (log != null && id >= 0) {
+                logged = log.append(MutationLog.SET_PROFILE, id, -1, p
+                    .getName(), p.getStatus());
+            }
+        }
+        finally {
+            unlockShared();
+        }
+        awaitLogged(logged);
+    }
+
+
+    /**
+     * - Displays p from a copy of its friend list taken under p's stripe,
+     * which every change to the list holds.
+     */
+    private void display(Profile p) {
+        if (stripes == null) {
+            p.display();
+            return;
+        }
+        Profile copy;
+        ReentrantLock stripe = stripes[stripeOf(p)];
+        stripe.lock();
+        try {
+            copy = new Profile(p.getName(), p.getStatus(),
+                new ArrayList<Profile>(p.getFriendProfiles()));
+        }
+        finally {
+            stripe.unlock();
+        }
+        copy.display();
+    }
+
+
+    /**
+     * - Returns the start time of an operation, or 0 if metrics are off.
+     */
+    private long startTimer() {
+        return (metrics == null) ? 0 : System.nanoTime();
+    }
+
+
+    private void stopTimer(OperationMetrics.Operation operation, long started) {
+        OperationMetrics current = metrics;
+        if (started != 0 && current != null) {
+            current.record(operation, System.nanoTime() - started);
+        }
+    }
+
+
+    /**
+     * - Waits until the logged change is on disk. A log failure surfaces
+     * here, after the change was made in memory; see open.
+     */
+    private void awaitLogged(long sequence) {
+        MutationLog current = log;
+        if (sequence > 0 && current != null) {
+            current.awaitDurable(sequence);
+        }
+    }
+
+
+    /**
+     * - Applies one logged change while the network is being opened.
+     */
+    private void replay(MutationLog.Record record) {
+        int id = record.getId();
+        switch (record.getType()) {
+            case MutationLog.ADD_USER:
+                Profile user = new Profile(record.getName(), record
+                    .getStatus());
+                if (!graph.addVertex(user) || graph.idOf(user) != id) {
+                    throw new UncheckedIOException(new IOException(
+                        "mutation log does not match the snapshot"));
+                }
+                break;
+            case MutationLog.REMOVE_USER:
+                removeUser(graph.labelOf(id));
+                break;
+            case MutationLog.CREATE_FRIENDSHIP:
+                createFriendship(graph.labelOf(id), graph.labelOf(record
+                    .getOtherId()));
+                break;
+            case MutationLog.REMOVE_FRIENDSHIP:
+                removeFriendship(graph.labelOf(id), graph.labelOf(record
+                    .getOtherId()));
+                break;
+            case MutationLog.SET_PROFILE:
+                graph.labelOf(id).restore(record.getName(), record
+                    .getStatus());
+                break;
+            default:
+                throw new UncheckedIOException(new IOException(
+                    "unknown mutation log record " + record.getType()));
+        }
+    }
+
+
+    /**
+     * - Brings the landmark index up to date before a distance query if that
+     * can be done without waiting. refresh needs the friendships to hold
+     * still, so in concurrent mode it runs under the exclusive lock, and a
+     * busy app answers from a search instead until the lock is free.
+     */
+    /**
+     * - the friend suggestion index, refreshed if it is behind, or null if
+     * it is disabled or behind and the user lock is busy. Like
+     * catchUpLandmarks, the refresh runs with no friendship changes in
+     * flight and never waits for the lock.
+     */
+    private FriendSuggestionIndex<Profile> catchUpSuggestions() {
+        FriendSuggestionIndex<Profile> index = suggestions;
+        if (index == null || (!index.isStale() && !index
+            .hasPendingChanges())) {
+            return index;
+        }
+        if (userLock == null) {
+            index.refresh();
+            return index;
+        }
+        if (!userLock.writeLock().tryLock()) {
+            return null;
+        }
+        try {
+            index = suggestions;
+            if (index != null) {
+                index.refresh();
+            }
+            return index;
+        }
+        finally {
+            userLock.writeLock().unlock();
+        }
+    }
+
+
+    private void catchUpLandmarks() {
+        LandmarkIndex<Profile> index = landmarks;
+        if (index == null || index.isCurrent()) {
+            return;
+        }
+        if (userLock == null) {
+            index.refresh();
+            return;
+        }
+        if (userLock.writeLock().tryLock()) {
+            try {
+                index = landmarks;
+                if (index != null && !index.isCurrent()) {
+                    index.refresh();
+                }
+            }
+            finally {
+                userLock.writeLock().unlock();
+            }
+        }
+    }
+
+
+    private void lockUsers() {
+        if (userLock != null) {
+            userLock.writeLock().lock();
+        }
+    }
+
+
+    private void unlockUsers() {
+        if (userLock != null) {
+            userLock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Copies users and friendships into a CsrGraph under the shared lock,
+     * or reuses the copy from the last call if nothing changed since.
+     */
+    private CsrGraph<Profile> snapshot() {
+        lockShared();
+        try {
+            return graph.snapshot();
+        }
+        finally {
+            unlockShared();
+        }
+    }
+
+
+    private void lockShared() {
+        if (userLock != null) {
+            userLock.readLock().lock();
+        }
+    }
+
+
+    private void unlockShared() {
+        if (userLock != null) {
+            userLock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * - Locks the stripes of both profiles, lower stripe first.
+     */
+    private void lockPair(Profile a, Profile b) {
+        if (stripes == null) {
+            return;
+        }
+        int first = stripeOf(a);
+        int second = stripeOf(b);
+        stripes[Math.min(first, second)].lock();
+        if (first != second) {
+            stripes[Math.max(first, second)].lock();
+        }
+    }
+
+
+    private void unlockPair(Profile a, Profile b) {
+        if (stripes == null) {
+            return;
+        }
+        int first = stripeOf(a);
+        int second = stripeOf(b);
+        if (first != second) {
+            stripes[Math.max(first, second)].unlock();
+        }
+        stripes[Math.min(first, second)].unlock();
+    }
+
 
+    private int stripeOf(Profile p) {
+        int h = System.identityHashCode(p);
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
     }
 
 }
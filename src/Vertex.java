@@ -1,6 +1,5 @@
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -8,6 +7,10 @@ import java.util.NoSuchElementException;
  * @version 2022-10-07
  * @param <T>
  *            SOURCE: A large portion of this was taken from the lecture
+ * 
+ *            A standalone vertex with its own ArrayList of edges. Graph does
+ *            not use it: Graph stores edges only in its id-indexed
+ *            AdjacencyList and hands out views of that instead.
  *
  */
 public class Vertex<T> implements VertexInterface<T> {
@@ -16,7 +19,7 @@ public class Vertex<T> implements VertexInterface<T> {
     private boolean visited;
     private VertexInterface<T> previousVertex;
     private double cost;
-    private List<Edge<T>> edgeList;
+    private ArrayList<Edge<T>> edgeList;
 
     /**
      * constructor - initializes label to the given value, visited → false, cost
@@ -29,8 +32,7 @@ public class Vertex<T> implements VertexInterface<T> {
         this.visited = false;
         this.cost = 0.0;
         this.previousVertex = null;
-        this.edgeList = new LinkedList<Edge<T>>(); // probably need to change
-                                                   // from arrayList
+        this.edgeList = new ArrayList<Edge<T>>();
     }
 
 
@@ -46,22 +48,12 @@ public class Vertex<T> implements VertexInterface<T> {
 
     /**
      * - Returns the number of neighbors of this vertex.
-     * O(n) (where n is vertices)
+     * O(1)
      * 
      * @return number of neighbors
      */
     public int getNumberOfNeighbors() {
-        Iterator<VertexInterface<T>> it = getNeighborIterator();
-        if (it == null) {
-            return 0;
-        }
-        // res starts at 1 because it won't count the last one because it wont
-        // have a next
-        int res = 1;
-        while (it.hasNext()) {
-            res++;
-        }
-        return res;
+        return edgeList.size();
     }
 
 
@@ -112,16 +104,7 @@ public class Vertex<T> implements VertexInterface<T> {
 
         if (!this.equals(endVertex)) {
             // vertices are distinct
-            Iterator<VertexInterface<T>> neighbors = this.getNeighborIterator();
-            boolean duplicateEdge = false;
-
-            while (!duplicateEdge && neighbors.hasNext()) {
-                VertexInterface<T> nextNeighbor = neighbors.next();
-                if (endVertex.equals(nextNeighbor)) {
-                    duplicateEdge = true;
-                }
-            } // end while
-            if (!duplicateEdge) {
+            if (indexOf(endVertex) < 0) {
                 edgeList.add(new Edge<T>(endVertex, edgeWeight));
                 result = true;
             }
@@ -156,19 +139,16 @@ public class Vertex<T> implements VertexInterface<T> {
      * @return boolean true if the disconnection is successful, false otherwise
      */
     public boolean disconnect(VertexInterface<T> endVertex, double edgeWeight) {
-        boolean result = false;
-
-        if (!this.equals(endVertex)) {
-            for (int i = 0; i < edgeList.size(); i++) {
-                Edge<T> currEdge = edgeList.get(i);
-                if (currEdge.getEndVertex().equals(endVertex)) {
-                    // found edge
-                    result = edgeList.remove(currEdge);
-                    return result;
-                }
-            }
+        if (this.equals(endVertex)) {
+            return false;
         }
-        return result;
+        int position = indexOf(endVertex);
+        if (position < 0) {
+            return false;
+        }
+        // found edge
+        edgeList.remove(position);
+        return true;
     }
 
 
@@ -182,7 +162,7 @@ public class Vertex<T> implements VertexInterface<T> {
      * @return boolean true if the disconnect was successful
      */
     public boolean disconnect(VertexInterface<T> endVertex) {
-        return connect(endVertex, 0);
+        return disconnect(endVertex, 0);
     }
 
 
@@ -300,6 +280,30 @@ public class Vertex<T> implements VertexInterface<T> {
         return result;
     } // end equals
 
+
+    /**
+     * - Returns the hash code of this vertex's label, so vertices that are
+     * equal by label hash alike.
+     * O(1)
+     * 
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return label.hashCode();
+    } // end hashCode
+
+
+    private int indexOf(VertexInterface<T> endVertex) {
+        for (int i = 0; i < edgeList.size(); i++) {
+            if (endVertex.equals(edgeList.get(i).getEndVertex())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
     protected class Edge<T> {
         private VertexInterface<T> vertex;
         private double weight;
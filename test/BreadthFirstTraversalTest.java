@@ -0,0 +1,250 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests the lazy breadth-first iterator and stream of Graph, and
+ *          its k-hop neighborhoods, against the eager traversal and plain
+ *          breadth-first distances.
+ *
+ */
+public class BreadthFirstTraversalTest {
+
+    /**
+     * - the iterator gives the eager traversal's order, and with a depth
+     * limit the prefix of it holding exactly the vertices within that many
+     * edges; the stream gives the same.
+     */
+    @Test
+    public void testMatchesEagerTraversal() {
+        Random random = new Random(19);
+        for (int round = 0; round < 30; round++) {
+            int n = 1 + random.nextInt(60);
+            Graph<Integer> graph = randomGraph(random, n);
+            for (int query = 0; query < 10; query++) {
+                int origin = random.nextInt(n);
+                List<Integer> eager = new ArrayList<Integer>(graph
+                    .getBreadthFirstTraversal(origin));
+                assertEquals(eager, collect(graph.breadthFirstIterator(
+                    origin)));
+                int[] distance = distancesFrom(graph, origin, n);
+                int maxDepth = random.nextInt(5);
+                List<Integer> limited = collect(graph.breadthFirstIterator(
+                    origin, maxDepth));
+                int within = 0;
+                for (int v = 0; v < n; v++) {
+                    if (distance[v] <= maxDepth) {
+                        within++;
+                    }
+                }
+                assertEquals(eager.subList(0, within), limited);
+                try (Stream<Integer> stream = graph.breadthFirstStream(origin,
+                    maxDepth)) {
+                    assertEquals(limited, stream.collect(Collectors
+                        .toList()));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - a depth of 0 gives just the origin, a missing origin or negative
+     * depth gives nothing, and a used-up iterator throws.
+     */
+    @Test
+    public void testEdgeCases() {
+        Graph<String> graph = new Graph<String>();
+        graph.addVertex("a");
+        graph.addVertex("b");
+        graph.addEdge("a", "b");
+        Iterator<String> origin = graph.breadthFirstIterator("a", 0);
+        assertEquals("a", origin.next());
+        assertFalse(origin.hasNext());
+        assertThrows(NoSuchElementException.class, origin::next);
+        assertFalse(graph.breadthFirstIterator("none").hasNext());
+        assertFalse(graph.breadthFirstIterator("a", -1).hasNext());
+        assertEquals(0, graph.breadthFirstStream("none", 3).count());
+    }
+
+
+    /**
+     * - neighborhood lists exactly the vertices at each hop distance up to
+     * k, in breadth-first order, and countWithinHops counts them without
+     * the origin.
+     */
+    @Test
+    public void testNeighborhoodMatchesDistances() {
+        Random random = new Random(20);
+        for (int round = 0; round < 30; round++) {
+            int n = 1 + random.nextInt(60);
+            Graph<Integer> graph = randomGraph(random, n);
+            for (int query = 0; query < 10; query++) {
+                int origin = random.nextInt(n);
+                int k = random.nextInt(6);
+                int[] distance = distancesFrom(graph, origin, n);
+                List<List<Integer>> levels = graph.neighborhood(origin, k);
+                List<Integer> flat = new ArrayList<Integer>();
+                for (int d = 0; d < levels.size(); d++) {
+                    assertFalse(levels.get(d).isEmpty());
+                    for (int v : levels.get(d)) {
+                        assertEquals(d, distance[v]);
+                    }
+                    flat.addAll(levels.get(d));
+                }
+                assertTrue(levels.size() <= k + 1);
+                assertEquals(collect(graph.breadthFirstIterator(origin, k)),
+                    flat);
+                assertEquals(flat.size() - 1, graph.countWithinHops(origin,
+                    k));
+            }
+        }
+        Graph<String> graph = new Graph<String>();
+        graph.addVertex("a");
+        assertEquals(1, graph.neighborhood("a", 0).size());
+        assertEquals(0, graph.countWithinHops("a", 3));
+        assertTrue(graph.neighborhood("a", -1).isEmpty());
+        assertTrue(graph.neighborhood("none", 2).isEmpty());
+        assertEquals(0, graph.countWithinHops("none", 2));
+    }
+
+
+    /**
+     * - a small neighborhood of a large graph ignores the rest of it.
+     */
+    @Test
+    public void testNeighborhoodOfLargeGraph() {
+        int n = 200000;
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+            if (v > 0) {
+                graph.addEdge(v - 1, v);
+                graph.addEdge(v, v - 1);
+            }
+        }
+        List<List<Integer>> levels = graph.neighborhood(n / 2, 3);
+        assertEquals(4, levels.size());
+        assertEquals(List.of(n / 2 - 1, n / 2 + 1), levels.get(1));
+        assertEquals(List.of(n / 2 - 3, n / 2 + 3), levels.get(3));
+        assertEquals(6, graph.countWithinHops(n / 2, 3));
+        assertEquals(1, graph.countWithinHops(0, 1));
+    }
+
+
+    /**
+     * - stopping a stream early and closing it gives its traversal state
+     * back to the pool, as does using an iterator up.
+     */
+    @Test
+    public void testReleasesTraversalState() {
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int v = 0; v < 100; v++) {
+            graph.addVertex(v);
+            if (v > 0) {
+                graph.addEdge(v - 1, v);
+            }
+        }
+        TraversalContext.Pool pool = graph.traversalPool();
+        TraversalContext first = pool.acquire(100);
+        TraversalContext second = pool.acquire(100);
+        pool.release(first);
+        pool.release(second);
+
+        try (Stream<Integer> stream = graph.breadthFirstStream(0, 99)) {
+            assertEquals(5, (int)stream.skip(5).findFirst().get());
+        }
+        assertTrue(containsBoth(pool, first, second));
+        Iterator<Integer> iterator = graph.breadthFirstIterator(50, 10);
+        assertEquals(11, collect(iterator).size());
+        assertTrue(containsBoth(pool, first, second));
+    }
+
+
+    /**
+     * - takes two contexts from pool and gives them back, true if they are
+     * first and second in some order.
+     */
+    private static boolean containsBoth(
+        TraversalContext.Pool pool,
+        TraversalContext first,
+        TraversalContext second) {
+        TraversalContext x = pool.acquire(100);
+        TraversalContext y = pool.acquire(100);
+        pool.release(x);
+        pool.release(y);
+        return (x == first && y == second) || (x == second && y == first);
+    }
+
+
+    private static <T> List<T> collect(Iterator<T> iterator) {
+        List<T> list = new ArrayList<T>();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+
+    /**
+     * - a directed graph on ids 0 to n - 1 with random edges.
+     */
+    private static Graph<Integer> randomGraph(Random random, int n) {
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        for (int e = random.nextInt(3 * n); e > 0; e--) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        return graph;
+    }
+
+
+    /**
+     * - plain breadth-first hop distances from origin to ids 0 to n - 1,
+     * Integer.MAX_VALUE where unreachable.
+     */
+    private static int[] distancesFrom(
+        Graph<Integer> graph,
+        int origin,
+        int n) {
+        int[] distance = new int[n];
+        for (int v = 0; v < n; v++) {
+            distance[v] = (v == origin) ? 0 : Integer.MAX_VALUE;
+        }
+        List<Integer> frontier = new ArrayList<Integer>();
+        frontier.add(origin);
+        while (!frontier.isEmpty()) {
+            List<Integer> next = new ArrayList<Integer>();
+            for (int u : frontier) {
+                for (int w = 0; w < n; w++) {
+                    if (distance[w] == Integer.MAX_VALUE && graph.hasEdge(u,
+                        w)) {
+                        distance[w] = distance[u] + 1;
+                        next.add(w);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests bulk ingestion against adding the same edges one at a time:
+ *          Graph.addEdges and VTConnect.createFriendships must skip the same
+ *          pairs and leave the same adjacency.
+ *
+ */
+public class BulkIngestionTest {
+
+    /**
+     * - addEdges, directed and undirected, adds what addEdge would add,
+     * reports each added edge once, and leaves existing edges alone.
+     */
+    @Test
+    public void testAddEdges() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(2000);
+            boolean undirected = round % 2 == 0;
+            Graph<Integer> bulk = new Graph<Integer>();
+            Graph<Integer> single = new Graph<Integer>();
+            for (int v = 0; v < n; v++) {
+                bulk.addVertex(v);
+                single.addVertex(v);
+            }
+            for (int i = 0; i < 50; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                if (a != b && !single.hasEdge(a, b)) {
+                    bulk.addEdge(a, b);
+                    single.addEdge(a, b);
+                }
+            }
+            List<Map.Entry<Integer, Integer>> pairs = randomPairs(random, n,
+                random.nextInt(30000));
+            // a label not in the graph is skipped
+            pairs.add(new AbstractMap.SimpleEntry<Integer, Integer>(n, 0));
+
+            AtomicInteger reported = new AtomicInteger();
+            int added = bulk.addEdges(pairs, undirected, (a, b) -> reported
+                .incrementAndGet());
+            int expected = 0;
+            for (Map.Entry<Integer, Integer> pair : pairs) {
+                expected += addEdge(single, pair.getKey(), pair.getValue());
+                if (undirected) {
+                    expected += addEdge(single, pair.getValue(), pair
+                        .getKey());
+                }
+            }
+            assertEquals(expected, added);
+            assertEquals(added, reported.get());
+            assertEquals(single.getNumberOfEdges(), bulk.getNumberOfEdges());
+            pairs.addAll(randomPairs(random, n, 1000));
+            for (Map.Entry<Integer, Integer> pair : pairs) {
+                assertEquals(single.hasEdge(pair.getKey(), pair.getValue()),
+                    bulk.hasEdge(pair.getKey(), pair.getValue()));
+            }
+        }
+    }
+
+
+    /**
+     * - createFriendships after addUsers gives the same friend lists and
+     * distances as createFriendship, with and without the landmark index.
+     */
+    @Test
+    public void testCreateFriendships() {
+        Random random = new Random(7);
+        for (int round = 0; round < 12; round++) {
+            int n = 2 + random.nextInt(1500);
+            VTConnect bulk = new VTConnect(round % 2 == 0);
+            VTConnect single = new VTConnect();
+            List<Profile> bulkUsers = new ArrayList<Profile>();
+            List<Profile> singleUsers = new ArrayList<Profile>();
+            for (int i = 0; i < n; i++) {
+                bulkUsers.add(new Profile("u" + i, ""));
+                singleUsers.add(new Profile("u" + i, ""));
+                single.addUser(singleUsers.get(i));
+            }
+            if (round % 3 == 0) {
+                bulk.enableLandmarkIndex(4);
+            }
+            assertEquals(n, bulk.addUsers(bulkUsers));
+            assertEquals(0, bulk.addUsers(bulkUsers.subList(0, n / 2)));
+            bulk.createFriendship(bulkUsers.get(0), bulkUsers.get(1));
+            single.createFriendship(singleUsers.get(0), singleUsers.get(1));
+
+            List<Map.Entry<Integer, Integer>> indexes = randomPairs(random, n,
+                random.nextInt(20000));
+            List<Map.Entry<Profile, Profile>> pairs =
+                new ArrayList<Map.Entry<Profile, Profile>>();
+            int expected = 0;
+            for (Map.Entry<Integer, Integer> pair : indexes) {
+                pairs.add(new AbstractMap.SimpleEntry<Profile, Profile>(
+                    bulkUsers.get(pair.getKey()), bulkUsers.get(pair
+                        .getValue())));
+                if (single.createFriendship(singleUsers.get(pair.getKey()),
+                    singleUsers.get(pair.getValue()))) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, bulk.createFriendships(pairs));
+            for (int i = 0; i < n; i++) {
+                assertEquals(singleUsers.get(i).getFriendProfiles().size(),
+                    bulkUsers.get(i).getFriendProfiles().size());
+            }
+            for (Map.Entry<Integer, Integer> pair : randomPairs(random, n,
+                300)) {
+                int a = pair.getKey();
+                int b = pair.getValue();
+                assertEquals(single.hasFriendship(singleUsers.get(a),
+                    singleUsers.get(b)), bulk.hasFriendship(bulkUsers.get(a),
+                        bulkUsers.get(b)));
+                assertEquals(single.friendshipDistance(singleUsers.get(a),
+                    singleUsers.get(b)), bulk.friendshipDistance(bulkUsers
+                        .get(a), bulkUsers.get(b)));
+            }
+        }
+    }
+
+
+    private static int addEdge(Graph<Integer> graph, int begin, int end) {
+        if (begin == end || !graph.containsVertex(begin) || !graph
+            .containsVertex(end) || graph.hasEdge(begin, end)) {
+            return 0;
+        }
+        graph.addEdge(begin, end);
+        return 1;
+    }
+
+
+    private static List<Map.Entry<Integer, Integer>> randomPairs(
+        Random random,
+        int n,
+        int count) {
+        List<Map.Entry<Integer, Integer>> pairs =
+            new ArrayList<Map.Entry<Integer, Integer>>();
+        for (int i = 0; i < count; i++) {
+            pairs.add(new AbstractMap.SimpleEntry<Integer, Integer>(random
+                .nextInt(n), random.nextInt(n)));
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Stack;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests CompressedGraph against the Graph it was compressed from,
+ *          including hubs long enough to be split into skip-table blocks and
+ *          ids left free by removed vertices.
+ *
+ */
+public class CompressedGraphTest {
+
+    /**
+     * - every hasEdge answer, the edge count, traversals and shortest paths
+     * match the source graph.
+     */
+    @Test
+    public void testMatchesGraph() {
+        Random random = new Random(13);
+        for (int round = 0; round < 30; round++) {
+            Graph<Integer> graph = new Graph<Integer>();
+            int n = 30 + random.nextInt(400);
+            for (int v = 0; v < n; v++) {
+                graph.addVertex(v);
+            }
+            int hubs = Math.min(n, 1 + random.nextInt(8));
+            int m = random.nextInt(4000);
+            for (int i = 0; i < m; i++) {
+                int x = random.nextInt(n);
+                int y = (random.nextInt(3) == 0)
+                    ? random.nextInt(n)
+                    : random.nextInt(hubs);
+                graph.addEdge(x, y);
+                if (random.nextInt(4) != 0) {
+                    graph.addEdge(y, x);
+                }
+            }
+            for (int i = 0; i < 5; i++) {
+                graph.removeVertex(random.nextInt(n));
+            }
+            CompressedGraph<Integer> compressed = graph.compress();
+            assertEquals(graph.getNumberOfVertices(), compressed
+                .getNumberOfVertices());
+            assertEquals(graph.getNumberOfEdges(), compressed
+                .getNumberOfEdges());
+            for (int x = 0; x <= n; x++) {
+                for (int y = 0; y <= n; y++) {
+                    assertEquals(graph.hasEdge(x, y), compressed.hasEdge(x,
+                        y));
+                }
+            }
+            for (int q = 0; q < 30; q++) {
+                assertSamePaths(graph, compressed, random.nextInt(n), random
+                    .nextInt(n));
+            }
+        }
+    }
+
+
+    /**
+     * - a vertex joined to most other vertices, far below and far above its
+     * own id, round-trips through the block encoding.
+     */
+    @Test
+    public void testHubBlocks() {
+        Graph<Integer> graph = new Graph<Integer>();
+        int n = 20 * CompressedGraph.BLOCK + 7;
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        int hub = n / 2;
+        for (int v = 0; v < n; v += 1 + v % 3) {
+            graph.addEdge(hub, v);
+            graph.addEdge(v, hub);
+        }
+        CompressedGraph<Integer> compressed = graph.compress();
+        for (int v = -1; v <= n; v++) {
+            assertEquals(graph.hasEdge(hub, v), compressed.hasEdge(hub, v));
+            assertEquals(graph.hasEdge(v, hub), compressed.hasEdge(v, hub));
+        }
+        assertSamePaths(graph, compressed, 1, n - 1);
+    }
+
+
+    /**
+     * - origin reaches the same vertices in both graphs, and the shortest
+     * path has the same length and runs along edges of the source graph.
+     */
+    private static void assertSamePaths(
+        Graph<Integer> graph,
+        CompressedGraph<Integer> compressed,
+        int origin,
+        int destination) {
+        Queue<Integer> expected = graph.getBreadthFirstTraversal(origin);
+        Queue<Integer> actual = compressed.getBreadthFirstTraversal(origin);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<Integer>(expected), new HashSet<Integer>(
+            actual));
+        Stack<Integer> path = new Stack<Integer>();
+        int distance = compressed.getShortestPath(origin, destination, path);
+        assertEquals(graph.getShortestPath(origin, destination,
+            new Stack<Integer>()), distance);
+        if (distance == Integer.MAX_VALUE) {
+            return;
+        }
+        assertEquals(distance + 1, path.size());
+        for (int i = path.size() - 1; i > 0; i--) {
+            assertTrue(graph.hasEdge(path.get(i), path.get(i - 1)));
+        }
+    }
+}
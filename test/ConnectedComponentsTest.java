@@ -0,0 +1,221 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Stack;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests the component forest of Graph against plain breadth-first
+ *          searches, alone and with edges changing on several threads.
+ *
+ */
+public class ConnectedComponentsTest {
+
+    /**
+     * - removing the only edge between two parts splits the component.
+     */
+    @Test
+    public void testRemovalSplitsComponent() {
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int i = 0; i < 4; i++) {
+            graph.addVertex(i);
+        }
+        graph.addEdge(0, 1);
+        graph.addEdge(2, 1);
+        graph.addEdge(2, 3);
+        assertEquals(1, graph.componentCount());
+        assertTrue(graph.removeEdge(2, 1));
+        assertEquals(2, graph.componentCount());
+        assertEquals(graph.componentOf(0), graph.componentOf(1));
+        assertNotEquals(graph.componentOf(1), graph.componentOf(2));
+        assertEquals(Integer.MAX_VALUE, graph.getShortestPath(0, 3,
+            new Stack<Integer>()));
+        graph.removeVertex(3);
+        graph.addVertex(3);
+        assertEquals(3, graph.componentCount());
+    }
+
+
+    /**
+     * - queries never rebuild a stale forest: a pair split by a removal is
+     * only ruled out once a batch of removals has been rebuilt.
+     */
+    @Test
+    public void testRebuildBatchedOffQueries() {
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int i = 0; i < 4000; i++) {
+            graph.addVertex(i);
+            if (i % 2 == 1) {
+                graph.addEdge(i - 1, i);
+            }
+        }
+        ConnectedComponents components = new ConnectedComponents(graph);
+        components.rebuild();
+        assertTrue(components.mayBeConnected(0, 1));
+        assertFalse(components.mayBeConnected(0, 2));
+        graph.removeEdge(0, 1);
+        components.edgeRemoved();
+        assertTrue(components.isStale());
+        assertTrue(components.mayBeConnected(0, 1));
+        assertFalse(components.mayBeConnected(0, 2));
+        assertTrue(components.isStale());
+        assertFalse(components.rebuildIfDue());
+
+        for (int i = 2; i < 4000; i += 2) {
+            graph.removeEdge(i, i + 1);
+            components.edgeRemoved();
+        }
+        assertTrue(components.rebuildIfDue());
+        assertFalse(components.isStale());
+        assertFalse(components.mayBeConnected(0, 1));
+        assertEquals(4000, components.getCount());
+    }
+
+
+    /**
+     * - counts, representatives and path existence match a breadth-first
+     * search after every kind of change.
+     */
+    @Test
+    public void testMatchesBreadthFirstSearch() {
+        Random random = new Random(17);
+        int n = 40;
+        for (int round = 0; round < 10; round++) {
+            Graph<Integer> graph = new Graph<Integer>();
+            for (int step = 0; step < 2000; step++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                int op = random.nextInt(20);
+                if (op < 3) {
+                    graph.addVertex(x);
+                }
+                else if (op == 3) {
+                    graph.removeVertex(x);
+                }
+                else if (op < 11) {
+                    graph.addEdge(x, y);
+                }
+                else if (op < 14) {
+                    graph.removeEdge(x, y);
+                }
+                else if (op == 14) {
+                    assertComponents(graph, n);
+                }
+                else {
+                    boolean reachable = graph.getBreadthFirstTraversal(x)
+                        .contains(y);
+                    int length = graph.getShortestPath(x, y,
+                        new Stack<Integer>());
+                    assertEquals(reachable, length != Integer.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - threads adding and removing edges in their own blocks of vertices
+     * while others query leave the forest exact once they are done.
+     */
+    @Test
+    public void testConcurrentEdgeChanges() throws InterruptedException {
+        int threads = 6;
+        int block = 150;
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int i = 0; i < threads * block; i++) {
+            graph.addVertex(i);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * block;
+            workers.add(new Thread(() -> {
+                try {
+                    Random random = new Random(first);
+                    for (int i = first + 1; i < first + block; i++) {
+                        graph.addEdge(i, i - 1 - random.nextInt(i - first));
+                        int x = first + random.nextInt(block);
+                        int y = first + random.nextInt(block);
+                        if (graph.addEdge(x, y)) {
+                            graph.removeEdge(x, y);
+                        }
+                        graph.getShortestPath(i, first, new Stack<Integer>());
+                    }
+                }
+                catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(threads, graph.componentCount());
+        for (int t = 0; t < threads; t++) {
+            assertEquals(graph.componentOf(t * block), graph.componentOf(t
+                * block + block - 1));
+            // every vertex has an edge to a lower one of its block
+            assertTrue(graph.getShortestPath(t * block + block - 1, t * block,
+                new Stack<Integer>()) < Integer.MAX_VALUE);
+        }
+        assertComponents(graph, threads * block);
+    }
+
+
+    /**
+     * - checks componentCount and componentOf against a breadth-first search
+     * over both edge directions, for labels 0 to n - 1.
+     */
+    private static void assertComponents(Graph<Integer> graph, int n) {
+        Map<Integer, Integer> component = new HashMap<Integer, Integer>();
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (!graph.containsVertex(v) || component.containsKey(v)) {
+                continue;
+            }
+            count++;
+            ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+            queue.add(v);
+            component.put(v, count);
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int w = 0; w < n; w++) {
+                    if (!component.containsKey(w) && (graph.hasEdge(u, w)
+                        || graph.hasEdge(w, u))) {
+                        component.put(w, count);
+                        queue.add(w);
+                    }
+                }
+            }
+        }
+        assertEquals(count, graph.componentCount());
+        for (int u : component.keySet()) {
+            for (int w : component.keySet()) {
+                assertEquals(component.get(u).equals(component.get(w)), graph
+                    .componentOf(u).equals(graph.componentOf(w)));
+            }
+        }
+    }
+}
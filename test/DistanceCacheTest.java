@@ -0,0 +1,166 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests DistanceCache: which entries survive edge additions and
+ *          removals, and that cached shortest paths in Graph and VTConnect
+ *          agree with uncached copies as the graph changes.
+ *
+ */
+public class DistanceCacheTest {
+
+    /**
+     * - an entry stays valid at its own epochs, a distance of 1 survives
+     * additions, an unreachable pair survives removals, and anything else is
+     * dropped on lookup.
+     */
+    @Test
+    public void testEpochValidity() {
+        DistanceCache cache = new DistanceCache(64);
+        long adjacent = DistanceCache.unorderedKey(2, 1);
+        long far = DistanceCache.key(1, 3);
+        long apart = DistanceCache.key(1, 4);
+        assertEquals(DistanceCache.key(1, 2), adjacent);
+        cache.put(adjacent, 1, new int[] { 1, 2 }, 5, 7);
+        cache.put(far, 2, null, 5, 7);
+        cache.put(apart, DistanceCache.UNREACHABLE, null, 5, 7);
+
+        assertEquals(2, cache.get(far, 5, 7).getDistance());
+        assertNull(cache.get(far, 6, 7));
+        assertNull(cache.get(far, 5, 7));
+        assertEquals(1, cache.get(adjacent, 6, 7).getDistance());
+        assertNull(cache.get(adjacent, 6, 8));
+        assertNotNull(cache.get(apart, 5, 8));
+        assertNull(cache.get(apart, 6, 8));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+
+        cache.put(far, 2, null, 5, 7);
+        cache.clear();
+        assertNull(cache.get(far, 5, 7));
+    }
+
+
+    /**
+     * - a full cache evicts its least recently used pairs and keeps its
+     * size bounded.
+     */
+    @Test
+    public void testBounded() {
+        DistanceCache cache = new DistanceCache(16);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(DistanceCache.key(i, i + 1), 3, null, 0, 0);
+        }
+        int kept = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (cache.get(DistanceCache.key(i, i + 1), 0, 0) != null) {
+                kept++;
+            }
+        }
+        assertTrue(kept > 0 && kept <= 16);
+        assertNotNull(cache.get(DistanceCache.key(9999, 10000), 0, 0));
+    }
+
+
+    /**
+     * - random edge and vertex changes between queries never let a stale
+     * distance or path through, in Graph or in VTConnect.
+     */
+    @Test
+    public void testMatchesUncached() {
+        Random random = new Random(7);
+        int n = 30;
+        for (int round = 0; round < 10; round++) {
+            Graph<Integer> cached = new Graph<Integer>();
+            Graph<Integer> plain = new Graph<Integer>();
+            cached.enableDistanceCache(64);
+            VTConnect app = new VTConnect(round % 2 == 0);
+            VTConnect copy = new VTConnect();
+            app.enableDistanceCache(64);
+            List<Profile> users = new ArrayList<Profile>();
+            List<Profile> copies = new ArrayList<Profile>();
+            for (int i = 0; i < n; i++) {
+                cached.addVertex(i);
+                plain.addVertex(i);
+                users.add(new Profile("u" + i, ""));
+                copies.add(new Profile("u" + i, ""));
+                app.addUser(users.get(i));
+                copy.addUser(copies.get(i));
+            }
+            for (int step = 0; step < 4000; step++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                int op = random.nextInt(10);
+                if (op == 0) {
+                    cached.addEdge(x, y);
+                    plain.addEdge(x, y);
+                    app.createFriendship(users.get(x), users.get(y));
+                    copy.createFriendship(copies.get(x), copies.get(y));
+                }
+                else if (op == 1) {
+                    cached.removeEdge(x, y);
+                    plain.removeEdge(x, y);
+                    app.removeFriendship(users.get(x), users.get(y));
+                    copy.removeFriendship(copies.get(x), copies.get(y));
+                }
+                else if (op == 2 && random.nextInt(20) == 0) {
+                    cached.removeVertex(x);
+                    plain.removeVertex(x);
+                    cached.addVertex(x);
+                    plain.addVertex(x);
+                    app.removeUser(users.get(x));
+                    copy.removeUser(copies.get(x));
+                    app.addUser(users.get(x));
+                    copy.addUser(copies.get(x));
+                }
+                else {
+                    assertPath(cached, plain, x, y);
+                    assertEquals(copy.friendshipDistance(copies.get(x), copies
+                        .get(y)), app.friendshipDistance(users.get(x), users
+                            .get(y)));
+                }
+            }
+            assertTrue(cached.getDistanceCache().getHitCount() > 0);
+        }
+    }
+
+
+    /**
+     * - the cached graph gives the plain graph's distance and a path of that
+     * length from origin to destination along its edges.
+     */
+    private static void assertPath(
+        Graph<Integer> cached,
+        Graph<Integer> plain,
+        int origin,
+        int destination) {
+        Stack<Integer> path = new Stack<Integer>();
+        int distance = cached.getShortestPath(origin, destination, path);
+        assertEquals(plain.getShortestPath(origin, destination,
+            new Stack<Integer>()), distance);
+        if (distance == Integer.MAX_VALUE) {
+            return;
+        }
+        assertEquals(distance + 1, path.size());
+        assertEquals(origin, (int)path.peek());
+        assertEquals(destination, (int)path.get(0));
+        for (int i = path.size() - 1; i > 0; i--) {
+            assertTrue(cached.hasEdge(path.get(i), path.get(i - 1)));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests recovery of a network kept with VTConnect.open: changes are
+ *          written, sometimes checkpointed, the log tail is torn or
+ *          corrupted as a crash would leave it, and reopening must give back
+ *          every change before the damaged record.
+ *
+ */
+public class DurabilityTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * - a log cut off in the middle of its last record loses exactly that
+     * record.
+     */
+    @Test
+    public void testTornTail() throws IOException {
+        List<Profile> users = new ArrayList<Profile>();
+        VTConnect app = VTConnect.open(directory, false);
+        String before = changeAndDump(app, users, 1);
+        app.addUser(new Profile("torn", "s"));
+        app.close();
+        Path log = directory.resolve("mutations.log");
+        try (FileChannel channel = FileChannel.open(log,
+            StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        assertEquals(before, reopenAndDump());
+    }
+
+
+    /**
+     * - after a checkpoint, the snapshot holds the earlier changes and a
+     * record with a bad checksum at the end of the log is dropped.
+     */
+    @Test
+    public void testCheckpointThenCorruptTail() throws IOException {
+        List<Profile> users = new ArrayList<Profile>();
+        VTConnect app = VTConnect.open(directory, true);
+        changeAndDump(app, users, 2);
+        app.checkpoint();
+        String before = changeAndDump(app, users, 3);
+        users.get(0).setStatus("lost");
+        app.close();
+        Path log = directory.resolve("mutations.log");
+        try (FileChannel channel = FileChannel.open(log,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // flip the last byte of the last record's payload
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            last.put(0, (byte)~last.get(0));
+            last.rewind();
+            channel.write(last, channel.size() - 1);
+        }
+        assertEquals(before, reopenAndDump());
+    }
+
+
+    /**
+     * - a recovered network keeps logging after the damaged tail was cut off,
+     * and a checkpoint with an empty log loses nothing.
+     */
+    @Test
+    public void testRecoverThenContinue() throws IOException {
+        List<Profile> users = new ArrayList<Profile>();
+        VTConnect app = VTConnect.open(directory, false);
+        changeAndDump(app, users, 4);
+        app.close();
+        Path log = directory.resolve("mutations.log");
+        Files.write(log, new byte[] { 9, 0, 0, 0, 1, 2, 3 },
+            StandardOpenOption.APPEND);
+
+        VTConnect recovered = VTConnect.open(directory, false);
+        recovered.addUser(new Profile("late", "joined"));
+        String expected = dump(recovered);
+        recovered.checkpoint();
+        recovered.close();
+        assertEquals(0, Files.size(log));
+        assertEquals(expected, reopenAndDump());
+        assertNotEquals("", expected);
+    }
+
+
+    /**
+     * - makes random changes of every logged kind and returns the dump of
+     * the network after them.
+     */
+    private String changeAndDump(VTConnect app, List<Profile> users, int seed)
+        throws IOException {
+        Random random = new Random(seed);
+        for (int step = 0; step < 400; step++) {
+            int op = random.nextInt(10);
+            if (op < 3 || users.size() < 2) {
+                Profile user = new Profile("n" + seed + "-" + step, "s");
+                users.add(user);
+                app.addUser(user);
+            }
+            else if (op < 7) {
+                app.createFriendship(pick(users, random), pick(users, random));
+            }
+            else if (op < 8) {
+                app.removeFriendship(pick(users, random), pick(users, random));
+            }
+            else if (op < 9) {
+                app.removeUser(users.remove(random.nextInt(users.size())));
+            }
+            else {
+                pick(users, random).setStatus("t" + step);
+            }
+        }
+        return dump(app);
+    }
+
+
+    private String reopenAndDump() throws IOException {
+        VTConnect app = VTConnect.open(directory, false);
+        try {
+            return dump(app);
+        }
+        finally {
+            app.close();
+        }
+    }
+
+
+    /**
+     * - every user id with its name, status and sorted friend ids, read back
+     * from a saved snapshot.
+     */
+    private String dump(VTConnect app) throws IOException {
+        Path file = Files.createTempFile(directory, "dump", ".snapshot");
+        app.save(file);
+        SocialSnapshot snapshot = SocialSnapshot.open(file);
+        StringBuilder result = new StringBuilder();
+        for (int id = 0; id < snapshot.idBound(); id++) {
+            if (!snapshot.isUser(id)) {
+                result.append("-\n");
+                continue;
+            }
+            int[] friends = new int[snapshot.getNumberOfFriends(id)];
+            for (int i = 0; i < friends.length; i++) {
+                friends[i] = snapshot.getFriend(id, i);
+            }
+            Arrays.sort(friends);
+            result.append(id).append(' ').append(snapshot.getName(id)).append(
+                ' ').append(snapshot.getStatus(id)).append(Arrays.toString(
+                    friends)).append('\n');
+        }
+        Files.delete(file);
+        return result.toString();
+    }
+
+
+    private static Profile pick(List<Profile> users, Random random) {
+        return users.get(random.nextInt(users.size()));
+    }
+}
@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests the friends-of-friends index behind ranked friendSuggestion
+ *          against mutual friends counted from the friend lists.
+ *
+ */
+public class FriendSuggestionIndexTest {
+
+    /**
+     * - many changes between queries, including the same friendship made and
+     * undone, and users removed with their queues pending.
+     */
+    @Test
+    public void testBatchedChanges() {
+        Random random = new Random(3);
+        int n = 40;
+        for (int round = 0; round < 12; round++) {
+            VTConnect app = new VTConnect(round % 2 == 0);
+            List<Profile> users = addUsers(app, n);
+            app.enableFriendSuggestionIndex(1 + random.nextInt(8));
+            for (int step = 0; step < 3000; step++) {
+                Profile a = users.get(random.nextInt(n));
+                Profile b = users.get(random.nextInt(n));
+                int op = random.nextInt(40);
+                if (op < 20) {
+                    app.createFriendship(a, b);
+                }
+                else if (op < 36) {
+                    app.removeFriendship(a, b);
+                }
+                else if (op == 36) {
+                    app.removeUser(a);
+                    app.addUser(a);
+                }
+                else {
+                    assertRanking(app, a, 1 + random.nextInt(10));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - friendships changed from several threads at once, with queries in
+     * between, leave the index matching the friend lists.
+     */
+    @Test
+    public void testConcurrentChanges() throws InterruptedException {
+        int n = 200;
+        VTConnect app = new VTConnect(true);
+        List<Profile> users = addUsers(app, n);
+        app.enableFriendSuggestionIndex(6);
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < 6; t++) {
+            Random random = new Random(t);
+            workers.add(new Thread(() -> {
+                try {
+                    for (int step = 0; step < 4000; step++) {
+                        Profile a = users.get(random.nextInt(n));
+                        Profile b = users.get(random.nextInt(n));
+                        int op = random.nextInt(10);
+                        if (op < 6) {
+                            app.createFriendship(a, b);
+                        }
+                        else if (op < 9) {
+                            app.removeFriendship(a, b);
+                        }
+                        else {
+                            app.friendSuggestion(a, 5);
+                        }
+                    }
+                }
+                catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        for (Profile user : users) {
+            assertRanking(app, user, 8);
+        }
+    }
+
+
+    private static List<Profile> addUsers(VTConnect app, int n) {
+        List<Profile> users = new ArrayList<Profile>();
+        for (int i = 0; i < n; i++) {
+            Profile user = new Profile("u" + i, "");
+            users.add(user);
+            app.addUser(user);
+        }
+        return users;
+    }
+
+
+    /**
+     * - checks that the ranked suggestions for user have the mutual friend
+     * counts of the best k candidates, best first.
+     */
+    private static void assertRanking(VTConnect app, Profile user, int k) {
+        List<Profile> ranked = app.friendSuggestion(user, k);
+        Map<Profile, Integer> mutual = new HashMap<Profile, Integer>();
+        List<Profile> friends = user.getFriendProfiles();
+        for (Profile friend : friends) {
+            for (Profile next : friend.getFriendProfiles()) {
+                if (next != user && !friends.contains(next)) {
+                    mutual.merge(next, 1, Integer::sum);
+                }
+            }
+        }
+        if (mutual.isEmpty()) {
+            assertNull(ranked);
+            return;
+        }
+        List<Integer> expected = new ArrayList<Integer>(mutual.values());
+        expected.sort(Collections.reverseOrder());
+        assertEquals(Math.min(k, mutual.size()), ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            assertEquals(expected.get(i), mutual.get(ranked.get(i)));
+        }
+    }
+}
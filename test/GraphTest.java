@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests the basic vertex and edge operations of Graph.
+ *
+ */
+public class GraphTest {
+
+    /**
+     * - edges are directed, counted once and not duplicated.
+     */
+    @Test
+    public void testAddAndRemoveEdges() {
+        Graph<String> graph = new Graph<String>();
+        assertTrue(graph.addVertex("a"));
+        assertTrue(graph.addVertex("b"));
+        assertFalse(graph.addVertex("a"));
+        assertTrue(graph.addEdge("a", "b"));
+        assertFalse(graph.addEdge("a", "b"));
+        assertFalse(graph.addEdge("a", "a"));
+        assertTrue(graph.hasEdge("a", "b"));
+        assertFalse(graph.hasEdge("b", "a"));
+        assertEquals(1, graph.getNumberOfEdges());
+        assertTrue(graph.removeEdge("a", "b"));
+        assertFalse(graph.hasEdge("a", "b"));
+        assertEquals(0, graph.getNumberOfEdges());
+    }
+
+
+    /**
+     * - vertices are views of the adjacency: changes made through the graph
+     * show in them and changes made through them show in the graph.
+     */
+    @Test
+    public void testVertexViews() {
+        Graph<String> graph = new Graph<String>();
+        graph.addVertex("a");
+        graph.addVertex("b");
+        graph.addVertex("c");
+        graph.addEdge("a", "b");
+        VertexInterface<String> a = graph.getVertices().get(0);
+        VertexInterface<String> c = graph.getVertices().get(2);
+        assertEquals("a", a.getLabel());
+        assertEquals(1, a.getNumberOfNeighbors());
+        Iterator<VertexInterface<String>> neighbors = a.getNeighborIterator();
+        assertEquals("b", neighbors.next().getLabel());
+        assertFalse(neighbors.hasNext());
+
+        assertTrue(a.connect(c, 2.5));
+        assertTrue(graph.hasEdge("a", "c"));
+        assertEquals(2, graph.getNumberOfEdges());
+        assertFalse(a.connect(c));
+        assertTrue(a.disconnect(c));
+        assertFalse(graph.hasEdge("a", "c"));
+
+        VertexInterface<String> removed = graph.removeVertex("a");
+        assertEquals("a", removed.getLabel());
+        assertFalse(removed.hasNeighbor());
+        assertFalse(removed.connect(c));
+        assertNull(removed.getUnvisitedNeighbor());
+        assertEquals(0, graph.getNumberOfEdges());
+        // the freed id goes to the next vertex, with a fresh view
+        graph.addVertex("d");
+        assertSame(graph.getVertices().get(0).getLabel(), "d");
+        assertEquals(0, graph.getVertices().get(0).getNumberOfNeighbors());
+    }
+
+
+    /**
+     * - snapshot() hands back the same CsrGraph, transpose included, until a
+     * vertex or edge changes, and a fresh one after any change.
+     */
+    @Test
+    public void testSnapshotReusedUntilChange() {
+        Graph<String> graph = new Graph<String>();
+        graph.addVertex("a");
+        graph.addVertex("b");
+        graph.addEdge("a", "b");
+        CsrGraph<String> first = graph.snapshot();
+        assertSame(first, graph.snapshot());
+        assertSame(first.transpose(), graph.snapshot().transpose());
+
+        graph.addVertex("c");
+        CsrGraph<String> added = graph.snapshot();
+        assertNotSame(first, added);
+        assertEquals(3, added.getNumberOfVertices());
+        assertTrue(graph.addEdge("b", "c"));
+        CsrGraph<String> connected = graph.snapshot();
+        assertNotSame(added, connected);
+        assertTrue(connected.hasEdge("b", "c"));
+        graph.removeVertex("c");
+        graph.addVertex("d");
+        CsrGraph<String> replaced = graph.snapshot();
+        assertNotSame(connected, replaced);
+        assertTrue(replaced.getBreadthFirstTraversal("c").isEmpty());
+        assertEquals(1, graph.getParallelBreadthFirstTraversal("d").size());
+        assertEquals(2, graph.getParallelBreadthFirstTraversal("a").size());
+    }
+}
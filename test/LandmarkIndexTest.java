@@ -0,0 +1,305 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests LandmarkIndex against plain breadth-first search: the
+ *          bounds must hold and the A* search must find shortest paths, as
+ *          friendships change and landmark vertices are removed.
+ *
+ */
+public class LandmarkIndexTest {
+
+    /**
+     * - bounds hold for every pair and A* paths are shortest, after random
+     * batches of additions and removals applied by refresh.
+     */
+    @Test
+    public void testBoundsAndPaths() {
+        Random random = new Random(21);
+        int n = 60;
+        for (int round = 0; round < 8; round++) {
+            Graph<Integer> graph = new Graph<Integer>();
+            for (int v = 0; v < n; v++) {
+                graph.addVertex(v);
+            }
+            for (int e = 0; e < 70; e++) {
+                addFriendship(graph, null, random.nextInt(n), random.nextInt(
+                    n));
+            }
+            LandmarkIndex<Integer> index = new LandmarkIndex<Integer>(graph,
+                1 + random.nextInt(4));
+            for (int batch = 0; batch < 15; batch++) {
+                for (int change = random.nextInt(12); change > 0; change--) {
+                    int x = random.nextInt(n);
+                    int y = random.nextInt(n);
+                    if (random.nextInt(3) == 0) {
+                        addFriendship(graph, index, x, y);
+                    }
+                    else {
+                        removeFriendship(graph, index, x, y);
+                    }
+                }
+                index.refresh();
+                assertTrue(index.isCurrent());
+                for (int x = 0; x < n; x++) {
+                    int[] exact = distancesFrom(graph, x, n);
+                    for (int y = 0; y < n; y++) {
+                        assertBounds(index, x, y, exact[y]);
+                    }
+                    int y = random.nextInt(n);
+                    assertPath(graph, index, x, y, exact[y]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - distances from the single landmark, the highest-degree vertex, stay
+     * exact through removals that leave other parents and ones that do not.
+     */
+    @Test
+    public void testLandmarkStaysExact() {
+        int n = 200;
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        Random random = new Random(4);
+        for (int v = 1; v < n; v++) {
+            if (v < 40) {
+                addFriendship(graph, null, 0, v);
+            }
+            else {
+                addFriendship(graph, null, v, 1 + random.nextInt(v - 1));
+                addFriendship(graph, null, v, 1 + random.nextInt(v - 1));
+            }
+        }
+        LandmarkIndex<Integer> index = new LandmarkIndex<Integer>(graph, 1);
+        for (int step = 0; step < 60; step++) {
+            int x = 1 + random.nextInt(n - 1);
+            int y = 40 + random.nextInt(n - 40);
+            if (step % 3 == 0) {
+                addFriendship(graph, index, x, y);
+            }
+            else {
+                removeFriendship(graph, index, x, y);
+            }
+            index.refresh();
+            int[] exact = distancesFrom(graph, 0, n);
+            for (int v = 0; v < n; v++) {
+                if (exact[v] != Integer.MAX_VALUE) {
+                    assertEquals(exact[v], index.lowerBound(0, v));
+                    assertEquals(exact[v], index.upperBound(0, v));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - a removed landmark is replaced, and a vertex that reuses its id is
+     * not taken for it.
+     */
+    @Test
+    public void testRemovedLandmark() {
+        int n = 30;
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        for (int v = 1; v < n; v++) {
+            addFriendship(graph, null, 0, v);
+            addFriendship(graph, null, v, (v % (n - 1)) + 1);
+        }
+        addFriendship(graph, null, 1, 15);
+        LandmarkIndex<Integer> index = new LandmarkIndex<Integer>(graph, 1);
+        assertEquals(1, index.upperBound(0, 7));
+
+        for (int v = 1; v < n; v++) {
+            removeFriendship(graph, index, 0, v);
+        }
+        index.refresh();
+        index.vertexRemoved(0);
+        graph.removeVertex(0);
+        // the reused id must not inherit the old landmark's distances
+        graph.addVertex(100);
+        index.vertexAdded(100);
+        addFriendship(graph, index, 100, 20);
+        index.refresh();
+
+        for (int x : graph.getBreadthFirstTraversal(1)) {
+            int[] exact = distancesFrom(graph, x, 101);
+            for (int y = 1; y <= 100; y++) {
+                if (graph.containsVertex(y)) {
+                    assertBounds(index, x, y, exact[y]);
+                }
+            }
+        }
+        // vertex 1 has the most friends left and becomes the landmark
+        int[] fromOne = distancesFrom(graph, 1, 101);
+        assertEquals(fromOne[100], index.upperBound(1, 100));
+        assertEquals(fromOne[100], index.lowerBound(1, 100));
+    }
+
+
+    /**
+     * - removing a landmark user through VTConnect keeps distances and
+     * estimates right, also for a user added afterwards.
+     */
+    @Test
+    public void testRemoveLandmarkUser() {
+        VTConnect app = new VTConnect(true);
+        VTConnect copy = new VTConnect();
+        List<Profile> users = new ArrayList<Profile>();
+        List<Profile> copies = new ArrayList<Profile>();
+        int n = 40;
+        for (int i = 0; i < n; i++) {
+            users.add(new Profile("u" + i, ""));
+            copies.add(new Profile("u" + i, ""));
+            app.addUser(users.get(i));
+            copy.addUser(copies.get(i));
+        }
+        for (int i = 1; i < n; i++) {
+            app.createFriendship(users.get(0), users.get(i));
+            copy.createFriendship(copies.get(0), copies.get(i));
+            app.createFriendship(users.get(i), users.get(i % (n - 1) + 1));
+            copy.createFriendship(copies.get(i), copies.get(i % (n - 1) + 1));
+        }
+        app.enableLandmarkIndex(2);
+        app.removeUser(users.get(0));
+        copy.removeUser(copies.get(0));
+        Profile late = new Profile("late", "");
+        Profile lateCopy = new Profile("late", "");
+        app.addUser(late);
+        copy.addUser(lateCopy);
+        app.createFriendship(late, users.get(20));
+        copy.createFriendship(lateCopy, copies.get(20));
+        users.set(0, late);
+        copies.set(0, lateCopy);
+        for (int x = 0; x < n; x++) {
+            for (int y = 0; y < n; y++) {
+                int exact = copy.friendshipDistance(copies.get(x), copies.get(
+                    y));
+                assertEquals(exact, app.friendshipDistance(users.get(x), users
+                    .get(y)));
+                int estimate = app.estimateFriendshipDistance(users.get(x),
+                    users.get(y));
+                assertTrue((exact == -1) ? estimate == -1 : estimate >= exact);
+            }
+        }
+    }
+
+
+    private static void assertBounds(
+        LandmarkIndex<Integer> index,
+        int x,
+        int y,
+        int exact) {
+        int lower = index.lowerBound(x, y);
+        int upper = index.upperBound(x, y);
+        if (exact == Integer.MAX_VALUE) {
+            assertTrue(lower == Integer.MAX_VALUE
+                || upper == Integer.MAX_VALUE);
+        }
+        else {
+            assertTrue(lower <= exact && exact <= upper);
+        }
+    }
+
+
+    /**
+     * - the A* search finds a path of the breadth-first length along edges
+     * of the graph, origin on top.
+     */
+    private static void assertPath(
+        Graph<Integer> graph,
+        LandmarkIndex<Integer> index,
+        int x,
+        int y,
+        int exact) {
+        Stack<Integer> path = new Stack<Integer>();
+        assertEquals(exact, index.getShortestPath(x, y, path));
+        if (exact == Integer.MAX_VALUE) {
+            return;
+        }
+        assertEquals(exact + 1, path.size());
+        assertEquals(x, (int)path.peek());
+        assertEquals(y, (int)path.get(0));
+        for (int i = path.size() - 1; i > 0; i--) {
+            assertTrue(graph.hasEdge(path.get(i), path.get(i - 1)));
+        }
+    }
+
+
+    /**
+     * - plain breadth-first hop distances from origin to ids 0 to n - 1,
+     * Integer.MAX_VALUE where unreachable.
+     */
+    private static int[] distancesFrom(
+        Graph<Integer> graph,
+        int origin,
+        int n) {
+        int[] distance = new int[n];
+        for (int v = 0; v < n; v++) {
+            distance[v] = (v == origin) ? 0 : Integer.MAX_VALUE;
+        }
+        List<Integer> frontier = new ArrayList<Integer>();
+        frontier.add(origin);
+        while (!frontier.isEmpty()) {
+            List<Integer> next = new ArrayList<Integer>();
+            for (int u : frontier) {
+                for (int w = 0; w < n; w++) {
+                    if (distance[w] == Integer.MAX_VALUE && graph.hasEdge(u,
+                        w)) {
+                        distance[w] = distance[u] + 1;
+                        next.add(w);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return distance;
+    }
+
+
+    private static void addFriendship(
+        Graph<Integer> graph,
+        LandmarkIndex<Integer> index,
+        int a,
+        int b) {
+        if (a == b || graph.hasEdge(a, b)) {
+            return;
+        }
+        graph.addEdge(a, b);
+        graph.addEdge(b, a);
+        if (index != null) {
+            index.edgeAdded(a, b);
+        }
+    }
+
+
+    private static void removeFriendship(
+        Graph<Integer> graph,
+        LandmarkIndex<Integer> index,
+        int a,
+        int b) {
+        if (graph.removeEdge(a, b)) {
+            graph.removeEdge(b, a);
+            index.edgeRemoved(a, b);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Stack;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests OffHeapGraph against Graph: the same changes must give the
+ *          same edges, traversals and shortest paths, with blocks growing,
+ *          moving to chunks of their own and being reused along the way.
+ *
+ */
+public class OffHeapGraphTest {
+
+    /**
+     * - random vertex, edge and bulk changes on small chunks leave the same
+     * hasEdge answers, counts, traversals and distances as Graph.
+     */
+    @Test
+    public void testMatchesGraph() {
+        Random random = new Random(11);
+        int n = 50;
+        for (int round = 0; round < 20; round++) {
+            OffHeapGraph<Integer> offHeap = new OffHeapGraph<Integer>(2
+                + random.nextInt(6));
+            Graph<Integer> graph = new Graph<Integer>();
+            for (int step = 0; step < 4000; step++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                int op = random.nextInt(20);
+                if (op < 2) {
+                    assertEquals(graph.addVertex(x), offHeap.addVertex(x));
+                }
+                else if (op == 2 && random.nextInt(5) == 0) {
+                    assertEquals(graph.removeVertex(x) == null, offHeap
+                        .removeVertex(x) == null);
+                }
+                else if (op < 10) {
+                    assertEquals(graph.addEdge(x, y), offHeap.addEdge(x, y));
+                }
+                else if (op < 12) {
+                    assertEquals(graph.removeEdge(x, y), offHeap.removeEdge(x,
+                        y));
+                }
+                else if (op == 12) {
+                    List<Map.Entry<Integer, Integer>> pairs =
+                        new ArrayList<Map.Entry<Integer, Integer>>();
+                    for (int i = 0; i < 30; i++) {
+                        pairs.add(new AbstractMap.SimpleEntry<Integer, Integer>(
+                            random.nextInt(n), random.nextInt(n)));
+                    }
+                    boolean undirected = random.nextBoolean();
+                    assertEquals(graph.addEdges(pairs, undirected, null),
+                        offHeap.addEdges(pairs, undirected));
+                }
+                else if (op == 13 && random.nextInt(50) == 0) {
+                    graph.clear();
+                    offHeap.clear();
+                }
+                else {
+                    assertSameQueries(graph, offHeap, x, y);
+                }
+                assertEquals(graph.getNumberOfVertices(), offHeap
+                    .getNumberOfVertices());
+                assertEquals(graph.getNumberOfEdges(), offHeap
+                    .getNumberOfEdges());
+            }
+        }
+    }
+
+
+    /**
+     * - a hub whose block outgrows a chunk still answers every query, and
+     * removing it hands its memory back.
+     */
+    @Test
+    public void testHubOutgrowsChunk() {
+        OffHeapGraph<Integer> offHeap = new OffHeapGraph<Integer>(4);
+        Graph<Integer> graph = new Graph<Integer>();
+        int n = 3000;
+        for (int v = 0; v < n; v++) {
+            offHeap.addVertex(v);
+            graph.addVertex(v);
+        }
+        for (int v = 1; v < n; v++) {
+            assertTrue(offHeap.addEdge(0, v));
+            graph.addEdge(0, v);
+            if (v % 3 == 0) {
+                offHeap.addEdge(v, v - 1);
+                graph.addEdge(v, v - 1);
+            }
+        }
+        long withHub = offHeap.getOffHeapBytes();
+        Random random = new Random(2);
+        for (int q = 0; q < 200; q++) {
+            assertSameQueries(graph, offHeap, random.nextInt(n), random
+                .nextInt(n));
+        }
+        assertSameQueries(graph, offHeap, 0, n - 1);
+
+        graph.removeVertex(0);
+        offHeap.removeVertex(0);
+        assertTrue(offHeap.getOffHeapBytes() < withHub);
+        assertEquals(graph.getNumberOfEdges(), offHeap.getNumberOfEdges());
+        for (int q = 0; q < 200; q++) {
+            assertSameQueries(graph, offHeap, 1 + random.nextInt(n - 1), 1
+                + random.nextInt(n - 1));
+        }
+    }
+
+
+    /**
+     * - hasEdge, the set reached by a breadth-first traversal and the
+     * shortest path length agree between graph and offHeap.
+     */
+    private static void assertSameQueries(
+        Graph<Integer> graph,
+        OffHeapGraph<Integer> offHeap,
+        int x,
+        int y) {
+        assertEquals(graph.hasEdge(x, y), offHeap.hasEdge(x, y));
+        Queue<Integer> expected = graph.getBreadthFirstTraversal(x);
+        Queue<Integer> actual = offHeap.getBreadthFirstTraversal(x);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<Integer>(expected), new HashSet<Integer>(
+            actual));
+        if (!actual.isEmpty()) {
+            assertEquals(x, (int)actual.peek());
+        }
+        assertEquals(graph.getShortestPath(x, y, new Stack<Integer>()),
+            offHeap.getShortestPath(x, y, new Stack<Integer>()));
+    }
+}
@@ -0,0 +1,199 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests OperationMetrics: counters and percentiles against the
+ *          sorted latencies, recording from several threads, and the
+ *          timing of VTConnect operations.
+ *
+ */
+public class OperationMetricsTest {
+
+    private static final double[] QUANTILES = { 0, 0.5, 0.9, 0.99, 0.999,
+        1 };
+
+    /**
+     * - count, total, max and mean are exact, and each percentile is the
+     * sorted latency at that rank rounded up by less than an eighth.
+     */
+    @Test
+    public void testCountersAndPercentiles() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            OperationMetrics metrics = new OperationMetrics();
+            int n = 1 + random.nextInt((round < 15) ? 100 : 100000);
+            long[] latencies = new long[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                // spread over many powers of two, tiny ones included
+                latencies[i] = (long)Math.pow(2, random.nextDouble() * 40);
+                total += latencies[i];
+                metrics.record(OperationMetrics.Operation.TRAVERSE,
+                    latencies[i]);
+            }
+            Arrays.sort(latencies);
+            OperationMetrics.Snapshot snapshot = metrics.snapshot(
+                OperationMetrics.Operation.TRAVERSE);
+            assertEquals(n, snapshot.getCount());
+            assertEquals(total, snapshot.getTotalNanos());
+            assertEquals(latencies[n - 1], snapshot.getMaxNanos());
+            assertEquals((double)total / n, snapshot.getMeanNanos(), 1e-6);
+            for (double q : QUANTILES) {
+                long exact = latencies[Math.max(1, (int)Math.ceil(q * n))
+                    - 1];
+                long percentile = snapshot.getPercentileNanos(q);
+                assertTrue(exact <= percentile && percentile <= exact + exact
+                    / 8, q + ": " + exact + " vs " + percentile);
+            }
+            assertEquals(0, metrics.snapshot(OperationMetrics.Operation.EXISTS)
+                .getCount());
+        }
+    }
+
+
+    /**
+     * - latencies below eight nanoseconds are exact, negative ones count as
+     * zero, and reset clears everything.
+     */
+    @Test
+    public void testSmallLatenciesAndReset() {
+        OperationMetrics metrics = new OperationMetrics();
+        OperationMetrics.Snapshot empty = metrics.snapshot(
+            OperationMetrics.Operation.SAVE);
+        assertEquals(0, empty.getPercentileNanos(0.5));
+        assertEquals(0, empty.getMeanNanos(), 0);
+        for (long nanos = -2; nanos < 8; nanos++) {
+            metrics.record(OperationMetrics.Operation.SAVE, nanos);
+        }
+        OperationMetrics.Snapshot small = metrics.snapshot(
+            OperationMetrics.Operation.SAVE);
+        assertEquals(10, small.getCount());
+        assertEquals(0, small.getPercentileNanos(0.3));
+        assertEquals(3, small.getPercentileNanos(0.6));
+        assertEquals(7, small.getPercentileNanos(1));
+        assertEquals(Long.valueOf(10), metrics.getCounts().get("SAVE"));
+        assertEquals(1, metrics.getCounts().size());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot(OperationMetrics.Operation.SAVE)
+            .getCount());
+        assertEquals(0, metrics.snapshot(OperationMetrics.Operation.SAVE)
+            .getMaxNanos());
+        assertTrue(metrics.getCounts().isEmpty());
+        // the old snapshot is a copy and keeps its values
+        assertEquals(10, small.getCount());
+    }
+
+
+    /**
+     * - calls recorded on several threads at once are all counted.
+     */
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        OperationMetrics metrics = new OperationMetrics();
+        int threads = 8;
+        int calls = 20000;
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            int nanos = 1000 * (t + 1);
+            workers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < calls; i++) {
+                        metrics.record(OperationMetrics.Operation.ADD_USER,
+                            nanos);
+                        metrics.snapshot(OperationMetrics.Operation.ADD_USER);
+                    }
+                }
+                catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        OperationMetrics.Snapshot snapshot = metrics.snapshot(
+            OperationMetrics.Operation.ADD_USER);
+        assertEquals(threads * calls, snapshot.getCount());
+        assertEquals(1000L * calls * threads * (threads + 1) / 2, snapshot
+            .getTotalNanos());
+        assertEquals(1000 * threads, snapshot.getMaxNanos());
+        assertEquals(1000 * threads, snapshot.getPercentileNanos(1));
+    }
+
+
+    /**
+     * - VTConnect counts each call of an operation while metrics are on,
+     * and nothing once they are off.
+     */
+    @Test
+    public void testVTConnectOperations() {
+        VTConnect app = new VTConnect();
+        assertNull(app.getMetrics());
+        OperationMetrics metrics = app.enableMetrics();
+        assertSame(metrics, app.enableMetrics());
+        assertSame(metrics, app.getMetrics());
+        Profile a = new Profile("a", "");
+        Profile b = new Profile("b", "");
+        Profile c = new Profile("c", "");
+        app.addUser(a);
+        app.addUser(b);
+        app.addUser(c);
+        app.createFriendship(a, b);
+        app.createFriendship(b, c);
+        assertEquals(2, app.friendshipDistance(a, c));
+        assertTrue(app.hasFriendship(a, b));
+        assertFalse(app.hasFriendship(a, c));
+        assertEquals(3, count(metrics, OperationMetrics.Operation.ADD_USER));
+        assertEquals(2, count(metrics,
+            OperationMetrics.Operation.CREATE_FRIENDSHIP));
+        assertEquals(1, count(metrics,
+            OperationMetrics.Operation.FRIENDSHIP_DISTANCE));
+        assertEquals(2, count(metrics,
+            OperationMetrics.Operation.HAS_FRIENDSHIP));
+        assertEquals(0, count(metrics,
+            OperationMetrics.Operation.REMOVE_USER));
+        assertTrue(metrics.snapshot(OperationMetrics.Operation.ADD_USER)
+            .getMaxNanos() > 0);
+
+        app.disableMetrics();
+        assertNull(app.getMetrics());
+        app.removeFriendship(a, b);
+        app.removeUser(c);
+        assertEquals(0, count(metrics,
+            OperationMetrics.Operation.REMOVE_FRIENDSHIP));
+        assertEquals(0, count(metrics,
+            OperationMetrics.Operation.REMOVE_USER));
+    }
+
+
+    private static long count(
+        OperationMetrics metrics,
+        OperationMetrics.Operation operation) {
+        return metrics.snapshot(operation).getCount();
+    }
+}
@@ -0,0 +1,201 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests PageRank against a plain sequential power iteration, and
+ *          checks that a warm start converges to the same ranks.
+ *
+ */
+public class PageRankTest {
+
+    private static final double DAMPING = 0.85;
+    private static final double TOLERANCE = 1e-12;
+
+    /**
+     * - ranks of random graphs with dangling vertices and removed ids sum to
+     * 1 and match the sequential reference, as do personalized ranks.
+     */
+    @Test
+    public void testMatchesReference() {
+        Random random = new Random(3);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 40; round++) {
+                int n = 1 + random.nextInt((round < 35) ? 60 : 3000);
+                Graph<Integer> graph = randomGraph(random, n);
+                PageRank<Integer> engine = new PageRank<Integer>(graph
+                    .snapshot(), pool, DAMPING, TOLERANCE, 1000);
+                PageRank.Scores<Integer> scores = engine.rank();
+                assertTrue(scores.isConverged());
+                assertMatches(reference(graph, n, null), scores, n);
+
+                Set<Integer> sources = new HashSet<Integer>();
+                for (int v = 0; v < n; v++) {
+                    if (graph.containsVertex(v) && random.nextInt(5) == 0) {
+                        sources.add(v);
+                    }
+                }
+                if (!sources.isEmpty()) {
+                    assertMatches(reference(graph, n, sources), engine
+                        .personalizedRank(sources, null), n);
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+
+    /**
+     * - starting from the scores before a few changes gives the cold start's
+     * ranks in no more iterations.
+     */
+    @Test
+    public void testWarmStart() {
+        Random random = new Random(5);
+        int n = 2000;
+        Graph<Integer> graph = randomGraph(random, n);
+        PageRank.Scores<Integer> before = graph.getPageRank(null);
+        for (int e = 0; e < 5; e++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        PageRank.Scores<Integer> cold = graph.getPageRank(null);
+        PageRank.Scores<Integer> warm = graph.getPageRank(before);
+        assertTrue(cold.isConverged() && warm.isConverged());
+        assertTrue(warm.getIterations() <= cold.getIterations());
+        for (int v = 0; v < n; v++) {
+            assertEquals(cold.get(v), warm.get(v), 1e-5);
+        }
+        List<Integer> top = cold.top(10);
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(cold.get(top.get(i - 1)) >= cold.get(top.get(i)));
+        }
+        assertTrue(new Graph<Integer>().getPageRank(null).top(3).isEmpty());
+    }
+
+
+    /**
+     * - the hub of a star has the most influence, and influence is kept until
+     * the next ranking.
+     */
+    @Test
+    public void testInfluence() {
+        VTConnect app = new VTConnect(true);
+        List<Profile> users = new ArrayList<Profile>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new Profile("u" + i, ""));
+            app.addUser(users.get(i));
+        }
+        for (int i = 1; i < 50; i++) {
+            app.createFriendship(users.get(0), users.get(i));
+        }
+        PageRank.Scores<Profile> scores = app.rankInfluence();
+        assertEquals(users.get(0), scores.top(1).get(0));
+        assertSame(scores, app.getInfluence());
+        assertTrue(app.personalizedInfluence(users.get(5)).top(2).contains(
+            users.get(5)));
+        assertTrue(app.personalizedInfluence(new Profile("none", "")).top(3)
+            .isEmpty());
+    }
+
+
+    /**
+     * - a graph on ids 0 to n - 1 with random edges, self-loops skipped,
+     * and sometimes one vertex removed.
+     */
+    private static Graph<Integer> randomGraph(Random random, int n) {
+        Graph<Integer> graph = new Graph<Integer>();
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        int m = random.nextInt(4 * n + 1);
+        for (int e = 0; e < m; e++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        if (n > 3 && random.nextBoolean()) {
+            graph.removeVertex(random.nextInt(n));
+        }
+        return graph;
+    }
+
+
+    /**
+     * - PageRank by sequential power iteration, with dangling rank and the
+     * teleport spread over sources, or over every vertex if sources is null.
+     */
+    private static double[] reference(
+        Graph<Integer> graph,
+        int n,
+        Set<Integer> sources) {
+        List<List<Integer>> out = new ArrayList<List<Integer>>();
+        double[] teleport = new double[n];
+        int live = 0;
+        for (int v = 0; v < n; v++) {
+            out.add(new ArrayList<Integer>());
+            if (graph.containsVertex(v)) {
+                live++;
+                for (int w = 0; w < n; w++) {
+                    if (graph.hasEdge(v, w)) {
+                        out.get(v).add(w);
+                    }
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (sources == null && graph.containsVertex(v)) {
+                teleport[v] = 1.0 / live;
+            }
+            else if (sources != null && sources.contains(v)) {
+                teleport[v] = 1.0 / sources.size();
+            }
+        }
+        double[] rank = teleport.clone();
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int v = 0; v < n; v++) {
+                if (out.get(v).isEmpty()) {
+                    dangling += rank[v];
+                }
+                for (int w : out.get(v)) {
+                    next[w] += DAMPING * rank[v] / out.get(v).size();
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (DAMPING * dangling + 1 - DAMPING) * teleport[v];
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+
+    private static void assertMatches(
+        double[] expected,
+        PageRank.Scores<Integer> scores,
+        int n) {
+        double sum = 0;
+        for (int v = 0; v < n; v++) {
+            assertEquals(expected[v], scores.get(v), 1e-9);
+            sum += scores.get(v);
+        }
+        assertEquals(1.0, sum, 1e-9);
+    }
+}
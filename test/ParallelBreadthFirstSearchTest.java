@@ -0,0 +1,173 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests the direction-optimizing parallel breadth-first search
+ *          against a sequential one, vertex by vertex, on graphs large and
+ *          dense enough that it switches to bottom-up steps and back.
+ *
+ */
+public class ParallelBreadthFirstSearchTest {
+
+    /**
+     * - levels from generated social graphs match sequential breadth-first
+     * distances for every vertex, from several origins.
+     */
+    @Test
+    public void testGeneratedGraphs() {
+        SocialGraphGenerator[] generators = { SocialGraphGenerator
+            .barabasiAlbert(60000, 6, 1), SocialGraphGenerator.wattsStrogatz(
+                50000, 10, 0.1, 2), SocialGraphGenerator.rmat(16, 400000,
+                    0.57, 0.19, 0.19, 3) };
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (SocialGraphGenerator generator : generators) {
+                int n = generator.getNumberOfVertices();
+                List<List<Integer>> out = emptyLists(n);
+                generator.generate((begins, ends, count) -> {
+                    synchronized (out) {
+                        for (int i = 0; i < count; i++) {
+                            out.get(begins[i]).add(ends[i]);
+                            out.get(ends[i]).add(begins[i]);
+                        }
+                    }
+                });
+                Graph<Integer> graph = new Graph<Integer>();
+                generator.populate(graph, v -> v);
+                Random random = new Random(n);
+                for (int query = 0; query < 4; query++) {
+                    assertLevels(graph, out, random.nextInt(n), pool);
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+
+    /**
+     * - on a directed graph whose hub reaches half the vertices at once,
+     * bottom-up steps follow in-edges and still give the sequential levels,
+     * also with a removed vertex leaving a hole in the ids.
+     */
+    @Test
+    public void testDirectedHub() {
+        int n = 40000;
+        Random random = new Random(9);
+        Graph<Integer> graph = new Graph<Integer>();
+        List<List<Integer>> out = emptyLists(n);
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        for (int e = 0; e < 3 * n; e++) {
+            int x = (e < n / 2) ? 0 : random.nextInt(n);
+            int y = random.nextInt(n);
+            if (graph.addEdge(x, y)) {
+                out.get(x).add(y);
+            }
+        }
+        int removed = 1 + random.nextInt(n - 1);
+        graph.removeVertex(removed);
+        for (List<Integer> targets : out) {
+            targets.remove((Integer)removed);
+        }
+        out.get(removed).clear();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertLevels(graph, out, 0, pool);
+            assertLevels(graph, out, random.nextInt(n), pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+
+    /**
+     * - checks the parallel levels from origin against a sequential search
+     * over out, and the parallel traversal against the sequential one: the
+     * same vertices, level by level and in id order inside a level.
+     */
+    private static void assertLevels(
+        Graph<Integer> graph,
+        List<List<Integer>> out,
+        int origin,
+        ForkJoinPool pool) {
+        if (!graph.containsVertex(origin)) {
+            return;
+        }
+        int[] expected = distancesFrom(out, origin);
+        int[] levels = graph.snapshot().getBreadthFirstLevels(origin, pool);
+        int[] actual = new int[expected.length];
+        for (int v = 0; v < expected.length; v++) {
+            int id = graph.idOf(v);
+            actual[v] = (id < 0)
+                ? ParallelBreadthFirstSearch.UNREACHED
+                : levels[id];
+        }
+        assertArrayEquals(expected, actual);
+
+        Queue<Integer> order = graph.getParallelBreadthFirstTraversal(origin);
+        assertEquals(new HashSet<Integer>(graph.getBreadthFirstTraversal(
+            origin)), new HashSet<Integer>(order));
+        int last = origin;
+        for (int v : order) {
+            assertTrue(expected[last] < expected[v] || (expected[last]
+                == expected[v] && graph.idOf(last) <= graph.idOf(v)));
+            last = v;
+        }
+    }
+
+
+    /**
+     * - sequential breadth-first levels from origin over out,
+     * ParallelBreadthFirstSearch.UNREACHED where unreachable.
+     */
+    private static int[] distancesFrom(List<List<Integer>> out, int origin) {
+        int[] distance = new int[out.size()];
+        for (int v = 0; v < distance.length; v++) {
+            distance[v] = (v == origin)
+                ? 0
+                : ParallelBreadthFirstSearch.UNREACHED;
+        }
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(origin);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int w : out.get(u)) {
+                if (distance[w] == ParallelBreadthFirstSearch.UNREACHED) {
+                    distance[w] = distance[u] + 1;
+                    queue.add(w);
+                }
+            }
+        }
+        return distance;
+    }
+
+
+    private static List<List<Integer>> emptyLists(int n) {
+        List<List<Integer>> lists = new ArrayList<List<Integer>>(n);
+        for (int v = 0; v < n; v++) {
+            lists.add(new ArrayList<Integer>());
+        }
+        return lists;
+    }
+}
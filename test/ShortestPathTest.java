@@ -0,0 +1,220 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests the shortest path searches of Graph against plain
+ *          breadth-first search and Bellman-Ford, and checks that the
+ *          paths they push are made of edges of the graph.
+ *
+ */
+public class ShortestPathTest {
+
+    /**
+     * - bidirectional search finds the breadth-first length and a valid path
+     * on random undirected graphs, also after removals.
+     */
+    @Test
+    public void testBidirectionalMatchesBreadthFirst() {
+        Random random = new Random(11);
+        for (int round = 0; round < 30; round++) {
+            int n = 2 + random.nextInt((round < 25) ? 40 : 400);
+            Graph<Integer> graph = new Graph<Integer>();
+            for (int v = 0; v < n; v++) {
+                graph.addVertex(v);
+            }
+            int m = random.nextInt(2 * n);
+            for (int e = 0; e < m; e++) {
+                addFriendship(graph, random.nextInt(n), random.nextInt(n));
+            }
+            for (int e = random.nextInt(n / 2 + 1); e > 0; e--) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                graph.removeEdge(x, y);
+                graph.removeEdge(y, x);
+            }
+            for (int query = 0; query < 50; query++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                int exact = distancesFrom(graph, x, n)[y];
+                Stack<Integer> path = new Stack<Integer>();
+                assertEquals(exact, graph.getShortestPathBidirectional(x, y,
+                    path));
+                assertEquals(exact, graph.getShortestPath(x, y,
+                    new Stack<Integer>()));
+                if (exact == Integer.MAX_VALUE) {
+                    assertTrue(path.isEmpty());
+                }
+                else {
+                    assertEquals(exact + 1, path.size());
+                    assertPath(graph, path, x, y);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * - the same vertex is 0 edges from itself and missing vertices are
+     * unreachable.
+     */
+    @Test
+    public void testBidirectionalEdgeCases() {
+        Graph<String> graph = new Graph<String>();
+        graph.addVertex("a");
+        graph.addVertex("b");
+        Stack<String> path = new Stack<String>();
+        assertEquals(0, graph.getShortestPathBidirectional("a", "a", path));
+        assertEquals("a", path.pop());
+        assertEquals(Integer.MAX_VALUE, graph.getShortestPathBidirectional(
+            "a", "b", path));
+        assertEquals(Integer.MAX_VALUE, graph.getShortestPathBidirectional(
+            "a", "none", path));
+        assertTrue(path.isEmpty());
+    }
+
+
+    /**
+     * - Dijkstra finds the cheapest cost and a path of that cost on random
+     * directed graphs with weights, zero weights included, against
+     * Bellman-Ford.
+     */
+    @Test
+    public void testWeightedMatchesBellmanFord() {
+        Random random = new Random(13);
+        for (int round = 0; round < 30; round++) {
+            int n = 2 + random.nextInt((round < 25) ? 30 : 300);
+            Graph<Integer> graph = new Graph<Integer>();
+            double[][] weight = new double[n][n];
+            for (int v = 0; v < n; v++) {
+                graph.addVertex(v);
+                Arrays.fill(weight[v], Double.NaN);
+            }
+            for (int e = random.nextInt(4 * n); e > 0; e--) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                double w = (random.nextInt(5) == 0) ? 0 : random.nextInt(100)
+                    / 4.0;
+                if (graph.addEdge(x, y, w)) {
+                    weight[x][y] = w;
+                }
+            }
+            for (int query = 0; query < 30; query++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n);
+                double exact = bellmanFord(weight, x)[y];
+                Stack<Integer> path = new Stack<Integer>();
+                double cost = graph.getWeightedShortestPath(x, y, path);
+                assertEquals(exact, cost, 1e-9);
+                if (exact == Double.POSITIVE_INFINITY) {
+                    assertTrue(path.isEmpty());
+                    continue;
+                }
+                assertPath(graph, path, x, y);
+                double sum = 0;
+                for (int i = path.size() - 1; i > 0; i--) {
+                    sum += weight[path.get(i)][path.get(i - 1)];
+                }
+                assertEquals(cost, sum, 1e-9);
+            }
+        }
+        Graph<String> graph = new Graph<String>();
+        graph.addVertex("a");
+        assertEquals(Double.POSITIVE_INFINITY, graph.getWeightedShortestPath(
+            "a", "none", new Stack<String>()));
+    }
+
+
+    /**
+     * - checks that path runs from origin on top to destination at the
+     * bottom along edges of graph.
+     */
+    private static <T> void assertPath(
+        Graph<T> graph,
+        Stack<T> path,
+        T origin,
+        T destination) {
+        assertEquals(origin, path.peek());
+        assertEquals(destination, path.get(0));
+        for (int i = path.size() - 1; i > 0; i--) {
+            assertTrue(graph.hasEdge(path.get(i), path.get(i - 1)));
+        }
+    }
+
+
+    /**
+     * - plain breadth-first hop distances from origin to ids 0 to n - 1,
+     * Integer.MAX_VALUE where unreachable.
+     */
+    private static int[] distancesFrom(
+        Graph<Integer> graph,
+        int origin,
+        int n) {
+        int[] distance = new int[n];
+        for (int v = 0; v < n; v++) {
+            distance[v] = (v == origin) ? 0 : Integer.MAX_VALUE;
+        }
+        List<Integer> frontier = new ArrayList<Integer>();
+        frontier.add(origin);
+        while (!frontier.isEmpty()) {
+            List<Integer> next = new ArrayList<Integer>();
+            for (int u : frontier) {
+                for (int w = 0; w < n; w++) {
+                    if (distance[w] == Integer.MAX_VALUE && graph.hasEdge(u,
+                        w)) {
+                        distance[w] = distance[u] + 1;
+                        next.add(w);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return distance;
+    }
+
+
+    /**
+     * - cheapest costs from origin to every id by Bellman-Ford over a weight
+     * matrix with NaN for missing edges, positive infinity where
+     * unreachable.
+     */
+    private static double[] bellmanFord(double[][] weight, int origin) {
+        int n = weight.length;
+        double[] cost = new double[n];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        cost[origin] = 0;
+        boolean changed = true;
+        for (int pass = 1; pass < n && changed; pass++) {
+            changed = false;
+            for (int u = 0; u < n; u++) {
+                for (int w = 0; w < n; w++) {
+                    // NaN compares false, so missing edges never relax
+                    if (cost[u] + weight[u][w] < cost[w]) {
+                        cost[w] = cost[u] + weight[u][w];
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return cost;
+    }
+
+
+    private static void addFriendship(Graph<Integer> graph, int a, int b) {
+        graph.addEdge(a, b);
+        graph.addEdge(b, a);
+    }
+}
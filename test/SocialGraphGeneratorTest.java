@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests SocialGraphGenerator: the same seed gives the same edges on
+ *          any number of threads, and Barabasi-Albert graphs have exactly
+ *          the friendships they report, with no duplicates or self-loops.
+ *
+ */
+public class SocialGraphGeneratorTest {
+
+    /**
+     * - Barabasi-Albert edges join distinct vertices, never repeat, and
+     * their count is getNumberOfEdges(), also when there are too few
+     * vertices to go past the starting clique.
+     */
+    @Test
+    public void testBarabasiAlbertSimple() {
+        int[][] shapes = { { 1, 3 }, { 2, 3 }, { 4, 3 }, { 5, 4 }, { 200,
+            1 }, { 3000, 5 }, { 2000, 40 } };
+        for (int[] shape : shapes) {
+            SocialGraphGenerator generator = SocialGraphGenerator
+                .barabasiAlbert(shape[0], shape[1], shape[0]);
+            long[] edges = collect(generator, 1);
+            Set<Long> distinct = new HashSet<Long>();
+            for (long edge : edges) {
+                int begin = (int)(edge >>> 32);
+                int end = (int)edge;
+                assertNotEquals(begin, end);
+                assertTrue(end >= 0 && end < begin && begin < shape[0]);
+                assertTrue(distinct.add(edge));
+            }
+            assertEquals(generator.getNumberOfEdges(), edges.length);
+
+            Graph<Integer> graph = new Graph<Integer>();
+            generator.populate(graph, v -> v);
+            assertEquals(2 * generator.getNumberOfEdges(), graph
+                .getNumberOfEdges());
+        }
+    }
+
+
+    /**
+     * - every model gives the same edges on one thread as on four.
+     */
+    @Test
+    public void testDeterministic() {
+        SocialGraphGenerator[] generators = { SocialGraphGenerator
+            .barabasiAlbert(20000, 6, 11), SocialGraphGenerator.rmat(14,
+                150000, 0.57, 0.19, 0.19, 11), SocialGraphGenerator
+                    .wattsStrogatz(20000, 8, 0.2, 11) };
+        for (SocialGraphGenerator generator : generators) {
+            assertArrayEquals(collect(generator, 1), collect(generator, 4));
+        }
+    }
+
+
+    /**
+     * - the edges of generator as sorted begin << 32 | end values, generated
+     * on a pool of the given size.
+     */
+    private static long[] collect(SocialGraphGenerator generator, int threads) {
+        long[] edges = new long[(int)generator.getNumberOfEdges()];
+        AtomicInteger at = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            generator.generate((begins, ends, count) -> {
+                int start = at.getAndAdd(count);
+                for (int i = 0; i < count; i++) {
+                    edges[start + i] = ((long)begins[i] << 32) | ends[i];
+                }
+            }, pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+        assertEquals(edges.length, at.get());
+        Arrays.sort(edges);
+        return edges;
+    }
+}
@@ -0,0 +1,188 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Tests TriangleCounter on graphs with known counts and against a
+ *          brute force count over every pair of neighbors.
+ *
+ */
+public class TriangleCounterTest {
+
+    /**
+     * - complete graphs, a cycle, a star and a bowtie have their textbook
+     * triangle counts and clustering coefficients.
+     */
+    @Test
+    public void testKnownGraphs() {
+        for (int n = 3; n <= 8; n++) {
+            Graph<Integer> complete = new Graph<Integer>();
+            addVertices(complete, n);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    complete.addEdge(i, j);
+                }
+            }
+            TriangleCounter<Integer> counter = complete.countTriangles();
+            assertEquals((long)n * (n - 1) * (n - 2) / 6, counter.getTotal());
+            assertEquals((long)(n - 1) * (n - 2) / 2, counter.getTriangles(
+                0));
+            assertEquals(1.0, counter.getClusteringCoefficient(n - 1));
+            assertEquals(1.0, counter.getAverageClusteringCoefficient());
+            assertEquals(1.0, counter.getTransitivity());
+        }
+
+        Graph<Integer> cycle = new Graph<Integer>();
+        addVertices(cycle, 6);
+        for (int i = 0; i < 6; i++) {
+            addFriendship(cycle, i, (i + 1) % 6);
+        }
+        assertEquals(0, cycle.countTriangles().getTotal());
+        assertEquals(0.0, cycle.countTriangles().getTransitivity());
+
+        Graph<Integer> star = new Graph<Integer>();
+        addVertices(star, 10);
+        for (int i = 1; i < 10; i++) {
+            addFriendship(star, 0, i);
+        }
+        TriangleCounter<Integer> counter = star.countTriangles();
+        assertEquals(0, counter.getTotal());
+        assertEquals(0.0, counter.getClusteringCoefficient(0));
+        assertEquals(0, counter.getTriangles(99));
+
+        // two triangles sharing vertex 0, one edge each way
+        Graph<Integer> bowtie = new Graph<Integer>();
+        addVertices(bowtie, 5);
+        bowtie.addEdge(0, 1);
+        bowtie.addEdge(2, 1);
+        bowtie.addEdge(0, 2);
+        bowtie.addEdge(3, 0);
+        bowtie.addEdge(4, 0);
+        bowtie.addEdge(3, 4);
+        counter = bowtie.countTriangles();
+        assertEquals(2, counter.getTotal());
+        assertEquals(2, counter.getTriangles(0));
+        assertEquals(1, counter.getTriangles(4));
+        assertEquals(2.0 / 6, counter.getClusteringCoefficient(0), 1e-12);
+        assertEquals(1.0, counter.getClusteringCoefficient(1));
+        assertEquals(6.0 / 10, counter.getTransitivity(), 1e-12);
+    }
+
+
+    /**
+     * - random graphs, directed and undirected, with hubs and removed
+     * vertices, match a brute force count on one thread and on four.
+     */
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(7);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (int round = 0; round < 80; round++) {
+                int n = 1 + random.nextInt((round < 70) ? 40 : 600);
+                Graph<Integer> graph = new Graph<Integer>();
+                addVertices(graph, n);
+                int hubs = 1 + random.nextInt(n);
+                int m = random.nextInt(n * 6 + 1);
+                for (int e = 0; e < m; e++) {
+                    int x = random.nextInt(n);
+                    int y = random.nextInt(hubs);
+                    graph.addEdge(x, y);
+                    if (random.nextBoolean()) {
+                        graph.addEdge(y, x);
+                    }
+                }
+                if (n > 2 && random.nextInt(4) == 0) {
+                    graph.removeVertex(random.nextInt(n));
+                }
+                assertMatches(graph, n, graph.snapshot().countTriangles(pool));
+                assertMatches(graph, n, graph.snapshot().countTriangles(
+                    single));
+            }
+        }
+        finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+    }
+
+
+    /**
+     * - counter has the per-vertex triangles, clustering coefficients and
+     * totals found by testing every pair of neighbors of every vertex of
+     * graph, with edges taken as undirected.
+     */
+    private static void assertMatches(
+        Graph<Integer> graph,
+        int n,
+        TriangleCounter<Integer> counter) {
+        List<Set<Integer>> neighbors = new ArrayList<Set<Integer>>();
+        for (int v = 0; v < n; v++) {
+            neighbors.add(new HashSet<Integer>());
+        }
+        for (int v = 0; v < n; v++) {
+            for (int w = 0; w < n; w++) {
+                if (v != w && graph.hasEdge(v, w)) {
+                    neighbors.get(v).add(w);
+                    neighbors.get(w).add(v);
+                }
+            }
+        }
+        long total = 0;
+        long wedges = 0;
+        double clustering = 0;
+        for (int v = 0; v < n; v++) {
+            List<Integer> around = new ArrayList<Integer>(neighbors.get(v));
+            long closed = 0;
+            for (int i = 0; i < around.size(); i++) {
+                for (int j = i + 1; j < around.size(); j++) {
+                    if (neighbors.get(around.get(i)).contains(around.get(j))) {
+                        closed++;
+                    }
+                }
+            }
+            long degree = around.size();
+            long pairs = degree * (degree - 1) / 2;
+            double local = (pairs == 0) ? 0 : (double)closed / pairs;
+            assertEquals(closed, counter.getTriangles(v));
+            assertEquals(local, counter.getClusteringCoefficient(v), 1e-12);
+            total += closed;
+            wedges += pairs;
+            if (graph.containsVertex(v)) {
+                clustering += local;
+            }
+        }
+        assertEquals(total / 3, counter.getTotal());
+        assertEquals((wedges == 0) ? 0 : 3.0 * counter.getTotal() / wedges,
+            counter.getTransitivity(), 1e-12);
+        assertEquals(clustering / graph.getNumberOfVertices(), counter
+            .getAverageClusteringCoefficient(), 1e-9);
+    }
+
+
+    private static void addVertices(Graph<Integer> graph, int n) {
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+    }
+
+
+    private static void addFriendship(Graph<Integer> graph, int a, int b) {
+        graph.addEdge(a, b);
+        graph.addEdge(b, a);
+    }
+}
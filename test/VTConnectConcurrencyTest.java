@@ -0,0 +1,141 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ */
+
+/**
+ * @author Adam Schneider
+ * @version 2026-10-17
+ *
+ *          Stress tests VTConnect's concurrent mode: many threads change and
+ *          query friendships at once with the landmark and suggestion
+ *          indexes enabled, and the network must then match a sequential
+ *          copy built from its friendships.
+ *
+ */
+public class VTConnectConcurrencyTest {
+
+    private static final int USERS = 300;
+    private static final int THREADS = 8;
+
+    /**
+     * - concurrent changes, distance queries, suggestions and traversals
+     * leave symmetric friend lists that agree with the graph, and distances
+     * that agree with a sequential copy.
+     */
+    @Test
+    public void testMutateAndQuery() throws InterruptedException {
+        VTConnect app = new VTConnect(true);
+        List<Profile> users = new ArrayList<Profile>();
+        for (int i = 0; i < USERS; i++) {
+            Profile user = new Profile("u" + i, "", new ArrayList<Profile>());
+            users.add(user);
+            app.addUser(user);
+        }
+        app.enableLandmarkIndex(3);
+        app.enableFriendSuggestionIndex(8);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            runWorkers(app, users);
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        VTConnect copy = new VTConnect();
+        List<Profile> copies = new ArrayList<Profile>();
+        for (int i = 0; i < USERS; i++) {
+            Profile user = new Profile("c" + i, "", new ArrayList<Profile>());
+            copies.add(user);
+            copy.addUser(user);
+        }
+        for (int i = 0; i < USERS; i++) {
+            Profile user = users.get(i);
+            Set<Profile> friends = new HashSet<Profile>(user
+                .getFriendProfiles());
+            assertEquals(friends.size(), user.getFriendProfiles().size());
+            for (int j = 0; j < USERS; j++) {
+                Profile other = users.get(j);
+                boolean friendship = app.hasFriendship(user, other);
+                assertEquals(friends.contains(other), friendship);
+                assertEquals(friendship, app.hasFriendship(other, user));
+                if (friendship && i < j) {
+                    copy.createFriendship(copies.get(i), copies.get(j));
+                }
+            }
+        }
+        Random random = new Random(9);
+        for (int q = 0; q < 2000; q++) {
+            int x = random.nextInt(USERS);
+            int y = random.nextInt(USERS);
+            int exact = copy.friendshipDistance(copies.get(x), copies.get(y));
+            assertEquals(exact, app.friendshipDistance(users.get(x), users
+                .get(y)));
+            int estimate = app.estimateFriendshipDistance(users.get(x), users
+                .get(y));
+            assertTrue((exact == -1) ? estimate == -1 : estimate >= exact);
+        }
+    }
+
+
+    private static void runWorkers(VTConnect app, List<Profile> users)
+        throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            workers.add(new Thread(() -> {
+                try {
+                    for (int step = 0; step < 8000; step++) {
+                        Profile a = users.get(random.nextInt(USERS));
+                        Profile b = users.get(random.nextInt(USERS));
+                        int op = random.nextInt(100);
+                        if (op < 45) {
+                            app.createFriendship(a, b);
+                        }
+                        else if (op < 75) {
+                            app.removeFriendship(a, b);
+                        }
+                        else if (op < 85) {
+                            app.friendshipDistance(a, b);
+                        }
+                        else if (op < 92) {
+                            app.estimateFriendshipDistance(a, b);
+                        }
+                        else if (op < 99) {
+                            app.friendSuggestion(a, 3);
+                        }
+                        else {
+                            app.traverse(a);
+                        }
+                    }
+                }
+                catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}